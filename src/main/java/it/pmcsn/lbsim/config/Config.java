@@ -1,6 +1,7 @@
 package it.pmcsn.lbsim.config;
 
 import java.time.Duration;
+import java.util.List;
 
 public class Config {
 
@@ -14,6 +15,9 @@ public class Config {
     public Output output;
     public Logging logging;
     public Path path;
+    public Ingestion ingestion;
+    public Client client;
+    public Servers servers;
 
     public static class Simulation {
         public String typesimulation;
@@ -41,6 +45,41 @@ public class Config {
         public boolean isTracedriven;
         public Dist interarrival;
         public Dist service;
+        public Trace trace;
+        public Correlation correlation;
+        public Batch batch;
+    }
+
+    public static class Batch {
+        public String distribution = "none"; // none, fixed, geometric, poisson, uniform
+        public double mean = 1.0;
+        public int min = 1;
+        public int max = 1;
+        public int stream = 9;
+    }
+
+    public static class Correlation {
+        public double sizeLag1;         // correlazione a lag 1 delle dimensioni
+        public double gapSizeCoupling;  // probabilità di accoppiamento interarrivo-dimensione in [-1, 1], non una correlazione
+        public int stream = 8;
+    }
+
+    public static class Trace {
+        public double timeScale = 1.0;      // fattore sugli interarrivi (< 1 comprime, > 1 dilata)
+        public int replicas = 1;
+        public Duration replicaOffset = Duration.ZERO;
+        public List<TraceFiles> superpose;  // altre tracce da sovrapporre
+        public List<Window> splice;         // finestre [from, to) da concatenare
+    }
+
+    public static class TraceFiles {
+        public String arrivals;
+        public String sizes;
+    }
+
+    public static class Window {
+        public Duration from;
+        public Duration to;
     }
 
     public static class Dist {
@@ -53,11 +92,38 @@ public class Config {
 
     public static class Scheduling {
         public String policy;
+        public int d = 2;          // server campionati da power_of_d
+        public int memory = 0;     // migliori server ricordati tra una scelta e l'altra (JSQ(d,m))
+        public int stream = 10;
+        public int dispatchers = 1;         // dispatcher davanti al pool, ognuno con il proprio stato (jiq: la propria idle queue)
+        public String split = "random";     // random, hash: come gli arrivi sono ripartiti tra i dispatcher
+        public int splitStream = 11;
+        public String fallback = "random";  // jiq: random, round_robin quando la idle queue è vuota
+        public boolean includeSpike;        // politiche pesate: lo spike server è un target con il suo peso
+        public LoadInfo loadInfo;
+    }
+
+    public static class LoadInfo {
+        public String mode = "live";        // live, periodic, delayed
+        public Duration period = Duration.ofSeconds(1);
+        public Duration delay = Duration.ofSeconds(1);
     }
 
     public static class Scaling {
         public SpikeServer spikeServer;
         public Horizontal horizontal;
+        public Vertical vertical;
+    }
+
+    public static class Vertical {
+        public boolean enabled = false;
+        public Duration evaluationPeriod = Duration.ofSeconds(30);
+        public Duration resizeDelay = Duration.ofSeconds(20);
+        public double scaleUpAbove = 0.8;
+        public double scaleDownBelow = 0.3;
+        public double factor = 2.0;
+        public double minCpu = 0.5;
+        public double maxCpu = 2.0;
     }
 
     public static class SpikeServer {
@@ -65,6 +131,25 @@ public class Config {
         public int SImax;
         public int cpuMultiplier;
         public double cpuPercentage;
+        public CpuCredits credits;
+        public Tier tier;
+    }
+
+    public static class Tier {
+        public int minServers = 1;
+        public int maxServers = 1;
+        public String policy = "least_load";   // least_load, round_robin, least_work_left
+        public Duration evaluationPeriod = Duration.ofSeconds(2);
+        public double scaleOutAbove = 40.0;
+        public double scaleInBelow = 5.0;
+        public Duration coolDown = Duration.ofSeconds(10);
+    }
+
+    public static class CpuCredits {
+        public boolean enabled = false;
+        public double accrualRate = 0.2;
+        public double maxBalance = 1440.0;
+        public double initialBalance = 1440.0;
     }
 
     public static class Horizontal {
@@ -74,6 +159,107 @@ public class Config {
         public Duration R0min;
         public Duration coolDown;
         public int initialServerCount;
+        public String policy = "sliding_window";   // sliding_window, predictive, percentile, time_window, target_tracking, pid
+        public Predictive predictive;
+        public Percentile percentile;
+        public TimeWindow timeWindow;
+        public TargetTracking targetTracking;
+        public Pid pid;
+    }
+
+    public static class Pid {
+        public String metric = "response_time";   // response_time, utilization
+        public Duration targetResponse = Duration.ofSeconds(5);
+        public double targetUtilization = 0.7;
+        public double kp = 1.0;
+        public double ki = 0.05;
+        public double kd = 0.0;
+        public int maxServers = 50;
+    }
+
+    public static class TargetTracking {
+        public Duration target = Duration.ofSeconds(5);
+        public double tolerance = 0.1;
+        public Duration stabilizationWindow = Duration.ofMinutes(5);
+        public int maxStep = 4;
+    }
+
+    public static class TimeWindow {
+        public Duration window = Duration.ofSeconds(60);
+        public int buckets = 12;
+        public Duration evaluationPeriod = Duration.ofSeconds(10);
+    }
+
+    public static class Percentile {
+        public double quantile = 0.99;
+        public Duration scaleOutAbove = Duration.ofSeconds(30);
+        public Duration scaleInBelow = Duration.ofSeconds(10);
+    }
+
+    public static class Predictive {
+        public Duration interval = Duration.ofSeconds(10);
+        public double alpha = 0.3;
+        public double beta = 0.1;
+        public double targetUtilization = 0.7;
+        public double scaleInUtilization = 0.5;
+    }
+
+    public static class Client {
+        public Timeout timeout;
+        public Retry retry;
+    }
+
+    public static class Timeout {
+        public boolean enabled;
+        public String distribution;   // fixed, exponential
+        public Duration mean;
+        public int stream;
+    }
+
+    public static class Retry {
+        public int maxRetries;
+        public Duration backoffBase;
+        public double backoffMultiplier;
+        public Duration backoffMax;
+        public boolean jitter;
+        public int stream;
+    }
+
+    public static class Servers {
+        public Discipline web;
+        public Discipline spike;
+    }
+
+    public static class Discipline {
+        public String discipline = "ps";    // ps, fcfs, srpt, las, limited_ps
+        public int limit = 4;               // limited_ps: multiprogramming limit
+        public int cores = 1;               // ps, limited_ps: ogni job usa al più uno dei core
+        public List<RatePoint> rateCurve;   // efficienza del server in funzione dei job in esecuzione
+        public double pricePerHour = 1.0;   // web: costo di un server all'ora, in ogni stato tranne RELEASED
+        public Provisioning provisioning;   // web: avvio e warm-up dei server aggiunti con lo scale-out
+        public List<InstanceType> instanceTypes;   // web: taglie acquistabili, sostituiscono pricePerHour e provisioning
+    }
+
+    public static class InstanceType {
+        public String name;
+        public double cpuMultiplier = 1.0;
+        public double pricePerHour = 1.0;
+        public Provisioning provisioning;
+    }
+
+    public static class Provisioning {
+        public String distribution = "fixed";   // fixed, exponential, uniform
+        public Duration mean = Duration.ZERO;
+        public Duration min = Duration.ZERO;
+        public Duration max = Duration.ZERO;
+        public int stream = 12;
+        public Duration warmup = Duration.ZERO;
+        public double warmupRate = 0.5;
+    }
+
+    public static class RatePoint {
+        public int jobs;
+        public double factor;
     }
 
     public static class Output {
@@ -89,4 +275,20 @@ public class Config {
         public String traceArrivalsPath;
         public String traceSizePath;
     }
+
+    public static class Ingestion {
+        public String accessLogPath;
+        public String arrivalsOutPath = "output/trace/arrivals.txt"; // kept apart from the simulator trace in path
+        public String sizesOutPath = "output/trace/sizes.txt";
+        public String format;       // common, combined, common_duration, combined_duration, regex, csv
+        public String regex;        // named groups (?<time>...) and (?<size>...)
+        public String timeFormat;   // clf, epoch, epoch_ms or a DateTimeFormatter pattern
+        public String csvSeparator;
+        public int timeColumn;
+        public int sizeColumn;
+        public boolean skipHeader;
+        public String sizeField = "bytes";  // bytes, or duration with the *_duration formats
+        public double sizeScale;    // seconds of service per unit of the size field
+        public int threads;         // 0 = one per core
+    }
 }
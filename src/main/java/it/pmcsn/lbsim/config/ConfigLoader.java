@@ -3,12 +3,24 @@ package it.pmcsn.lbsim.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.pmcsn.lbsim.models.domain.client.TimeoutRetryClientPolicy;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.JoinIdleQueuePolicy;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatchSplit;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScalerType;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.PidHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.LoadViewType;
+import it.pmcsn.lbsim.models.domain.server.ServerLifecycle;
+import it.pmcsn.lbsim.models.domain.servicediscipline.RateCurve;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ServiceDisciplineType;
 import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingType;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.BatchSizeDistribution;
 import it.pmcsn.lbsim.models.simulation.workloadgenerator.WorkloadType;
 import it.pmcsn.lbsim.models.simulation.runType.RunType;
+import it.pmcsn.lbsim.utils.trace.AccessLogFormat;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -80,6 +92,22 @@ public class ConfigLoader {
         @Override public int getServiceStreamHexp1() { return cfg.workload.service.streamhexp1; }
         @Override public int getServiceStreamHexp2() { return cfg.workload.service.streamhexp2; }
 
+        @Override public int getSchedulingChoices() { return cfg.scheduling.d; }
+        @Override public int getSchedulingMemory() { return cfg.scheduling.memory; }
+        @Override public int getSchedulingStream() { return cfg.scheduling.stream; }
+        @Override public int getDispatcherCount() { return cfg.scheduling.dispatchers; }
+        @Override public DispatchSplit getDispatchSplit() { return DispatchSplit.fromString(cfg.scheduling.split); }
+        @Override public int getDispatchSplitStream() { return cfg.scheduling.splitStream; }
+        @Override public boolean isSpikeWeightedTarget() { return cfg.scheduling.includeSpike; }
+        @Override public LoadViewType getLoadViewType() { return LoadViewType.fromString(loadInfo().mode); }
+        @Override public Duration getLoadViewPeriod() { return loadInfo().period; }
+        @Override public Duration getLoadViewDelay() { return loadInfo().delay; }
+
+        // la sezione scheduling.loadInfo è opzionale: senza, il dispatcher vede il carico reale
+        private Config.LoadInfo loadInfo() {
+            return cfg.scheduling.loadInfo != null ? cfg.scheduling.loadInfo : new Config.LoadInfo();
+        }
+        @Override public JoinIdleQueuePolicy.Fallback getJiqFallback() { return JoinIdleQueuePolicy.Fallback.fromString(cfg.scheduling.fallback); }
         @Override public SchedulingType getSchedulingType() {
             return SchedulingType.fromString(cfg.scheduling.policy);
         }
@@ -88,19 +116,235 @@ public class ConfigLoader {
         @Override public int getSImax() { return cfg.scaling.spikeServer.SImax; }
         @Override public int getSpikeCpuMultiplier() { return cfg.scaling.spikeServer.cpuMultiplier; }
         @Override public double getSpikeCpuPercentage() { return cfg.scaling.spikeServer.cpuPercentage; }
+        @Override public boolean isSpikeCreditsEnabled() { return credits().enabled; }
+        @Override public double getCreditAccrualRate() { return credits().accrualRate; }
+        @Override public double getMaxCreditBalance() { return credits().maxBalance; }
+        @Override public double getInitialCreditBalance() { return credits().initialBalance; }
+
+        // la sezione credits è opzionale: senza, lo spike server lavora sempre a cpuPercentage
+        private Config.CpuCredits credits() {
+            return cfg.scaling.spikeServer.credits != null ? cfg.scaling.spikeServer.credits : new Config.CpuCredits();
+        }
+
+        @Override public int getMinSpikeServers() { return tier().minServers; }
+        @Override public int getMaxSpikeServers() { return tier().maxServers; }
+        @Override public SchedulingType getSpikeSchedulingType() { return SchedulingType.fromString(tier().policy); }
+        @Override public Duration getSpikeEvaluationPeriod() { return tier().evaluationPeriod; }
+        @Override public double getSpikeScaleOutAbove() { return tier().scaleOutAbove; }
+        @Override public double getSpikeScaleInBelow() { return tier().scaleInBelow; }
+        @Override public Duration getSpikeCoolDown() { return tier().coolDown; }
+
+        // la sezione tier è opzionale: senza, c'è un solo spike server
+        private Config.Tier tier() {
+            return cfg.scaling.spikeServer.tier != null ? cfg.scaling.spikeServer.tier : new Config.Tier();
+        }
 
         @Override public boolean isHorizontalEnabled() { return cfg.scaling.horizontal.enabled; }
         @Override public int getSlidingWindowSize() { return cfg.scaling.horizontal.slidingWindowSize; }
         @Override public Duration getR0max() { return cfg.scaling.horizontal.R0max; }
         @Override public Duration getR0min() { return cfg.scaling.horizontal.R0min; }
         @Override public Duration getHorizontalCoolDown() { return cfg.scaling.horizontal.coolDown; }
+        @Override public HorizontalScalerType getHorizontalPolicy() { return HorizontalScalerType.fromString(cfg.scaling.horizontal.policy); }
+        @Override public Duration getPredictiveInterval() { return predictive().interval; }
+        @Override public double getPredictiveAlpha() { return predictive().alpha; }
+        @Override public double getPredictiveBeta() { return predictive().beta; }
+        @Override public double getTargetUtilization() { return predictive().targetUtilization; }
+        @Override public double getScaleInUtilization() { return predictive().scaleInUtilization; }
+
+        @Override public double getScalingQuantile() { return percentile().quantile; }
+        @Override public Duration getPercentileScaleOutAbove() { return percentile().scaleOutAbove; }
+        @Override public Duration getPercentileScaleInBelow() { return percentile().scaleInBelow; }
+
+        @Override public Duration getScalingTimeWindow() { return timeWindow().window; }
+        @Override public int getScalingWindowBuckets() { return timeWindow().buckets; }
+        @Override public Duration getScalingEvaluationPeriod() { return timeWindow().evaluationPeriod; }
+
+        @Override public Duration getTargetResponseTime() { return targetTracking().target; }
+        @Override public double getTargetTolerance() { return targetTracking().tolerance; }
+        @Override public Duration getStabilizationWindow() { return targetTracking().stabilizationWindow; }
+        @Override public int getMaxScalingStep() { return targetTracking().maxStep; }
+
+        @Override public PidHorizontalScaler.Metric getPidMetric() { return PidHorizontalScaler.Metric.fromString(pid().metric); }
+        @Override public Duration getPidTargetResponse() { return pid().targetResponse; }
+        @Override public double getPidTargetUtilization() { return pid().targetUtilization; }
+        @Override public double getPidKp() { return pid().kp; }
+        @Override public double getPidKi() { return pid().ki; }
+        @Override public double getPidKd() { return pid().kd; }
+        @Override public int getMaxServers() { return pid().maxServers; }
+
+        @Override public boolean isVerticalEnabled() { return vertical().enabled; }
+        @Override public Duration getVerticalEvaluationPeriod() { return vertical().evaluationPeriod; }
+        @Override public Duration getResizeDelay() { return vertical().resizeDelay; }
+        @Override public double getVerticalScaleUpAbove() { return vertical().scaleUpAbove; }
+        @Override public double getVerticalScaleDownBelow() { return vertical().scaleDownBelow; }
+        @Override public double getVerticalFactor() { return vertical().factor; }
+        @Override public double getMinCpuPercentage() { return vertical().minCpu; }
+        @Override public double getMaxCpuPercentage() { return vertical().maxCpu; }
+
+        // la sezione vertical è opzionale: senza, i server non vengono mai ridimensionati
+        private Config.Vertical vertical() {
+            return cfg.scaling.vertical != null ? cfg.scaling.vertical : new Config.Vertical();
+        }
+
+        private Config.Pid pid() {
+            return cfg.scaling.horizontal.pid != null ? cfg.scaling.horizontal.pid : new Config.Pid();
+        }
+
+        private Config.TargetTracking targetTracking() {
+            return cfg.scaling.horizontal.targetTracking != null ? cfg.scaling.horizontal.targetTracking : new Config.TargetTracking();
+        }
+
+        private Config.TimeWindow timeWindow() {
+            return cfg.scaling.horizontal.timeWindow != null ? cfg.scaling.horizontal.timeWindow : new Config.TimeWindow();
+        }
+
+        private Config.Percentile percentile() {
+            return cfg.scaling.horizontal.percentile != null ? cfg.scaling.horizontal.percentile : new Config.Percentile();
+        }
+
+        private Config.Predictive predictive() {
+            return cfg.scaling.horizontal.predictive != null ? cfg.scaling.horizontal.predictive : new Config.Predictive();
+        }
         @Override public int getInitialServerCount() { return cfg.scaling.horizontal.initialServerCount; }
 
+        // la sezione client è opzionale: senza, i client non vanno mai in timeout
+        @Override public boolean isTimeoutEnabled() { return cfg.client != null && cfg.client.timeout != null && cfg.client.timeout.enabled; }
+        @Override public TimeoutRetryClientPolicy.TimeoutDistribution getTimeoutDistribution() {
+            return TimeoutRetryClientPolicy.TimeoutDistribution.fromString(cfg.client.timeout.distribution);
+        }
+        @Override public Duration getTimeoutMean() { return cfg.client.timeout.mean; }
+        @Override public int getTimeoutStream() { return cfg.client.timeout.stream; }
+        @Override public int getMaxRetries() { return cfg.client.retry == null ? 0 : cfg.client.retry.maxRetries; }
+        @Override public Duration getRetryBackoffBase() { return cfg.client.retry == null ? Duration.ZERO : cfg.client.retry.backoffBase; }
+        @Override public double getRetryBackoffMultiplier() { return cfg.client.retry == null ? 1.0 : cfg.client.retry.backoffMultiplier; }
+        @Override public Duration getRetryBackoffMax() { return cfg.client.retry == null ? Duration.ZERO : cfg.client.retry.backoffMax; }
+        @Override public boolean isRetryJitter() { return cfg.client.retry != null && cfg.client.retry.jitter; }
+        @Override public int getRetryStream() { return cfg.client.retry == null ? 0 : cfg.client.retry.stream; }
+
         @Override public String getCsvOutputDir() { return cfg.output.csvDir; }
         @Override public String getPlotOutputDir() { return cfg.output.plotDir; }
 
         @Override public String getTraceArrivalsPath() { return cfg.path.traceArrivalsPath; }
         @Override public String getTraceSizePath() { return cfg.path.traceSizePath; }
+        @Override public double getTraceTimeScale() { return trace().timeScale; }
+        @Override public int getTraceReplicas() { return trace().replicas; }
+        @Override public Duration getTraceReplicaOffset() { return trace().replicaOffset; }
+        @Override public List<String> getTraceSuperposeArrivalsPaths() {
+            return trace().superpose == null ? List.of() : trace().superpose.stream().map(t -> t.arrivals).toList();
+        }
+        @Override public List<String> getTraceSuperposeSizePaths() {
+            return trace().superpose == null ? List.of() : trace().superpose.stream().map(t -> t.sizes).toList();
+        }
+        @Override public List<double[]> getTraceSpliceWindows() {
+            return trace().splice == null ? List.of() : trace().splice.stream()
+                    .map(w -> new double[]{w.from.toMillis() / 1000.0, w.to.toMillis() / 1000.0})
+                    .toList();
+        }
+
+        @Override public double getSizeLag1Correlation() { return correlation().sizeLag1; }
+        @Override public double getGapSizeCoupling() { return correlation().gapSizeCoupling; }
+        @Override public int getCorrelationStream() { return correlation().stream; }
+
+        @Override public BatchSizeDistribution getBatchSizeDistribution() { return BatchSizeDistribution.fromString(batch().distribution); }
+        @Override public double getBatchSizeMean() { return batch().mean; }
+        @Override public int getBatchSizeMin() { return batch().min; }
+        @Override public int getBatchSizeMax() { return batch().max; }
+        @Override public int getBatchSizeStream() { return batch().stream; }
+
+        private Config.Batch batch() {
+            return cfg.workload.batch != null ? cfg.workload.batch : new Config.Batch();
+        }
+
+        private Config.Correlation correlation() {
+            return cfg.workload.correlation != null ? cfg.workload.correlation : new Config.Correlation();
+        }
+
+        // la sezione workload.trace è opzionale
+        private Config.Trace trace() {
+            return cfg.workload.trace != null ? cfg.workload.trace : new Config.Trace();
+        }
+
+        @Override public ServiceDisciplineType getWebDiscipline() { return ServiceDisciplineType.fromString(discipline(true).discipline); }
+        @Override public int getWebDisciplineLimit() { return discipline(true).limit; }
+        @Override public int getWebCores() { return discipline(true).cores; }
+        @Override public RateCurve getWebRateCurve() { return rateCurve(discipline(true).rateCurve); }
+        @Override public ServiceDisciplineType getSpikeDiscipline() { return ServiceDisciplineType.fromString(discipline(false).discipline); }
+        @Override public int getSpikeDisciplineLimit() { return discipline(false).limit; }
+        @Override public int getSpikeCores() { return discipline(false).cores; }
+        @Override public RateCurve getSpikeRateCurve() { return rateCurve(discipline(false).rateCurve); }
+
+        @Override public double getSpikePricePerHour() { return discipline(false).pricePerHour; }
+        @Override public ServerLifecycle.DelayDistribution getSpikeProvisioningDistribution() { return ServerLifecycle.DelayDistribution.fromString(spikeProvisioning().distribution); }
+        @Override public Duration getSpikeProvisioningMean() { return spikeProvisioning().mean; }
+        @Override public Duration getSpikeProvisioningMin() { return spikeProvisioning().min; }
+        @Override public Duration getSpikeProvisioningMax() { return spikeProvisioning().max; }
+        @Override public int getSpikeProvisioningStream() { return spikeProvisioning().stream; }
+        @Override public Duration getSpikeWarmup() { return spikeProvisioning().warmup; }
+        @Override public double getSpikeWarmupRate() { return spikeProvisioning().warmupRate; }
+        @Override public int getInstanceTypeCount() { return instanceTypes().size(); }
+        @Override public String getInstanceTypeName(int type) { return instanceTypes().get(type).name; }
+        @Override public double getInstanceTypeCpuMultiplier(int type) { return instanceTypes().get(type).cpuMultiplier; }
+        @Override public double getInstanceTypePricePerHour(int type) { return instanceTypes().get(type).pricePerHour; }
+        @Override public ServerLifecycle.DelayDistribution getProvisioningDistribution(int type) { return ServerLifecycle.DelayDistribution.fromString(provisioning(type).distribution); }
+        @Override public Duration getProvisioningMean(int type) { return provisioning(type).mean; }
+        @Override public Duration getProvisioningMin(int type) { return provisioning(type).min; }
+        @Override public Duration getProvisioningMax(int type) { return provisioning(type).max; }
+        @Override public int getProvisioningStream(int type) { return provisioning(type).stream; }
+        @Override public Duration getWarmup(int type) { return provisioning(type).warmup; }
+        @Override public double getWarmupRate(int type) { return provisioning(type).warmupRate; }
+
+        // senza instanceTypes il pool web ha un solo tipo, descritto da pricePerHour e provisioning
+        private List<Config.InstanceType> instanceTypes() {
+            Config.Discipline web = discipline(true);
+            if (web.instanceTypes != null && !web.instanceTypes.isEmpty()) {
+                return web.instanceTypes;
+            }
+            Config.InstanceType single = new Config.InstanceType();
+            single.name = "web";
+            single.pricePerHour = web.pricePerHour;
+            single.provisioning = web.provisioning;
+            return List.of(single);
+        }
+
+        private Config.Provisioning provisioning(int type) {
+            Config.Provisioning p = instanceTypes().get(type).provisioning;
+            return p != null ? p : new Config.Provisioning();
+        }
+
+        // avvio degli spike server aggiunti dallo scaler del tier
+        private Config.Provisioning spikeProvisioning() {
+            Config.Provisioning p = discipline(false).provisioning;
+            return p != null ? p : new Config.Provisioning();
+        }
+
+        private RateCurve rateCurve(List<Config.RatePoint> points) {
+            if (points == null || points.isEmpty()) {
+                return RateCurve.FLAT;
+            }
+            return new RateCurve(points.stream().mapToInt(p -> p.jobs).toArray(), points.stream().mapToDouble(p -> p.factor).toArray());
+        }
+
+        // la sezione servers è opzionale: senza, tutti i server sono processor sharing
+        private Config.Discipline discipline(boolean web) {
+            Config.Discipline d = cfg.servers == null ? null : (web ? cfg.servers.web : cfg.servers.spike);
+            return d != null ? d : new Config.Discipline();
+        }
+
+        @Override public String getAccessLogPath() { return cfg.ingestion.accessLogPath; }
+        @Override public String getAccessLogArrivalsOutPath() { return cfg.ingestion.arrivalsOutPath != null ? cfg.ingestion.arrivalsOutPath : "output/trace/arrivals.txt"; }
+        @Override public String getAccessLogSizesOutPath() { return cfg.ingestion.sizesOutPath != null ? cfg.ingestion.sizesOutPath : "output/trace/sizes.txt"; }
+        @Override public AccessLogFormat getAccessLogFormat() { return AccessLogFormat.fromString(cfg.ingestion.format); }
+        @Override public String getAccessLogRegex() { return cfg.ingestion.regex; }
+        @Override public String getAccessLogTimeFormat() { return cfg.ingestion.timeFormat; }
+        @Override public char getAccessLogCsvSeparator() {
+            return (cfg.ingestion.csvSeparator == null || cfg.ingestion.csvSeparator.isEmpty()) ? ',' : cfg.ingestion.csvSeparator.charAt(0);
+        }
+        @Override public int getAccessLogTimeColumn() { return cfg.ingestion.timeColumn; }
+        @Override public int getAccessLogSizeColumn() { return cfg.ingestion.sizeColumn; }
+        @Override public boolean getAccessLogSkipHeader() { return cfg.ingestion.skipHeader; }
+        @Override public String getAccessLogSizeField() { return cfg.ingestion.sizeField != null ? cfg.ingestion.sizeField : "bytes"; }
+        @Override public double getAccessLogSizeScale() { return cfg.ingestion.sizeScale; }
+        @Override public int getAccessLogThreads() { return cfg.ingestion.threads; }
 
         @Override public WorkloadType getChooseWorkload() { return WorkloadType.fromString(cfg.workload.chooseWorkload); }
     }
@@ -127,15 +371,19 @@ public class ConfigLoader {
 
                     .append("\n--- Scheduling ---\n")
                     .append("Policy: ").append(cfg.getSchedulingType()).append("\n")
+                    .append("Choices (d):    ").append(cfg.getSchedulingChoices()).append("\n")
+                    .append("Memory (m):     ").append(cfg.getSchedulingMemory()).append("\n")
 
                     .append("\n--- Scaling: Spike Server ---\n")
                     .append("Enabled:        ").append(cfg.isSpikeEnabled()).append("\n")
                     .append("SImax:          ").append(cfg.getSImax()).append("\n")
                     .append("CPU Multiplier: ").append(cfg.getSpikeCpuMultiplier()).append("\n")
                     .append("CPU Percentage: ").append(cfg.getSpikeCpuPercentage()).append("\n")
+                    .append("Tier servers:   ").append(cfg.getMinSpikeServers()).append("..").append(cfg.getMaxSpikeServers()).append("\n")
 
                     .append("\n--- Scaling: Horizontal ---\n")
                     .append("Enabled:            ").append(cfg.isHorizontalEnabled()).append("\n")
+                    .append("Policy:             ").append(cfg.getHorizontalPolicy()).append("\n")
                     .append("SlidingWindowSize:  ").append(cfg.getSlidingWindowSize()).append("\n")
                     .append("R0max:              ").append(cfg.getR0max()).append("\n")
                     .append("R0min:              ").append(cfg.getR0min()).append("\n")
@@ -219,13 +467,15 @@ public class ConfigLoader {
                         .append("Enabled: ").append(cfg.isSpikeEnabled()).append("\n")
                         .append("SImax: ").append(cfg.getSImax()).append("\n")
                         .append("CPU Multiplier: ").append(cfg.getSpikeCpuMultiplier()).append("\n")
-                        .append("CPU Percentage: ").append(cfg.getSpikeCpuPercentage()).append("\n");
+                        .append("CPU Percentage: ").append(cfg.getSpikeCpuPercentage()).append("\n")
+                        .append("Tier servers: ").append(cfg.getMinSpikeServers()).append("..").append(cfg.getMaxSpikeServers()).append("\n");
             }
 
             // Informazioni scaling orizzontale (solo se abilitato)
             if (cfg.isHorizontalEnabled()) {
                 sb.append("\n--- Scaling: Horizontal ---\n")
                         .append("Enabled: ").append(cfg.isHorizontalEnabled()).append("\n")
+                        .append("Policy: ").append(cfg.getHorizontalPolicy()).append("\n")
                         .append("SlidingWindowSize: ").append(cfg.getSlidingWindowSize()).append("\n")
                         .append("R0max: ").append(cfg.getR0max()).append("\n")
                         .append("R0min: ").append(cfg.getR0min()).append("\n")
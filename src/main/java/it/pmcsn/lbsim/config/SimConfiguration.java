@@ -1,10 +1,22 @@
 package it.pmcsn.lbsim.config;
 
+import it.pmcsn.lbsim.models.domain.client.TimeoutRetryClientPolicy;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.JoinIdleQueuePolicy;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatchSplit;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScalerType;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.PidHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.LoadViewType;
+import it.pmcsn.lbsim.models.domain.server.ServerLifecycle;
+import it.pmcsn.lbsim.models.domain.servicediscipline.RateCurve;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ServiceDisciplineType;
 import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingType;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.BatchSizeDistribution;
 import it.pmcsn.lbsim.models.simulation.workloadgenerator.WorkloadType;
 import it.pmcsn.lbsim.models.simulation.runType.RunType;
+import it.pmcsn.lbsim.utils.trace.AccessLogFormat;
 
 import java.time.Duration;
+import java.util.List;
 
 public interface SimConfiguration {
     RunType getRunType();
@@ -31,24 +43,145 @@ public interface SimConfiguration {
 
 
     SchedulingType getSchedulingType();
+    int getSchedulingChoices();
+    int getSchedulingMemory();
+    int getSchedulingStream();
+    int getDispatcherCount();
+    DispatchSplit getDispatchSplit();
+    int getDispatchSplitStream();
+    boolean isSpikeWeightedTarget();
+    LoadViewType getLoadViewType();
+    Duration getLoadViewPeriod();
+    Duration getLoadViewDelay();
+    JoinIdleQueuePolicy.Fallback getJiqFallback();
 
     boolean isSpikeEnabled();
     int getSImax();
     int getSpikeCpuMultiplier();
     double getSpikeCpuPercentage();
+    boolean isSpikeCreditsEnabled();
+    double getCreditAccrualRate();
+    double getMaxCreditBalance();
+    double getInitialCreditBalance();
+    int getMinSpikeServers();
+    int getMaxSpikeServers();
+    SchedulingType getSpikeSchedulingType();
+    Duration getSpikeEvaluationPeriod();
+    double getSpikeScaleOutAbove();
+    double getSpikeScaleInBelow();
+    Duration getSpikeCoolDown();
 
     boolean isHorizontalEnabled();
     int getSlidingWindowSize();
     Duration getR0max();
     Duration getR0min();
     Duration getHorizontalCoolDown();
+    HorizontalScalerType getHorizontalPolicy();
+    Duration getPredictiveInterval();
+    double getPredictiveAlpha();
+    double getPredictiveBeta();
+    double getTargetUtilization();
+    double getScaleInUtilization();
+    double getScalingQuantile();
+    Duration getPercentileScaleOutAbove();
+    Duration getPercentileScaleInBelow();
+    Duration getScalingTimeWindow();
+    int getScalingWindowBuckets();
+    Duration getScalingEvaluationPeriod();
+    Duration getTargetResponseTime();
+    double getTargetTolerance();
+    Duration getStabilizationWindow();
+    int getMaxScalingStep();
+    PidHorizontalScaler.Metric getPidMetric();
+    Duration getPidTargetResponse();
+    double getPidTargetUtilization();
+    double getPidKp();
+    double getPidKi();
+    double getPidKd();
+    int getMaxServers();
+
+    boolean isVerticalEnabled();
+    Duration getVerticalEvaluationPeriod();
+    Duration getResizeDelay();
+    double getVerticalScaleUpAbove();
+    double getVerticalScaleDownBelow();
+    double getVerticalFactor();
+    double getMinCpuPercentage();
+    double getMaxCpuPercentage();
     int getInitialServerCount();
 
+    boolean isTimeoutEnabled();
+    TimeoutRetryClientPolicy.TimeoutDistribution getTimeoutDistribution();
+    Duration getTimeoutMean();
+    int getTimeoutStream();
+    int getMaxRetries();
+    Duration getRetryBackoffBase();
+    double getRetryBackoffMultiplier();
+    Duration getRetryBackoffMax();
+    boolean isRetryJitter();
+    int getRetryStream();
+
+    ServiceDisciplineType getWebDiscipline();
+    int getWebDisciplineLimit();
+    int getWebCores();
+    RateCurve getWebRateCurve();
+    ServiceDisciplineType getSpikeDiscipline();
+    int getSpikeDisciplineLimit();
+    int getSpikeCores();
+    RateCurve getSpikeRateCurve();
+    double getSpikePricePerHour();
+    ServerLifecycle.DelayDistribution getSpikeProvisioningDistribution();
+    Duration getSpikeProvisioningMean();
+    Duration getSpikeProvisioningMin();
+    Duration getSpikeProvisioningMax();
+    int getSpikeProvisioningStream();
+    Duration getSpikeWarmup();
+    double getSpikeWarmupRate();
+    int getInstanceTypeCount();
+    String getInstanceTypeName(int type);
+    double getInstanceTypeCpuMultiplier(int type);
+    double getInstanceTypePricePerHour(int type);
+    ServerLifecycle.DelayDistribution getProvisioningDistribution(int type);
+    Duration getProvisioningMean(int type);
+    Duration getProvisioningMin(int type);
+    Duration getProvisioningMax(int type);
+    int getProvisioningStream(int type);
+    Duration getWarmup(int type);
+    double getWarmupRate(int type);
+
     String getCsvOutputDir();
     String getPlotOutputDir();
 
     String getTraceArrivalsPath();
     String getTraceSizePath();
+    double getTraceTimeScale();
+    int getTraceReplicas();
+    Duration getTraceReplicaOffset();
+    List<String> getTraceSuperposeArrivalsPaths();
+    List<String> getTraceSuperposeSizePaths();
+    List<double[]> getTraceSpliceWindows();
+    double getSizeLag1Correlation();
+    double getGapSizeCoupling();
+    int getCorrelationStream();
+    BatchSizeDistribution getBatchSizeDistribution();
+    double getBatchSizeMean();
+    int getBatchSizeMin();
+    int getBatchSizeMax();
+    int getBatchSizeStream();
+
+    String getAccessLogPath();
+    String getAccessLogArrivalsOutPath();
+    String getAccessLogSizesOutPath();
+    AccessLogFormat getAccessLogFormat();
+    String getAccessLogRegex();
+    String getAccessLogTimeFormat();
+    char getAccessLogCsvSeparator();
+    int getAccessLogTimeColumn();
+    int getAccessLogSizeColumn();
+    boolean getAccessLogSkipHeader();
+    String getAccessLogSizeField();
+    double getAccessLogSizeScale();
+    int getAccessLogThreads();
 
     WorkloadType getChooseWorkload();
 
@@ -2,31 +2,42 @@ package it.pmcsn.lbsim.controller;
 
 import it.pmcsn.lbsim.config.SimConfiguration;
 import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.client.ClientPolicy;
+import it.pmcsn.lbsim.models.domain.client.NoneClientPolicy;
+import it.pmcsn.lbsim.models.domain.client.TimeoutRetryClientPolicy;
+import it.pmcsn.lbsim.models.domain.dispatcher.Dispatcher;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatcherFrontEnd;
 import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicy;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastCostEfficient;
 import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
-import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScaler;
-import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.NoneHorizontalScaler;
-import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.SlidingWindowHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.*;
+import it.pmcsn.lbsim.models.domain.scaling.verticalscaler.*;
 import it.pmcsn.lbsim.models.domain.scaling.spikerouter.NoneSpikeRouter;
 import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SimpleSpikeRouter;
 import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeRouter;
-import it.pmcsn.lbsim.models.domain.schedulingpolicy.LeastLoadPolicy;
-import it.pmcsn.lbsim.models.domain.schedulingpolicy.RoundRobinPolicy;
-import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingPolicy;
-import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingType;
-import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.*;
+import it.pmcsn.lbsim.models.domain.servicediscipline.*;
 import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.server.InstanceType;
+import it.pmcsn.lbsim.models.domain.server.ServerLifecycle;
+import it.pmcsn.lbsim.models.domain.server.CpuCreditBucket;
+import it.pmcsn.lbsim.models.domain.server.ServerIdAllocator;
 import it.pmcsn.lbsim.models.simulation.runType.*;
 import it.pmcsn.lbsim.models.simulation.Simulator;
 import it.pmcsn.lbsim.models.simulation.workloadgenerator.*;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.trace.TracePipeline;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.trace.TraceSource;
 import it.pmcsn.lbsim.utils.random.HyperExponential;
 import it.pmcsn.lbsim.utils.random.Rngs;
 
 
-import java.io.IOException;
 import java.nio.file.Path;
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,13 +62,13 @@ public class SimulatorController {
         // istance random number generator and plant the seed
         Rngs rngs = istanceRandomGenerator(config.getSeed());
         // istance workload
-        WorkloadGenerator wg = istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getTraceArrivalsPath(), config.getTraceSizePath());
+        WorkloadGenerator wg = istanceBulkWorkload(rngs, config, istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getSizeLag1Correlation(), config.getGapSizeCoupling(), config.getCorrelationStream(), istanceTracePipeline(config)));
         // print the initial seed of the replica
         logger.log(Level.INFO, "Initial seeds of the run: {0} \n", Arrays.toString(rngs.getSeedArray()));
         // create a runtype
         RunPolicy runPolicy = new BatchMeans(config.getBatchSize(), 0.95F);
         // create a new system
-        Simulator simulator = createNewSimulator(config.getInitialServerCount(), config.getSpikeCpuMultiplier(), config.getSpikeCpuPercentage(), config.getSchedulingType(), config.isSpikeEnabled(), config.getSImax(), config.isHorizontalEnabled(), config.getSlidingWindowSize(), config.getR0min(), config.getR0max(), config.getHorizontalCoolDown(), runPolicy, wg);
+        Simulator simulator = createNewSimulator(config.getInitialServerCount(), istanceDispatchers(rngs, config), istanceServiceDiscipline(config.getWebDiscipline(), config.getWebDisciplineLimit(), config.getWebCores(), config.getWebRateCurve()), istanceInstanceTypes(rngs, config), istanceSpikeTier(rngs, config), config.isSpikeEnabled(), config.getSImax(), pool -> istanceHorizontalScaler(config, pool), istanceVerticalScaler(config), istanceClientPolicy(rngs, config), runPolicy, wg);
         // run simulation
         simulator.run(config.getBatchSize() * config.getNumberOfBatchs());
         logger.log(Level.INFO, "Final seeds of the run {0}\n", Arrays.toString(rngs.getSeedArray()));
@@ -70,7 +81,7 @@ public class SimulatorController {
         // istance random number generator and plant the seed
         Rngs rngs = istanceRandomGenerator(config.getSeed());
         // istance workload
-        WorkloadGenerator wg = istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getTraceArrivalsPath(), config.getTraceSizePath());
+        WorkloadGenerator wg = istanceBulkWorkload(rngs, config, istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getSizeLag1Correlation(), config.getGapSizeCoupling(), config.getCorrelationStream(), istanceTracePipeline(config)));
         // create a run policy
         Replication runPolicy = new Replication(config.getNumberOfReplicas());
         // run n replicas
@@ -78,7 +89,7 @@ public class SimulatorController {
             // print the initial seed of the replica
             logger.log(Level.INFO, "Initial seeds of Replica {0}: {1}\n", new Object[]{replica, Arrays.toString(rngs.getSeedArray())});
             // create a new system
-            Simulator simulator = createNewSimulator(config.getInitialServerCount(), config.getSpikeCpuMultiplier(), config.getSpikeCpuPercentage(), config.getSchedulingType(), config.isSpikeEnabled(), config.getSImax(), config.isHorizontalEnabled(), config.getSlidingWindowSize(), config.getR0min(), config.getR0max(), config.getHorizontalCoolDown(), runPolicy, wg);
+            Simulator simulator = createNewSimulator(config.getInitialServerCount(), istanceDispatchers(rngs, config), istanceServiceDiscipline(config.getWebDiscipline(), config.getWebDisciplineLimit(), config.getWebCores(), config.getWebRateCurve()), istanceInstanceTypes(rngs, config), istanceSpikeTier(rngs, config), config.isSpikeEnabled(), config.getSImax(), pool -> istanceHorizontalScaler(config, pool), istanceVerticalScaler(config), istanceClientPolicy(rngs, config), runPolicy, wg);
             // run simulation
             if (config.getRunType() == RunType.FINITESIMULATIONTIME){
                 simulator.run(config.getDurationInSeconds().getSeconds());
@@ -96,13 +107,13 @@ public class SimulatorController {
         // istance random number generator and plant the seed
         Rngs rngs = istanceRandomGenerator(config.getSeed());
         // istance workload
-        WorkloadGenerator wg = istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getTraceArrivalsPath(), config.getTraceSizePath());
+        WorkloadGenerator wg = istanceBulkWorkload(rngs, config, istanceWorkloadGenerator(rngs, config.getChooseWorkload(), config.getInterarrivalMean(), config.getInterarrivalCv(), config.getServiceMean(), config.getServiceCv(), config.getInterarrivalStreamP(), config.getInterarrivalStreamHexp1(), config.getInterarrivalStreamHexp2(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2(), config.getSizeLag1Correlation(), config.getGapSizeCoupling(), config.getCorrelationStream(), istanceTracePipeline(config)));
         // print the initial seed of the replica
         logger.log(Level.INFO, "Initial seeds: {0}\n", Arrays.toString(rngs.getSeedArray()));
         // create a runtype
         RunPolicy runPolicy = new Autocorrelation(config.getMaxLag());
         // create a new system
-        Simulator simulator = createNewSimulator(config.getInitialServerCount(), config.getSpikeCpuMultiplier(), config.getSpikeCpuPercentage(), config.getSchedulingType(), config.isSpikeEnabled(), config.getSImax(), config.isHorizontalEnabled(), config.getSlidingWindowSize(), config.getR0min(), config.getR0max(), config.getHorizontalCoolDown(), runPolicy, wg);
+        Simulator simulator = createNewSimulator(config.getInitialServerCount(), istanceDispatchers(rngs, config), istanceServiceDiscipline(config.getWebDiscipline(), config.getWebDisciplineLimit(), config.getWebCores(), config.getWebRateCurve()), istanceInstanceTypes(rngs, config), istanceSpikeTier(rngs, config), config.isSpikeEnabled(), config.getSImax(), pool -> istanceHorizontalScaler(config, pool), istanceVerticalScaler(config), istanceClientPolicy(rngs, config), runPolicy, wg);
         // run simulation
         simulator.run(config.getMaxLag()*50);
         logger.log(Level.INFO, "Final seeds: {0}\n", Arrays.toString(rngs.getSeedArray()));
@@ -119,7 +130,7 @@ public class SimulatorController {
         return rngs;
     }
 
-    public WorkloadGenerator istanceWorkloadGenerator(Rngs rngs, WorkloadType workloadType, double interarrivalMean, double interarrivalCv, double sizeMean, double sizeCv, int interarrivalStream1, int interarrivalStream2, int interarrivalStream3, int sizeStream1, int sizeStream2, int sizeStream3, String traceArrivalPath, String traceSizePath) {
+    public WorkloadGenerator istanceWorkloadGenerator(Rngs rngs, WorkloadType workloadType, double interarrivalMean, double interarrivalCv, double sizeMean, double sizeCv, int interarrivalStream1, int interarrivalStream2, int interarrivalStream3, int sizeStream1, int sizeStream2, int sizeStream3, double sizeLag1, double gapSizeCoupling, int couplingStream, TracePipeline tracePipeline) {
         WorkloadGenerator wg;
         HyperExponential interarrivalTimeObj;
         HyperExponential serviceTimeObj;
@@ -142,13 +153,15 @@ public class SimulatorController {
                 logger.log(Level.INFO, "Exponential service with parameters {0} and stream {1}", new Object[]{sizeMean, sizeStream1});
                 wg = new FullExpWorkloadGenerator(rngs, interarrivalMean, interarrivalStream1, sizeMean, sizeStream1);
                 break;
+            case WorkloadType.CORRELATED:
+                interarrivalTimeObj = new HyperExponential(interarrivalCv, interarrivalMean, interarrivalStream1, interarrivalStream2, interarrivalStream3);
+                serviceTimeObj = new HyperExponential(sizeCv, sizeMean, sizeStream1, sizeStream2, sizeStream3);
+                logger.log(Level.INFO, "Markov-modulated hyperexponential service with lag-1 correlation {0} (max {1}), gap-size coupling {2} on stream {3}\n", new Object[]{sizeLag1, CorrelatedWorkloadGenerator.maxSizeLag1(serviceTimeObj), gapSizeCoupling, couplingStream});
+                wg = new CorrelatedWorkloadGenerator(rngs, interarrivalTimeObj, serviceTimeObj, sizeLag1, gapSizeCoupling, couplingStream);
+                break;
             case WorkloadType.TRACE:
-                try {
-                    logger.log(Level.INFO, "Trace driven workload with arrivals from {0} and sizes from {1}\n", new Object[]{traceArrivalPath, traceSizePath});
-                    wg = new TraceWorkloadGenerator(Path.of(traceArrivalPath), Path.of(traceSizePath));
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+                logger.log(Level.INFO, "Trace driven workload\n");
+                wg = new TraceWorkloadGenerator(tracePipeline);
                 break;
             default:
                 logger.log(Level.SEVERE, "Unsupported workload type: {0}\n", workloadType);
@@ -157,14 +170,300 @@ public class SimulatorController {
         return wg;
     }
 
-    public Simulator createNewSimulator(int initialNumberOfWS, double cpuMultiplierSpike, double cpuPercentageSpike, SchedulingType schedulingType, boolean spikeEnable, int SImax, boolean horizontalEnable, int slidingWindowSize, Duration R0min, Duration R0max, Duration horizontalCoolDown, RunPolicy runPolicy, WorkloadGenerator wg) {
-        RemovalPolicy removalPolicy = new RemovalPolicyLeastUsed();
-        ServerPool serverPool = new ServerPool(initialNumberOfWS, 1.0, removalPolicy);
-        Server spikeServer = new Server(cpuMultiplierSpike, cpuPercentageSpike, -1);
-        SchedulingPolicy schedulingPolicy = switch (schedulingType) {
+    // wraps the workload so that every arrival epoch carries a batch of jobs, unless batching is disabled
+    public WorkloadGenerator istanceBulkWorkload(Rngs rngs, SimConfiguration config, WorkloadGenerator wg) {
+        BatchSizeDistribution distribution = config.getBatchSizeDistribution();
+        if (distribution == BatchSizeDistribution.NONE) {
+            return wg;
+        }
+        logger.log(Level.INFO, "Bulk arrivals with {0} batch size (mean {1}, min {2}, max {3}) on stream {4}\n", new Object[]{distribution, config.getBatchSizeMean(), config.getBatchSizeMin(), config.getBatchSizeMax(), config.getBatchSizeStream()});
+        return new BulkWorkloadGenerator(wg, rngs, distribution, config.getBatchSizeMean(), config.getBatchSizeMin(), config.getBatchSizeMax(), config.getBatchSizeStream());
+    }
+
+    // the pipeline is lazy: files are opened only if the trace workload is selected
+    public TracePipeline istanceTracePipeline(SimConfiguration config) {
+        logger.log(Level.CONFIG, "Trace with arrivals from {0} and sizes from {1}\n", new Object[]{config.getTraceArrivalsPath(), config.getTraceSizePath()});
+        TracePipeline pipeline = TracePipeline.fromFiles(Path.of(config.getTraceArrivalsPath()), Path.of(config.getTraceSizePath()))
+                .splice(config.getTraceSpliceWindows());
+        List<TracePipeline> others = new ArrayList<>();
+        for (int i = 0; i < config.getTraceSuperposeArrivalsPaths().size(); i++) {
+            others.add(TracePipeline.fromFiles(Path.of(config.getTraceSuperposeArrivalsPaths().get(i)), Path.of(config.getTraceSuperposeSizePaths().get(i))));
+        }
+        return pipeline.superpose(others)
+                .replicate(config.getTraceReplicas(), config.getTraceReplicaOffset().toMillis() / 1000.0)
+                .scale(config.getTraceTimeScale());
+    }
+
+    public ClientPolicy istanceClientPolicy(Rngs rngs, SimConfiguration config) {
+        if (!config.isTimeoutEnabled()) {
+            logger.log(Level.INFO, "Client timeouts disabled");
+            return new NoneClientPolicy();
+        }
+        logger.log(Level.INFO, "Client timeout {0} ({1}), max retries {2}", new Object[]{config.getTimeoutMean(), config.getTimeoutDistribution(), config.getMaxRetries()});
+        return new TimeoutRetryClientPolicy(rngs, config.getTimeoutDistribution(), config.getTimeoutMean().toMillis() / 1000.0, config.getTimeoutStream(),
+                config.getMaxRetries(), config.getRetryBackoffBase().toMillis() / 1000.0, config.getRetryBackoffMultiplier(),
+                config.getRetryBackoffMax().toMillis() / 1000.0, config.isRetryJitter(), config.getRetryStream());
+    }
+
+    // independent dispatchers in front of the pool: each one gets its own policy state and its own load view,
+    // jiq dispatchers share the idle queues and each one reads its own
+    public DispatcherFrontEnd istanceDispatchers(Rngs rngs, SimConfiguration config) {
+        int count = config.getDispatcherCount();
+        if (count < 1) {
+            logger.log(Level.SEVERE, "Number of dispatchers must be >= 1");
+            throw new IllegalArgumentException("Number of dispatchers must be >= 1");
+        }
+        if (count > 1) {
+            logger.log(Level.INFO, "{0} dispatchers with {1} split on stream {2}", new Object[]{count, config.getDispatchSplit(), config.getDispatchSplitStream()});
+        }
+        List<Dispatcher> dispatchers = new ArrayList<>();
+        if (config.getSchedulingType() == SchedulingType.JOIN_IDLE_QUEUE) {
+            JoinIdleQueuePolicy jiq = (JoinIdleQueuePolicy) istanceSchedulingPolicy(rngs, config, 0);
+            for (int i = 0; i < count; i++) {
+                dispatchers.add(new Dispatcher(i, jiq.forDispatcher(i)));
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                dispatchers.add(new Dispatcher(i, istanceSchedulingPolicy(rngs, config, i)));
+            }
+        }
+        return new DispatcherFrontEnd(dispatchers, config.getDispatchSplit(), rngs, config.getDispatchSplitStream());
+    }
+
+    public SchedulingPolicy istanceSchedulingPolicy(Rngs rngs, SimConfiguration config) {
+        return istanceSchedulingPolicy(rngs, config, 0);
+    }
+
+    public SchedulingPolicy istanceSchedulingPolicy(Rngs rngs, SimConfiguration config, int dispatcher) {
+        SchedulingType schedulingType = config.getSchedulingType();
+        logger.log(Level.INFO, "Scheduling policy {0}", schedulingType);
+        return switch (schedulingType) {
+            case LEAST_LOAD -> new LeastLoadPolicy(istanceLoadView(config, dispatcher));
+            case ROUND_ROBIN -> new RoundRobinPolicy();
+            case POWER_OF_D -> {
+                logger.log(Level.INFO, "Power of d choices with d={0}, memory={1} on stream {2}", new Object[]{config.getSchedulingChoices(), config.getSchedulingMemory(), config.getSchedulingStream()});
+                yield new PowerOfDChoicesPolicy(rngs, config.getSchedulingChoices(), config.getSchedulingMemory(), config.getSchedulingStream(), istanceLoadView(config, dispatcher));
+            }
+            case JOIN_IDLE_QUEUE -> {
+                logger.log(Level.INFO, "Join idle queue with {0} dispatchers, {1} fallback on stream {2}", new Object[]{config.getDispatcherCount(), config.getJiqFallback(), config.getSchedulingStream()});
+                yield new JoinIdleQueuePolicy(rngs, config.getDispatcherCount(), config.getJiqFallback(), config.getSchedulingStream());
+            }
+            case SITA -> {
+                SizeIntervalPolicy sita = new SizeIntervalPolicy(istanceSizeDistribution(config));
+                logger.log(Level.INFO, "SITA cutoffs for {0} servers: {1}", new Object[]{config.getInitialServerCount(), Arrays.toString(sita.getCutoffs(config.getInitialServerCount()))});
+                yield sita;
+            }
+            case LEAST_WORK_LEFT -> new LeastWorkLeftPolicy(istanceLoadView(config, dispatcher));
+            case WEIGHTED_ROUND_ROBIN -> new WeightedRoundRobinPolicy(config.isSpikeWeightedTarget());
+            case WEIGHTED_LEAST_LOAD -> new WeightedLeastLoadPolicy(config.isSpikeWeightedTarget(), istanceLoadView(config, dispatcher));
+        };
+    }
+
+    // sizes of the workload that will actually run: the marginal of the generator, or one pass over the trace
+    public SizeDistribution istanceSizeDistribution(SimConfiguration config) {
+        return switch (config.getChooseWorkload()) {
+            case FULLEXP -> SizeDistribution.exponential(config.getServiceMean());
+            case HYPEREXPONENTIAL, EXPONENTIAL, CORRELATED -> {
+                HyperExponential service = new HyperExponential(config.getServiceCv(), config.getServiceMean(), config.getServiceStreamP(), config.getServiceStreamHexp1(), config.getServiceStreamHexp2());
+                yield SizeDistribution.hyperExponential(service.getP(), service.getM1(), service.getM2());
+            }
+            case TRACE -> {
+                EmpiricalSizeDistribution sizes = new EmpiricalSizeDistribution();
+                try (TraceSource trace = istanceTracePipeline(config).open()) {
+                    while (trace.advance()) {
+                        sizes.add(trace.size());
+                    }
+                }
+                logger.log(Level.INFO, "Size distribution of the trace: {0} jobs, mean {1}", new Object[]{sizes.getCount(), sizes.mean()});
+                yield sizes;
+            }
+        };
+    }
+
+    // load information used by the load-aware policies
+    public LoadView istanceLoadView(SimConfiguration config) {
+        return istanceLoadView(config, 0);
+    }
+
+    // the polls of the dispatchers are evenly staggered over the period
+    public LoadView istanceLoadView(SimConfiguration config, int dispatcher) {
+        return switch (config.getLoadViewType()) {
+            case LIVE -> new LiveLoadView();
+            case PERIODIC -> {
+                logger.log(Level.INFO, "Dispatcher {0} polls the servers every {1}", new Object[]{dispatcher, config.getLoadViewPeriod()});
+                double period = config.getLoadViewPeriod().toMillis() / 1000.0;
+                yield new PeriodicLoadView(period, period * (config.getDispatcherCount() - dispatcher) / config.getDispatcherCount());
+            }
+            case DELAYED -> {
+                logger.log(Level.INFO, "Server load reports reach the dispatcher after {0}", config.getLoadViewDelay());
+                yield new DelayedLoadView(config.getLoadViewDelay().toMillis() / 1000.0);
+            }
+        };
+    }
+
+    // every server needs its own discipline instance: the pool creates one for each server it starts
+    public Supplier<ServiceDiscipline> istanceServiceDiscipline(ServiceDisciplineType type, int limit, int cores, RateCurve curve) {
+        logger.log(Level.INFO, "Service discipline {0} on {1} cores", new Object[]{type, cores});
+        if (curve != RateCurve.FLAT) {
+            logger.log(Level.INFO, "Load dependent service rate {0}", curve);
+        }
+        // a single job never uses more than one core: only the processor sharing disciplines spread over k cores
+        if (cores != 1 && type != ServiceDisciplineType.PROCESSOR_SHARING && type != ServiceDisciplineType.LIMITED_PROCESSOR_SHARING) {
+            logger.log(Level.SEVERE, "Multi-core servers require ps or limited_ps, got {0}", type);
+            throw new IllegalArgumentException("Multi-core servers require ps or limited_ps");
+        }
+        return switch (type) {
+            case PROCESSOR_SHARING -> () -> new ProcessorSharing(cores, curve);
+            case FCFS -> () -> new FirstComeFirstServed(curve);
+            case SRPT -> () -> new ShortestRemainingProcessingTime(curve);
+            case LEAST_ATTAINED_SERVICE -> () -> new LeastAttainedService(curve);
+            case LIMITED_PROCESSOR_SHARING -> {
+                logger.log(Level.INFO, "Multiprogramming limit {0}", limit);
+                yield () -> new LimitedProcessorSharing(limit, cores, curve);
+            }
+        };
+    }
+
+    // the scaler is built on the pool it scales: the predictive one reads the number of active servers
+    public HorizontalScaler istanceHorizontalScaler(SimConfiguration config, ServerPool pool) {
+        if (!config.isHorizontalEnabled()) {
+            logger.log(Level.INFO, "Horizontal scaler disabled");
+            return new NoneHorizontalScaler();
+        }
+        logger.log(Level.INFO, "Horizontal scaler enabled");
+        return switch (config.getHorizontalPolicy()) {
+            case SLIDING_WINDOW -> new SlidingWindowHorizontalScaler(config.getSlidingWindowSize(), config.getR0min().getSeconds(), config.getR0max().getSeconds(), config.getHorizontalCoolDown().getSeconds());
+            case PREDICTIVE -> {
+                logger.log(Level.INFO, "Predictive scaler: interval {0}, alpha {1}, beta {2}, target utilization {3}, scale in below {4}",
+                        new Object[]{config.getPredictiveInterval(), config.getPredictiveAlpha(), config.getPredictiveBeta(), config.getTargetUtilization(), config.getScaleInUtilization()});
+                // each core of a web server serves cpuMultiplier x cpuPercentage units of work per second
+                yield new PredictiveHorizontalScaler(config.getPredictiveInterval().toMillis() / 1000.0, config.getPredictiveAlpha(), config.getPredictiveBeta(),
+                        config.getTargetUtilization(), config.getScaleInUtilization(), config.getHorizontalCoolDown().toMillis() / 1000.0,
+                        () -> config.getWebCores() * pool.getTargetCpu(), () -> config.getWebCores() * pool.getBaseServerCpu(),
+                        () -> config.getWebCores() * pool.getRetiringCpu(), pool::getTargetServerCount);
+            }
+            case PERCENTILE -> {
+                logger.log(Level.INFO, "Percentile scaler: p{0} of the last {1} responses, scale out above {2}, scale in below {3}",
+                        new Object[]{config.getScalingQuantile() * 100, config.getSlidingWindowSize(), config.getPercentileScaleOutAbove(), config.getPercentileScaleInBelow()});
+                yield new PercentileHorizontalScaler(config.getSlidingWindowSize(), config.getScalingQuantile(),
+                        config.getPercentileScaleInBelow().toMillis() / 1000.0, config.getPercentileScaleOutAbove().toMillis() / 1000.0,
+                        config.getHorizontalCoolDown().toMillis() / 1000.0);
+            }
+            case TIME_WINDOW -> {
+                logger.log(Level.INFO, "Time window scaler: mean response of the last {0} in {1} buckets, evaluated every {2}",
+                        new Object[]{config.getScalingTimeWindow(), config.getScalingWindowBuckets(), config.getScalingEvaluationPeriod()});
+                yield new TimeWindowHorizontalScaler(config.getScalingTimeWindow().toMillis() / 1000.0, config.getScalingWindowBuckets(),
+                        config.getScalingEvaluationPeriod().toMillis() / 1000.0, config.getR0min().toMillis() / 1000.0,
+                        config.getR0max().toMillis() / 1000.0, config.getHorizontalCoolDown().toMillis() / 1000.0);
+            }
+            case TARGET_TRACKING -> {
+                logger.log(Level.INFO, "Target tracking scaler: target {0} on the mean response of the last {1}, tolerance {2}, stabilization {3}, max step {4}",
+                        new Object[]{config.getTargetResponseTime(), config.getScalingTimeWindow(), config.getTargetTolerance(), config.getStabilizationWindow(), config.getMaxScalingStep()});
+                yield new TargetTrackingHorizontalScaler(config.getScalingTimeWindow().toMillis() / 1000.0, config.getScalingWindowBuckets(),
+                        config.getScalingEvaluationPeriod().toMillis() / 1000.0, config.getTargetResponseTime().toMillis() / 1000.0,
+                        config.getTargetTolerance(), config.getStabilizationWindow().toMillis() / 1000.0, config.getMaxScalingStep(),
+                        config.getHorizontalCoolDown().toMillis() / 1000.0, pool::getTargetBaseServers);
+            }
+            case PID -> {
+                double setpoint = config.getPidMetric() == PidHorizontalScaler.Metric.UTILIZATION
+                        ? config.getPidTargetUtilization() : config.getPidTargetResponse().toMillis() / 1000.0;
+                logger.log(Level.INFO, "PID scaler on {0}: setpoint {1}, Kp {2}, Ki {3}, Kd {4}, sampled every {5}, at most {6} servers",
+                        new Object[]{config.getPidMetric(), setpoint, config.getPidKp(), config.getPidKi(), config.getPidKd(), config.getScalingEvaluationPeriod(), config.getMaxServers()});
+                yield new PidHorizontalScaler(config.getPidMetric(), config.getScalingTimeWindow().toMillis() / 1000.0, config.getScalingWindowBuckets(),
+                        config.getScalingEvaluationPeriod().toMillis() / 1000.0, setpoint, config.getPidKp(), config.getPidKi(), config.getPidKd(),
+                        config.getMaxServers(), config.getHorizontalCoolDown().toMillis() / 1000.0,
+                        () -> config.getWebCores() * pool.getTargetCpu(), pool::getTargetBaseServers);
+            }
+        };
+    }
+
+    // the spike servers as burstable instances: cpuPercentage is their burst rate, null if they are not burstable
+    public Supplier<CpuCreditBucket> istanceSpikeCredits(SimConfiguration config) {
+        if (!config.isSpikeCreditsEnabled()) {
+            return null;
+        }
+        Supplier<CpuCreditBucket> credits = () -> new CpuCreditBucket(config.getCreditAccrualRate(), config.getMaxCreditBalance(), config.getInitialCreditBalance());
+        logger.log(Level.INFO, "Burstable spike servers: burst rate {0}, {1}", new Object[]{config.getSpikeCpuPercentage(), credits.get()});
+        return credits;
+    }
+
+    // the single spike server is the tier with minServers = maxServers = 1
+    public SpikeTier istanceSpikeTier(Rngs rngs, SimConfiguration config) {
+        int min = config.getMinSpikeServers();
+        int max = config.getMaxSpikeServers();
+        ServerLifecycle lifecycle = new ServerLifecycle(rngs, config.getSpikeProvisioningDistribution(), config.getSpikeProvisioningMean().toMillis() / 1000.0,
+                config.getSpikeProvisioningMin().toMillis() / 1000.0, config.getSpikeProvisioningMax().toMillis() / 1000.0, config.getSpikeProvisioningStream(),
+                config.getSpikeWarmup().toMillis() / 1000.0, config.getSpikeWarmupRate());
+        InstanceType spikeType = new InstanceType("spike", config.getSpikeCpuMultiplier(), config.getSpikePricePerHour(),
+                lifecycle.isInstant() ? ServerLifecycle.INSTANT : lifecycle);
+        ServerPool spikeServers = new ServerPool(min, config.getSpikeCpuPercentage(), List.of(spikeType), new RemovalPolicyLeastUsed(),
+                istanceServiceDiscipline(config.getSpikeDiscipline(), config.getSpikeDisciplineLimit(), config.getSpikeCores(), config.getSpikeRateCurve()),
+                ServerIdAllocator.negative());
+        Supplier<CpuCreditBucket> credits = istanceSpikeCredits(config);
+        if (credits != null) {
+            spikeServers.setCpuCredits(credits);
+        }
+        if (max == min) {
+            return new SpikeTier(spikeServers, istanceSpikePolicy(config), new NoneHorizontalScaler(), min, max);
+        }
+        logger.log(Level.INFO, "Spike tier of {0}..{1} servers: {2}, scale out above {3} and in below {4} jobs per server, evaluated every {5}",
+                new Object[]{min, max, config.getSpikeSchedulingType(), config.getSpikeScaleOutAbove(), config.getSpikeScaleInBelow(), config.getSpikeEvaluationPeriod()});
+        HorizontalScaler scaler = new OccupancyHorizontalScaler(config.getSpikeEvaluationPeriod().toMillis() / 1000.0, config.getSpikeScaleOutAbove(),
+                config.getSpikeScaleInBelow(), config.getSpikeCoolDown().toMillis() / 1000.0, spikeServers::getCurrentJobCount, spikeServers::getTargetServerCount);
+        return new SpikeTier(spikeServers, istanceSpikePolicy(config), scaler, min, max);
+    }
+
+    // the spike tier sees only its own servers, always with live load information
+    public SchedulingPolicy istanceSpikePolicy(SimConfiguration config) {
+        return switch (config.getSpikeSchedulingType()) {
             case LEAST_LOAD -> new LeastLoadPolicy();
             case ROUND_ROBIN -> new RoundRobinPolicy();
+            case LEAST_WORK_LEFT -> new LeastWorkLeftPolicy(new LiveLoadView());
+            default -> {
+                logger.log(Level.SEVERE, "Scheduling policy {0} is not supported for the spike tier", config.getSpikeSchedulingType());
+                throw new IllegalArgumentException("Scheduling policy " + config.getSpikeSchedulingType() + " is not supported for the spike tier");
+            }
         };
+    }
+
+    public VerticalScaler istanceVerticalScaler(SimConfiguration config) {
+        if (!config.isVerticalEnabled()) {
+            logger.log(Level.INFO, "Vertical scaler disabled");
+            return new NoneVerticalScaler();
+        }
+        logger.log(Level.INFO, "Vertical scaler: every {0}, up above {1} and down below {2} utilization by a factor {3}, CPU in [{4}, {5}], resize delay {6}",
+                new Object[]{config.getVerticalEvaluationPeriod(), config.getVerticalScaleUpAbove(), config.getVerticalScaleDownBelow(), config.getVerticalFactor(),
+                        config.getMinCpuPercentage(), config.getMaxCpuPercentage(), config.getResizeDelay()});
+        return new UtilizationVerticalScaler(config.getVerticalEvaluationPeriod().toMillis() / 1000.0, config.getResizeDelay().toMillis() / 1000.0,
+                config.getVerticalScaleUpAbove(), config.getVerticalScaleDownBelow(), config.getVerticalFactor(),
+                config.getMinCpuPercentage(), config.getMaxCpuPercentage());
+    }
+
+    // the first instance type is the one of the initial servers
+    public List<InstanceType> istanceInstanceTypes(Rngs rngs, SimConfiguration config) {
+        List<InstanceType> types = new ArrayList<>();
+        for (int i = 0; i < config.getInstanceTypeCount(); i++) {
+            InstanceType type = new InstanceType(config.getInstanceTypeName(i), config.getInstanceTypeCpuMultiplier(i),
+                    config.getInstanceTypePricePerHour(i), istanceServerLifecycle(rngs, config, i));
+            if (config.getInstanceTypeCount() > 1 || !type.getLifecycle().isInstant()) {
+                logger.log(Level.INFO, "Web instance type {0}", type);
+            }
+            types.add(type);
+        }
+        return types;
+    }
+
+    public ServerLifecycle istanceServerLifecycle(Rngs rngs, SimConfiguration config, int type) {
+        ServerLifecycle lifecycle = new ServerLifecycle(rngs, config.getProvisioningDistribution(type), config.getProvisioningMean(type).toMillis() / 1000.0,
+                config.getProvisioningMin(type).toMillis() / 1000.0, config.getProvisioningMax(type).toMillis() / 1000.0, config.getProvisioningStream(type),
+                config.getWarmup(type).toMillis() / 1000.0, config.getWarmupRate(type));
+        return lifecycle.isInstant() ? ServerLifecycle.INSTANT : lifecycle;
+    }
+
+    public Simulator createNewSimulator(int initialNumberOfWS, DispatcherFrontEnd dispatchers, Supplier<ServiceDiscipline> webDiscipline, List<InstanceType> instanceTypes, SpikeTier spikeTier, boolean spikeEnable, int SImax, Function<ServerPool, HorizontalScaler> horizontalScalerFactory, VerticalScaler verticalScaler, ClientPolicy clientPolicy, RunPolicy runPolicy, WorkloadGenerator wg) {
+        // with several instance types the least cost efficient servers are retired first
+        RemovalPolicy removalPolicy = instanceTypes.size() > 1 ? new RemovalPolicyLeastCostEfficient() : new RemovalPolicyLeastUsed();
+        ServerPool serverPool = new ServerPool(initialNumberOfWS, instanceTypes, removalPolicy, webDiscipline);
         SpikeRouter spikeRouter;
         if (spikeEnable) {
             logger.log(Level.INFO, "Spike router enabled");
@@ -173,22 +472,16 @@ public class SimulatorController {
             logger.log(Level.INFO, "Spike router disabled");
             spikeRouter = new NoneSpikeRouter();
         }
-        HorizontalScaler horizontalScaler;
-        if (horizontalEnable) {
-            logger.log(Level.INFO, "Horizontal scaler enabled");
-            horizontalScaler = new SlidingWindowHorizontalScaler( slidingWindowSize, R0min.getSeconds(), R0max.getSeconds(), horizontalCoolDown.getSeconds());
-        } else {
-            logger.log(Level.INFO, "Horizontal scaler disabled");
-            horizontalScaler = new NoneHorizontalScaler();
-        }
+        HorizontalScaler horizontalScaler = horizontalScalerFactory.apply(serverPool);
         LoadBalancer loadBalancer = new LoadBalancer(
                 serverPool,
-                spikeServer,
-                schedulingPolicy,
+                spikeTier,
+                dispatchers,
                 spikeRouter,
-                horizontalScaler
+                horizontalScaler,
+                verticalScaler
         );
         // Create a new simulator instance with the provided configuration
-        return new Simulator( wg, loadBalancer, runPolicy);
+        return new Simulator( wg, loadBalancer, runPolicy, clientPolicy);
     }
 }
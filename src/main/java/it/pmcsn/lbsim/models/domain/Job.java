@@ -9,11 +9,28 @@ public class Job {
     private static final Logger logger = Logger.getLogger(Job.class.getName());
     private static long jobCounter = 0; // JobId
     private final long jobId; // Unique identifier for the job
+    private final long requestId; // Client request this job is an attempt of (== jobId for the first attempt)
+    private final int attempt; // 0 for the first attempt, n for the n-th retry
     private Server assignedServer; // The server to which this job is assigned
     private double remainingSize; // Remaining service demand in seconds to execute
 
     public Job(double size) {
         this.jobId = jobCounter++;
+        this.requestId = this.jobId;
+        this.attempt = 0;
+        this.assignedServer = null;
+        this.remainingSize = size;
+    }
+
+    // Retry of a timed out job: same client request, next attempt
+    public Job(double size, Job previousAttempt) {
+        if (previousAttempt == null) {
+            logger.log(Level.SEVERE, "Previous attempt cannot be null");
+            throw new IllegalArgumentException("Previous attempt cannot be null");
+        }
+        this.jobId = jobCounter++;
+        this.requestId = previousAttempt.requestId;
+        this.attempt = previousAttempt.attempt + 1;
         this.assignedServer = null;
         this.remainingSize = size;
     }
@@ -23,6 +40,14 @@ public class Job {
         return jobId;
     }
 
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
     public double getRemainingSize() {
         return remainingSize;
     }
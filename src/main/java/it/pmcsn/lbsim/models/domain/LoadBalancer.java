@@ -1,10 +1,16 @@
 package it.pmcsn.lbsim.models.domain;
 
+import it.pmcsn.lbsim.models.domain.dispatcher.Dispatcher;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatcherFrontEnd;
 import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScaler;
 import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeRouter;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.scaling.verticalscaler.NoneVerticalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.verticalscaler.VerticalScaler;
 import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingPolicy;
 import it.pmcsn.lbsim.models.domain.server.Server;
 import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -20,31 +26,102 @@ public class LoadBalancer {
 
     // Instance variables
     private final ServerPool webServers;                 // List of web servers
-    private final Server spikeServer;                           // Spike Server
-    private final SchedulingPolicy schedulingPolicy;            // Scheduling policy to use for job assignment
+    private final SpikeTier spikeTier;                          // Spike servers, with their own policy and scaler
+    private final DispatcherFrontEnd dispatchers;               // Dispatchers sharing the pool, each with its own policy
     private final HorizontalScaler horizontalScaler;           // Horizontal scaler
     private final SpikeRouter spikeRouter;                   // Spike router
-    private boolean scaleInThisDeparture = false;
-    private boolean scaleOutinThisDeparture = false;
+    private final VerticalScaler verticalScaler;             // Vertical scaler, resizes the running web servers
+    private int scaleInThisDeparture = 0;                // scaling actions reported with the current departure
+    private int scaleOutinThisDeparture = 0;
+    private int serversReleasedThisDeparture = 0;        // servers removed and added by those actions
+    private int serversLaunchedThisDeparture = 0;
+    private int pendingScaleIn = 0;                      // actions taken by the periodic scaler since the last departure
+    private int pendingScaleOut = 0;
+    private int pendingReleased = 0;
+    private int pendingLaunched = 0;
 
     public LoadBalancer(ServerPool pool,
-                        Server spikeServer,
+                        SpikeTier spikeTier,
                         SchedulingPolicy schedulingPolicy,
                         SpikeRouter spikeRouter,
                         HorizontalScaler horizontalScaler) {
+        this(pool, spikeTier, DispatcherFrontEnd.single(new Dispatcher(0, schedulingPolicy)), spikeRouter, horizontalScaler);
+    }
+
+    public LoadBalancer(ServerPool pool,
+                        SpikeTier spikeTier,
+                        DispatcherFrontEnd dispatchers,
+                        SpikeRouter spikeRouter,
+                        HorizontalScaler horizontalScaler) {
+        this(pool, spikeTier, dispatchers, spikeRouter, horizontalScaler, new NoneVerticalScaler());
+    }
+
+    public LoadBalancer(ServerPool pool,
+                        SpikeTier spikeTier,
+                        DispatcherFrontEnd dispatchers,
+                        SpikeRouter spikeRouter,
+                        HorizontalScaler horizontalScaler,
+                        VerticalScaler verticalScaler) {
         this.webServers = pool;
-        this.spikeServer = spikeServer;
-        this.schedulingPolicy = schedulingPolicy;
+        this.spikeTier = spikeTier;
+        this.dispatchers = dispatchers;
         this.spikeRouter = spikeRouter;
         this.horizontalScaler = horizontalScaler;
+        this.verticalScaler = verticalScaler;
+    }
+
+    // binds the dispatching state to the event list of the simulation that runs this system
+    public void start(EventScheduler scheduler) {
+        webServers.start(scheduler);
+        spikeTier.start(scheduler);
+        for (Dispatcher dispatcher : dispatchers.getDispatchers()) {
+            dispatcher.getPolicy().attach(webServers, spikeTier.getServers(), scheduler);
+        }
+        double period = horizontalScaler.getEvaluationPeriod();
+        if (period > 0.0) {
+            scheduler.schedulePeriodic(scheduler.getCurrentTime() + period, period, this::evaluateScaler);
+        }
+        double verticalPeriod = verticalScaler.getEvaluationPeriod();
+        if (verticalPeriod > 0.0) {
+            scheduler.schedulePeriodic(scheduler.getCurrentTime() + verticalPeriod, verticalPeriod, this::evaluateVerticalScaler);
+        }
+    }
+
+    // every active web server is evaluated on its own, the new allocation applies after the resize delay
+    private void evaluateVerticalScaler(double now) {
+        for (Server server : new ArrayList<>(webServers.getWebServers())) {
+            double cpuPercentage = verticalScaler.evaluate(server, now);
+            if (cpuPercentage != server.getCpuPercentage()) {
+                webServers.requestResize(server, cpuPercentage, verticalScaler.getResizeDelay());
+            }
+        }
+    }
+
+    // periodic scalers decide on a timer, like a metrics driven autoscaler, not on departures
+    private void evaluateScaler(double now) {
+        HorizontalScaler.Action action = horizontalScaler.evaluate(now);
+        int servers = applyScalingAction(action, now);
+        if (servers > 0) {
+            if (action == HorizontalScaler.Action.SCALE_OUT) {
+                pendingScaleOut++;
+                pendingLaunched += servers;
+            } else {
+                pendingScaleIn++;
+                pendingReleased += servers;
+            }
+        }
+    }
+
+    public List<Dispatcher> getDispatchers() {
+        return dispatchers.getDispatchers();
     }
 
     public ServerPool getWebServers() {
         return webServers;
     }
 
-    public Server getSpikeServer() {
-        return spikeServer;
+    public SpikeTier getSpikeTier() {
+        return spikeTier;
     }
 
     public void assignJob(Job job, double currentTime) {
@@ -53,17 +130,22 @@ public class LoadBalancer {
             throw new IllegalArgumentException("Job cannot be null");
         }
         // Find the server to assign the job to
-        Server selectedServer = schedulingPolicy.selectServer(webServers.getWebServers());
+        Server selectedServer = dispatchers.route(job).selectServer(webServers, job);
         if (selectedServer == null) {
             logger.log(Level.SEVERE, "No available web servers to assign the job");
             throw new IllegalStateException("No available web servers to assign the job");
         }
+        // every arrival, also a retry, is load the scaler may forecast
+        horizontalScaler.notifyJobArrival(job.getRemainingSize(), currentTime);
+        // a weighted policy may pick a spike server itself: it is a spike arrival, SImax is a limit of the web servers
+        if (SpikeTier.isSpikeServer(selectedServer)) {
+            assignToSpike(job, selectedServer, currentTime);
+            return;
+        }
         // Decide whether to route to spike or assign to chosen server
         SpikeRouter.Action action = spikeRouter.decide(selectedServer, currentTime);
         if (action == SpikeRouter.Action.ROUTE_TO_SPIKE) {
-            spikeServer.addJob(job);
-            job.assignServer(spikeServer);
-            logger.log(Level.FINE,"Assigned job to Spike Server. Current load: " + spikeServer.getCurrentSI() + "\n");
+            assignToSpike(job, spikeTier.selectServer(job), currentTime);
         } else {
             selectedServer.addJob(job);
             job.assignServer(selectedServer);
@@ -71,9 +153,30 @@ public class LoadBalancer {
         }
     }
 
+    private void assignToSpike(Job job, Server spikeServer, double currentTime) {
+        spikeTier.notifyJobArrival(job.getRemainingSize(), currentTime);
+        spikeServer.addJob(job);
+        job.assignServer(spikeServer);
+        logger.log(Level.FINE,"Assigned job to Spike Server id=" + spikeServer.getId() + ". Current load: " + spikeServer.getCurrentSI() + "\n");
+    }
+
+    // Jobs arrived at the same instant are dispatched in arrival order, each one sees the load left by the previous
+    public void assignJobs(List<Job> jobs, double currentTime) {
+        for (Job job : jobs) {
+            assignJob(job, currentTime);
+        }
+    }
+
     public void completeJob(Job job, double currentTime, double responseTime) {
-        scaleInThisDeparture = false;
-        scaleOutinThisDeparture = false;
+        // the actions of the periodic scaler are reported with the next departure
+        scaleInThisDeparture = pendingScaleIn;
+        scaleOutinThisDeparture = pendingScaleOut;
+        serversReleasedThisDeparture = pendingReleased;
+        serversLaunchedThisDeparture = pendingLaunched;
+        pendingScaleIn = 0;
+        pendingScaleOut = 0;
+        pendingReleased = 0;
+        pendingLaunched = 0;
 
         if (job == null) {
             logger.log(Level.SEVERE, "Job cannot be null");
@@ -92,34 +195,74 @@ public class LoadBalancer {
             throw new IllegalArgumentException("Current time must be non-negative");
         }
         // complete the job on the assigned server
-        this.webServers.completeJob(job);
+        if (SpikeTier.isSpikeServer(job.getAssignedServer())) {
+            this.spikeTier.completeJob(job, currentTime, responseTime);
+        } else {
+            this.webServers.completeJob(job);
+        }
         // notify the horizontal scaler
         HorizontalScaler.Action action = this.horizontalScaler.notifyJobDeparture(responseTime, currentTime);
+        int servers = applyScalingAction(action, currentTime);
+        if (servers > 0) {
+            if (action == HorizontalScaler.Action.SCALE_OUT) {
+                scaleOutinThisDeparture++;
+                serversLaunchedThisDeparture += servers;
+            } else {
+                scaleInThisDeparture++;
+                serversReleasedThisDeparture += servers;
+            }
+        }
+    }
+
+    // returns the servers launched or released, 0 if the pool refused the action
+    private int applyScalingAction(HorizontalScaler.Action action, double currentTime) {
+        int servers = 0;
         switch (action) {
             case SCALE_OUT -> {
-                if (this.webServers.requestScaleOut()) {
-                    this.horizontalScaler.setLastActionAt(currentTime);
-                    scaleOutinThisDeparture = true;
-                }
+                // with several instance types the pool may launch more, smaller servers than requested
+                servers = this.webServers.scaleOut(this.horizontalScaler.getActionSize());
             }
             case SCALE_IN -> {
-                if(this.webServers.requestScaleIn()) {
-                    this.horizontalScaler.setLastActionAt(currentTime);
-                    scaleInThisDeparture = true;
-                }
+                // releases at most the capacity of the requested base servers, maybe nothing if the next server is larger
+                servers = this.webServers.scaleIn(this.horizontalScaler.getActionSize());
             }
             case NONE -> {
                 // No action needed
             }
         }
+        if (servers > 0) {
+            this.horizontalScaler.setLastActionAt(currentTime);
+        }
+        return servers;
     }
 
-    public boolean isScaleInThisDeparture() {
+    // The client gave up on the job: remove it from its server, returns the work left undone
+    public double abandonJob(Job job, double currentTime) {
+        if (job == null) {
+            logger.log(Level.SEVERE, "Job cannot be null");
+            throw new IllegalArgumentException("Job cannot be null");
+        }
+        double remaining = SpikeTier.isSpikeServer(job.getAssignedServer()) ? this.spikeTier.cancelJob(job) : this.webServers.cancelJob(job);
+        logger.log(Level.FINE, "Job {0} abandoned at {1}, remaining size {2}\n", new Object[]{job.getJobId(), currentTime, remaining});
+        return remaining;
+    }
+
+    public int getScaleInThisDeparture() {
         return scaleInThisDeparture;
     }
-    public boolean isScaleOutinThisDeparture() {
+    public int getScaleOutinThisDeparture() {
         return scaleOutinThisDeparture;
     }
+    public int getServersReleasedThisDeparture() {
+        return serversReleasedThisDeparture;
+    }
+    public int getServersLaunchedThisDeparture() {
+        return serversLaunchedThisDeparture;
+    }
+
+    public VerticalScaler getVerticalScaler() {
+        return verticalScaler;
+    }
 
     public HorizontalScaler getHorizontalScaler() {
         return horizontalScaler;
@@ -130,7 +273,7 @@ public class LoadBalancer {
     }
 
     public int getSpikeServerJobCount() {
-        return spikeServer.getCurrentSI();
+        return spikeTier.getCurrentJobCount();
     }
 
     //TODO: da riscrivere bene
@@ -146,6 +289,6 @@ public class LoadBalancer {
         for (Server server : webServers.getWebServers()) {
             jobCount += server.getCurrentSI();
         }
-        return jobCount + spikeServer.getCurrentSI();
+        return jobCount + spikeTier.getCurrentJobCount();
     }
 }
\ No newline at end of file
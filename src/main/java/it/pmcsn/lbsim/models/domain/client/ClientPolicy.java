@@ -0,0 +1,26 @@
+package it.pmcsn.lbsim.models.domain.client;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+/**
+ * Models the clients behind the load balancer: how long they wait for a response
+ * and whether they retry after giving up.
+ */
+public interface ClientPolicy {
+
+    /**
+     * @return absolute time at which the client abandons a job arrived at {@code arrivalTime},
+     *         +inf if the client never gives up
+     */
+    double deadline(double arrivalTime);
+
+    /**
+     * @return true if the client re-sends the request after {@code timedOut} was abandoned
+     */
+    boolean shouldRetry(Job timedOut);
+
+    /**
+     * @return absolute time at which the retry of {@code timedOut} reaches the load balancer
+     */
+    double retryTime(Job timedOut, double now);
+}
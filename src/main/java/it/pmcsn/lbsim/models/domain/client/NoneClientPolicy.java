@@ -0,0 +1,22 @@
+package it.pmcsn.lbsim.models.domain.client;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+// Patient clients: no timeouts, no retries
+public class NoneClientPolicy implements ClientPolicy {
+
+    @Override
+    public double deadline(double arrivalTime) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean shouldRetry(Job timedOut) {
+        return false;
+    }
+
+    @Override
+    public double retryTime(Job timedOut, double now) {
+        return Double.POSITIVE_INFINITY;
+    }
+}
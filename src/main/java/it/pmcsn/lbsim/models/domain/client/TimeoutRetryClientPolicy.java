@@ -0,0 +1,97 @@
+package it.pmcsn.lbsim.models.domain.client;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.utils.random.Rngs;
+import it.pmcsn.lbsim.utils.random.Rvgs;
+
+/**
+ * Clients with a per-attempt timeout and capped exponential backoff between retries:
+ * the n-th retry waits min(backoffMax, backoffBase * multiplier^(n-1)) seconds,
+ * or a uniform value in [0, that] with full jitter.
+ */
+public class TimeoutRetryClientPolicy implements ClientPolicy {
+
+    public enum TimeoutDistribution {
+        FIXED,
+        EXPONENTIAL;
+
+        public static TimeoutDistribution fromString(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Timeout distribution cannot be null");
+            }
+            return switch (value.toLowerCase()) {
+                case "fixed" -> FIXED;
+                case "exponential" -> EXPONENTIAL;
+                default -> throw new IllegalArgumentException("Unknown timeout distribution: " + value);
+            };
+        }
+    }
+
+    private final Rngs rngs;
+    private final Rvgs rvgs;
+    private final TimeoutDistribution timeoutDistribution;
+    private final double timeoutMean;
+    private final int timeoutStream;
+    private final int maxRetries;
+    private final double backoffBase;
+    private final double backoffMultiplier;
+    private final double backoffMax;
+    private final boolean jitter;
+    private final int retryStream;
+
+    /**
+     * @param timeoutMean       timeout of every attempt in seconds (mean if exponential) (> 0)
+     * @param maxRetries        retries after the first attempt (>= 0, 0 disables retries)
+     * @param backoffBase       wait before the first retry in seconds (>= 0)
+     * @param backoffMultiplier growth factor of the wait between retries (>= 1)
+     * @param backoffMax        cap of the wait between retries in seconds (>= backoffBase)
+     * @param jitter            full jitter: draw the wait uniformly in [0, backoff]
+     */
+    public TimeoutRetryClientPolicy(Rngs rngs, TimeoutDistribution timeoutDistribution, double timeoutMean, int timeoutStream,
+                                    int maxRetries, double backoffBase, double backoffMultiplier, double backoffMax,
+                                    boolean jitter, int retryStream) {
+        if (rngs == null) throw new IllegalArgumentException("Rngs cannot be null");
+        if (timeoutDistribution == null) throw new IllegalArgumentException("Timeout distribution cannot be null");
+        if (timeoutMean <= 0) throw new IllegalArgumentException("Timeout must be > 0");
+        if (maxRetries < 0) throw new IllegalArgumentException("maxRetries must be >= 0");
+        if (backoffBase < 0 || backoffMax < backoffBase) throw new IllegalArgumentException("Require 0 <= backoffBase <= backoffMax");
+        if (backoffMultiplier < 1) throw new IllegalArgumentException("Backoff multiplier must be >= 1");
+        this.rngs = rngs;
+        this.rvgs = new Rvgs(rngs);
+        this.timeoutDistribution = timeoutDistribution;
+        this.timeoutMean = timeoutMean;
+        this.timeoutStream = timeoutStream;
+        this.maxRetries = maxRetries;
+        this.backoffBase = backoffBase;
+        this.backoffMultiplier = backoffMultiplier;
+        this.backoffMax = backoffMax;
+        this.jitter = jitter;
+        this.retryStream = retryStream;
+    }
+
+    @Override
+    public double deadline(double arrivalTime) {
+        return switch (timeoutDistribution) {
+            case FIXED -> arrivalTime + timeoutMean;
+            case EXPONENTIAL -> {
+                rngs.selectStream(timeoutStream);
+                yield arrivalTime + rvgs.exponential(timeoutMean);
+            }
+        };
+    }
+
+    @Override
+    public boolean shouldRetry(Job timedOut) {
+        return timedOut.getAttempt() < maxRetries;
+    }
+
+    @Override
+    public double retryTime(Job timedOut, double now) {
+        double backoff = Math.min(backoffMax, backoffBase * Math.pow(backoffMultiplier, timedOut.getAttempt()));
+        if (jitter && backoff > 0) {
+            rngs.selectStream(retryStream);
+            backoff = rvgs.uniform(0.0, backoff);
+        }
+        return now + backoff;
+    }
+}
@@ -0,0 +1,17 @@
+package it.pmcsn.lbsim.models.domain.dispatcher;
+
+public enum DispatchSplit {
+    RANDOM,
+    HASH;
+
+    public static DispatchSplit fromString(String value) {
+        if (value == null) {
+            return RANDOM;
+        }
+        return switch (value.toLowerCase()) {
+            case "random" -> RANDOM;
+            case "hash" -> HASH;
+            default -> throw new IllegalArgumentException("Unknown dispatcher split: " + value);
+        };
+    }
+}
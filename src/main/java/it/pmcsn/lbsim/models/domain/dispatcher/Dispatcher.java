@@ -0,0 +1,45 @@
+package it.pmcsn.lbsim.models.domain.dispatcher;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingPolicy;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+
+// One load balancer instance: its own policy state (round robin index, memory, stale view ...) on the shared pool.
+// Counters are cumulative, the run policies report their differences per batch.
+public class Dispatcher {
+    private final int id;
+    private final SchedulingPolicy policy;
+    private long dispatchedJobs = 0;
+    private long chosenLoadSum = 0;     // SI of the chosen server before the job joins
+    private long herdingExcessSum = 0;  // SI of the chosen server minus the least SI in the pool
+    private long herdedJobs = 0;        // jobs sent to a server busier than the least loaded one
+
+    public Dispatcher(int id, SchedulingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Scheduling policy cannot be null");
+        }
+        this.id = id;
+        this.policy = policy;
+    }
+
+    public Server selectServer(ServerPool pool, Job job) {
+        Server selected = policy.selectServer(pool, job);
+        if (selected != null) {
+            Server leastLoaded = pool.getLeastLoadedServer();
+            int excess = selected.getCurrentSI() - leastLoaded.getCurrentSI();
+            dispatchedJobs++;
+            chosenLoadSum += selected.getCurrentSI();
+            herdingExcessSum += excess;
+            if (excess > 0) herdedJobs++;
+        }
+        return selected;
+    }
+
+    public int getId() { return id; }
+    public SchedulingPolicy getPolicy() { return policy; }
+    public long getDispatchedJobs() { return dispatchedJobs; }
+    public long getChosenLoadSum() { return chosenLoadSum; }
+    public long getHerdingExcessSum() { return herdingExcessSum; }
+    public long getHerdedJobs() { return herdedJobs; }
+}
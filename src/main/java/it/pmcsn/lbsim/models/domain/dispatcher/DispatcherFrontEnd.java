@@ -0,0 +1,55 @@
+package it.pmcsn.lbsim.models.domain.dispatcher;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.utils.random.Rngs;
+
+import java.util.List;
+
+// Splits the arrivals across M independent dispatchers: uniformly at random, or by a hash of the client
+// request (the retries of a request reach the same dispatcher). With one dispatcher no random number is drawn.
+public class DispatcherFrontEnd {
+    private final List<Dispatcher> dispatchers;
+    private final DispatchSplit split;
+    private final Rngs rngs;
+    private final int stream;
+
+    public DispatcherFrontEnd(List<Dispatcher> dispatchers, DispatchSplit split, Rngs rngs, int stream) {
+        if (dispatchers == null || dispatchers.isEmpty()) {
+            throw new IllegalArgumentException("At least one dispatcher is required");
+        }
+        if (split == DispatchSplit.RANDOM && dispatchers.size() > 1 && rngs == null) {
+            throw new IllegalArgumentException("Random split requires a random generator");
+        }
+        this.dispatchers = List.copyOf(dispatchers);
+        this.split = split;
+        this.rngs = rngs;
+        this.stream = stream;
+    }
+
+    public static DispatcherFrontEnd single(Dispatcher dispatcher) {
+        return new DispatcherFrontEnd(List.of(dispatcher), DispatchSplit.RANDOM, null, 0);
+    }
+
+    public Dispatcher route(Job job) {
+        int m = dispatchers.size();
+        if (m == 1) {
+            return dispatchers.get(0);
+        }
+        if (split == DispatchSplit.HASH) {
+            return dispatchers.get((int) Long.remainderUnsigned(mix(job.getRequestId()), m));
+        }
+        rngs.selectStream(stream);
+        return dispatchers.get((int) (rngs.random() * m));
+    }
+
+    public List<Dispatcher> getDispatchers() {
+        return dispatchers;
+    }
+
+    // SplitMix64 finalizer: consecutive request ids spread evenly over the dispatchers
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
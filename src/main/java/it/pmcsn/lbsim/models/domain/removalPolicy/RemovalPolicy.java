@@ -1,9 +1,8 @@
 package it.pmcsn.lbsim.models.domain.removalPolicy;
 
 import it.pmcsn.lbsim.models.domain.server.Server;
-
-import java.util.List;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
 
 public interface RemovalPolicy {
-    Server chooseServerToRemove(List<Server> activeServers);
+    Server chooseServerToRemove(ServerPool pool);
 }
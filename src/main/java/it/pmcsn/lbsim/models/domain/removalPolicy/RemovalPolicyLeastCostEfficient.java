@@ -0,0 +1,35 @@
+package it.pmcsn.lbsim.models.domain.removalPolicy;
+
+import it.pmcsn.lbsim.models.domain.server.InstanceType;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+
+// Retires the server with the lowest capacity per cost first; among equally efficient servers the least loaded, then the lowest id
+public class RemovalPolicyLeastCostEfficient implements RemovalPolicy {
+
+    @Override
+    public Server chooseServerToRemove(ServerPool pool) {
+        if (pool == null || pool.getWebServerCount() == 0) {
+            throw new IllegalArgumentException("Active servers list cannot be null or empty");
+        }
+        Server chosen = null;
+        for (Server server : pool.getWebServers()) {
+            if (chosen == null || before(server, chosen)) {
+                chosen = server;
+            }
+        }
+        return chosen;
+    }
+
+    private static boolean before(Server a, Server b) {
+        int byEfficiency = Double.compare(efficiency(a), efficiency(b));
+        if (byEfficiency != 0) return byEfficiency < 0;
+        int bySI = Integer.compare(a.getCurrentSI(), b.getCurrentSI());
+        return bySI != 0 ? bySI < 0 : a.getId() < b.getId();
+    }
+
+    private static double efficiency(Server server) {
+        InstanceType type = server.getInstanceType();
+        return type != null ? type.getCostEfficiency() : Double.POSITIVE_INFINITY;
+    }
+}
@@ -1,20 +1,16 @@
 package it.pmcsn.lbsim.models.domain.removalPolicy;
 
 import it.pmcsn.lbsim.models.domain.server.Server;
-
-import java.util.Comparator;
-import java.util.List;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
 
 public class RemovalPolicyLeastUsed implements RemovalPolicy{
 
     @Override
-    public Server chooseServerToRemove(List<Server> activeServers) {
-        if (activeServers == null || activeServers.isEmpty()) {
+    public Server chooseServerToRemove(ServerPool pool) {
+        if (pool == null || pool.getWebServerCount() == 0) {
             throw new IllegalArgumentException("Active servers list cannot be null or empty");
         }
-
-        return activeServers.stream()
-                .min(Comparator.comparingInt(Server::getCurrentSI))
-                .orElseThrow(() -> new IllegalStateException("No servers available to remove"));
+        // the pool keeps its active servers indexed by load: no scan needed
+        return pool.getLeastLoadedServer();
     }
 }
@@ -18,4 +18,31 @@ public interface HorizontalScaler {
      */
     Action notifyJobDeparture(double responseTimeSeconds, double nowSeconds);
 
+    /**
+     * Notifica l'arrivo di un job di dimensione 'size' (secondi di servizio) al tempo 'now'.
+     * Gli scaler reattivi la ignorano.
+     */
+    default void notifyJobArrival(double size, double nowSeconds) {}
+
+    /**
+     * Periodo in secondi con cui il load balancer chiama evaluate su un timer; 0 se lo scaler decide alle departure.
+     */
+    default double getEvaluationPeriod() { return 0.0; }
+
+    /**
+     * Decisione periodica al tempo 'now' (se il cooldown lo consente).
+     */
+    default Action evaluate(double nowSeconds) { return Action.NONE; }
+
+    /**
+     * Capacità da aggiungere o rimuovere con l'ultima azione restituita, in server base (la capacità di un server del
+     * primo tipo di istanza), l'unità di ServerPool.scaleOut e scaleIn; 1 per gli scaler a passo singolo.
+     */
+    default int getActionSize() { return 1; }
+
+    /**
+     * Stato interno del controllore per l'output dei batch; null per gli scaler a soglia.
+     */
+    default ScalerState getState() { return null; }
+
 }
@@ -0,0 +1,25 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+public enum HorizontalScalerType {
+    SLIDING_WINDOW,
+    PREDICTIVE,
+    PERCENTILE,
+    TIME_WINDOW,
+    TARGET_TRACKING,
+    PID;
+
+    public static HorizontalScalerType fromString(String value) {
+        if (value == null) {
+            return SLIDING_WINDOW;
+        }
+        return switch (value.toLowerCase()) {
+            case "sliding_window" -> SLIDING_WINDOW;
+            case "predictive" -> PREDICTIVE;
+            case "percentile" -> PERCENTILE;
+            case "time_window" -> TIME_WINDOW;
+            case "target_tracking" -> TARGET_TRACKING;
+            case "pid" -> PID;
+            default -> throw new IllegalArgumentException("Unknown horizontal scaler: " + value);
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Policy sui job in servizio per server, valutata su un timer periodico breve: pensata per il tier spike,
+ * che deve reagire al picco prima che i tempi di risposta lo mostrino.
+ * - Se job / server > scaleOutAbove ⇒ SCALE_OUT dei server che riportano l'occupazione a scaleOutAbove (almeno 1).
+ * - Se job / server < scaleInBelow  ⇒ SCALE_IN di un server.
+ * - Altrimenti NONE.
+ *
+ * Note:
+ * - Si contano anche i server in provisioning, come per gli altri scaler a target: un picco non lancia
+ *   di nuovo server già richiesti.
+ * - I limiti minimo e massimo del numero di server sono applicati da chi esegue l'azione.
+ */
+public class OccupancyHorizontalScaler implements HorizontalScaler {
+
+    private final double evaluationPeriod;
+    private final double scaleOutAbove;
+    private final double scaleInBelow;
+    private final double cooldownSec;
+    private final IntSupplier jobs;
+    private final IntSupplier servers;
+    private int actionSize = 1;
+    private int scaleActions = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param evaluationPeriod secondi tra due valutazioni (>0)
+     * @param scaleOutAbove    job per server oltre i quali si aggiungono server (>0)
+     * @param scaleInBelow     job per server sotto i quali si rimuove un server (< scaleOutAbove)
+     * @param cooldownSec      secondi minimi tra due azioni di scaling (>=0)
+     * @param jobs             job in servizio nel pool
+     * @param servers          server del pool, compresi quelli in provisioning
+     */
+    public OccupancyHorizontalScaler(double evaluationPeriod, double scaleOutAbove, double scaleInBelow, double cooldownSec,
+                                     IntSupplier jobs, IntSupplier servers) {
+        if (evaluationPeriod <= 0) throw new IllegalArgumentException("evaluationPeriod must be > 0");
+        if (scaleOutAbove <= 0) throw new IllegalArgumentException("scaleOutAbove must be > 0");
+        if (scaleInBelow < 0 || scaleInBelow >= scaleOutAbove) throw new IllegalArgumentException("Require 0 <= scaleInBelow < scaleOutAbove");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+        this.evaluationPeriod = evaluationPeriod;
+        this.scaleOutAbove = scaleOutAbove;
+        this.scaleInBelow = scaleInBelow;
+        this.cooldownSec = cooldownSec;
+        this.jobs = jobs;
+        this.servers = servers;
+    }
+
+    @Override
+    public Action notifyJobDeparture(double rt, double now) {
+        return Action.NONE;
+    }
+
+    @Override
+    public double getEvaluationPeriod() {
+        return evaluationPeriod;
+    }
+
+    @Override
+    public Action evaluate(double now) {
+        if ((now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        int current = servers.getAsInt();
+        double occupancy = (double) jobs.getAsInt() / current;
+        if (occupancy > scaleOutAbove) {
+            actionSize = Math.max(1, (int) Math.ceil(jobs.getAsInt() / scaleOutAbove) - current);
+            return Action.SCALE_OUT;
+        }
+        if (occupancy < scaleInBelow) {
+            actionSize = 1;
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    @Override
+    public int getActionSize() {
+        return actionSize;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
@@ -0,0 +1,68 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+/**
+ * Policy sulla coda della distribuzione: mantiene il percentile q (es. p95, p99) degli ultimi N response time.
+ * - Se percentile > scaleOutAbove ⇒ SCALE_OUT (se rispettato cooldown).
+ * - Se percentile < scaleInBelow  ⇒ SCALE_IN  (se rispettato cooldown).
+ * - Altrimenti NONE.
+ *
+ * Note:
+ * - Il percentile è aggiornato in O(log N) per departure (WindowedPercentile).
+ * - Come per la media, si decide solo a finestra piena e con isteresi (scaleInBelow < scaleOutAbove).
+ */
+public class PercentileHorizontalScaler implements HorizontalScaler {
+
+    private final WindowedPercentile window;
+    private final double scaleInBelow;
+    private final double scaleOutAbove;
+    private final double cooldownSec;
+    private int scaleActions = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param windowSize    numero di campioni nella sliding window (>=1)
+     * @param quantile      percentile osservato, in (0, 1]
+     * @param scaleInBelow  soglia inferiore per scale-in (>=0)
+     * @param scaleOutAbove soglia superiore per scale-out (> scaleInBelow)
+     * @param cooldownSec   secondi minimi tra due azioni di scaling (>=0)
+     */
+    public PercentileHorizontalScaler(int windowSize, double quantile, double scaleInBelow, double scaleOutAbove, double cooldownSec) {
+        if (windowSize < 1) throw new IllegalArgumentException("windowSize must be >= 1");
+        if (scaleInBelow < 0 || scaleOutAbove <= scaleInBelow) throw new IllegalArgumentException("Require 0 <= scaleInBelow < scaleOutAbove");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+
+        this.window = new WindowedPercentile(windowSize, quantile);
+        this.scaleInBelow = scaleInBelow;
+        this.scaleOutAbove = scaleOutAbove;
+        this.cooldownSec = cooldownSec;
+    }
+
+    @Override
+    public Action notifyJobDeparture(double rt, double now) {
+        if (rt < 0) throw new IllegalArgumentException("response time must be >= 0");
+        window.add(rt);
+        if (!window.isFull() || (now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        double percentile = window.getPercentile();
+        if (percentile > scaleOutAbove) {
+            return Action.SCALE_OUT;
+        }
+        if (percentile < scaleInBelow) {
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
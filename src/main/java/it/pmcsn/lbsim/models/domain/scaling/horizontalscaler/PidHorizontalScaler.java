@@ -0,0 +1,208 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Policy a retroazione: controllore PID discreto che fissa il numero di web server.
+ * Ad ogni periodo di campionamento (timer periodico) misura la metrica sulla finestra temporale e calcola
+ *   e = (metric - setpoint) / setpoint,   u = Kp·e + I + Kd·(e - e_prec)/dt,   I += Ki·e·dt
+ * con u espresso in server base (capacità di un server del primo tipo di istanza); u arrotondato all'intero è la
+ * capacità desiderata, confrontata con quella corrente nella stessa unità.
+ * - Se desired > current ⇒ SCALE_OUT di (desired - current) server base.
+ * - Se desired < current ⇒ SCALE_IN di (current - desired) server base.
+ * - Altrimenti NONE.
+ *
+ * Note:
+ * - Metrica: media dei response time della finestra, oppure utilizzo offerto
+ *   (lavoro arrivato nella finestra / capacità dei server attivi nello stesso tempo).
+ * - L'integratore parte dal numero di server alla prima misura (avvio senza scalini) e resta in [1, maxServers].
+ * - Anti-windup: se l'uscita è saturata e l'errore la spingerebbe oltre, l'integrazione è sospesa.
+ * - La quantizzazione fa da banda morta: variazioni di u sotto mezzo server non producono azioni.
+ * - Il cooldown vale tra due azioni; lo stato del controllore è esposto tramite ScalerState.
+ */
+public class PidHorizontalScaler implements HorizontalScaler {
+
+    public enum Metric {
+        RESPONSE_TIME,
+        UTILIZATION;
+
+        public static Metric fromString(String value) {
+            if (value == null) {
+                return RESPONSE_TIME;
+            }
+            return switch (value.toLowerCase()) {
+                case "response_time" -> RESPONSE_TIME;
+                case "utilization" -> UTILIZATION;
+                default -> throw new IllegalArgumentException("Unknown PID metric: " + value);
+            };
+        }
+    }
+
+    private final Metric metric;
+    private final TimeBucketWindow responses;   // response time alle departure
+    private final TimeBucketWindow work;        // dimensioni dei job agli arrivi
+    private final double evaluationPeriod;
+    private final double setpoint;
+    private final double kp;
+    private final double ki;
+    private final double kd;
+    private final int maxServers;
+    private final double cooldownSec;
+    private final DoubleSupplier capacity;
+    private final IntSupplier activeServers;
+    private final ScalerState state = new ScalerState();
+
+    private boolean initialized = false;
+    private double previousError = 0.0;
+    private int actionSize = 1;
+    private int scaleActions = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param metric           grandezza controllata
+     * @param windowSec        ampiezza della finestra di misura in secondi (>0)
+     * @param buckets          numero di bucket della finestra (>=1)
+     * @param evaluationPeriod periodo di campionamento in secondi (>0)
+     * @param setpoint         valore obiettivo: secondi di risposta o utilizzo in (0, 1] (>0)
+     * @param kp               guadagno proporzionale, server per unità di errore (>=0)
+     * @param ki               guadagno integrale, server per unità di errore al secondo (>=0)
+     * @param kd               guadagno derivativo, server·secondi per unità di errore (>=0)
+     * @param maxServers       capacità massima dei web server in server base (>=1)
+     * @param cooldownSec      secondi minimi tra due azioni di scaling (>=0)
+     * @param capacity         capacità corrente dei web server, somma delle loro allocazioni di CPU
+     * @param activeServers    capacità corrente dei web server in server base (ServerPool.getTargetBaseServers)
+     */
+    public PidHorizontalScaler(Metric metric, double windowSec, int buckets, double evaluationPeriod, double setpoint,
+                               double kp, double ki, double kd, int maxServers, double cooldownSec,
+                               DoubleSupplier capacity, IntSupplier activeServers) {
+        if (evaluationPeriod <= 0) throw new IllegalArgumentException("evaluationPeriod must be > 0");
+        if (setpoint <= 0) throw new IllegalArgumentException("setpoint must be > 0");
+        if (metric == Metric.UTILIZATION && setpoint > 1) throw new IllegalArgumentException("Utilization setpoint must be in (0, 1]");
+        if (kp < 0 || ki < 0 || kd < 0) throw new IllegalArgumentException("PID gains must be >= 0");
+        if (maxServers < 1) throw new IllegalArgumentException("maxServers must be >= 1");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+        if (capacity == null) throw new IllegalArgumentException("capacity cannot be null");
+
+        this.metric = metric;
+        this.responses = new TimeBucketWindow(windowSec, buckets);
+        this.work = new TimeBucketWindow(windowSec, buckets);
+        this.evaluationPeriod = evaluationPeriod;
+        this.setpoint = setpoint;
+        this.kp = kp;
+        this.ki = ki;
+        this.kd = kd;
+        this.maxServers = maxServers;
+        this.cooldownSec = cooldownSec;
+        this.capacity = capacity;
+        this.activeServers = activeServers;
+    }
+
+    @Override
+    public void notifyJobArrival(double size, double now) {
+        if (metric == Metric.UTILIZATION) {
+            work.add(size, now);
+        }
+    }
+
+    @Override
+    public Action notifyJobDeparture(double rt, double now) {
+        if (rt < 0) throw new IllegalArgumentException("response time must be >= 0");
+        if (metric == Metric.RESPONSE_TIME) {
+            responses.add(rt, now);
+        }
+        return Action.NONE;
+    }
+
+    @Override
+    public double getEvaluationPeriod() {
+        return evaluationPeriod;
+    }
+
+    @Override
+    public Action evaluate(double now) {
+        int current = activeServers.getAsInt();
+        double measured = measure(now);
+        if (Double.isNaN(measured)) {
+            return Action.NONE;
+        }
+        double error = (measured - setpoint) / setpoint;
+        if (!initialized) {
+            state.integral = current;
+            previousError = error;
+            initialized = true;
+        }
+        double proportional = kp * error;
+        double derivative = kd * (error - previousError) / evaluationPeriod;
+        double integral = state.integral + ki * error * evaluationPeriod;
+        double output = proportional + integral + derivative;
+        // anti-windup: non si integra verso una saturazione già raggiunta
+        boolean saturated = (output > maxServers && error > 0) || (output < 1 && error < 0);
+        if (saturated) {
+            integral = state.integral;
+            output = proportional + integral + derivative;
+            state.saturatedEvaluations++;
+        }
+        state.integral = Math.max(1.0, Math.min(maxServers, integral));
+        output = Math.max(1.0, Math.min(maxServers, output));
+        int desired = (int) Math.round(output);
+        previousError = error;
+
+        state.metric = measured;
+        state.error = error;
+        state.proportional = proportional;
+        state.derivative = derivative;
+        state.output = output;
+        state.desiredServers = desired;
+        state.evaluations++;
+        state.errorSum += error;
+        state.absErrorSum += Math.abs(error);
+
+        if ((now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        if (desired > current) {
+            actionSize = desired - current;
+            return Action.SCALE_OUT;
+        }
+        if (desired < current) {
+            actionSize = current - desired;
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    // NaN se nella finestra non c'è ancora niente da misurare
+    private double measure(double now) {
+        if (metric == Metric.RESPONSE_TIME) {
+            return responses.mean(now);
+        }
+        double elapsed = Math.min(now, work.getWindowSeconds());
+        if (elapsed <= 0) {
+            return Double.NaN;
+        }
+        return work.sum(now) / (elapsed * capacity.getAsDouble());
+    }
+
+    @Override
+    public ScalerState getState() {
+        return state;
+    }
+
+    @Override
+    public int getActionSize() {
+        return actionSize;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
@@ -0,0 +1,218 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Policy predittiva: non aspetta che il tempo di risposta degradi ma stima il carico in arrivo.
+ * - Gli arrivi e il lavoro (somma delle dimensioni) sono aggregati in intervalli di durata fissa.
+ * - Alla chiusura di ogni intervallo il tasso di lavoro aggiorna lo smoothing esponenziale doppio di Holt
+ *   (livello e trend), in O(1).
+ * - Il tasso previsto un cooldown più avanti, diviso per la capacità allocata ai server (tipo di istanza e
+ *   cpuPercentage compresi), dà l'utilizzo previsto: sopra targetUtilization ⇒ SCALE_OUT di quanti server base
+ *   servono a riportarlo sotto il target, cioè ceil((forecast / targetUtilization - capacità) / capacità di un server);
+ *   se anche senza il server che la removal policy ritirerebbe resterebbe sotto scaleInUtilization ⇒ SCALE_IN di quel
+ *   server, cioè della sua capacità in server base.
+ *
+ * Note:
+ * - Gli intervalli senza arrivi contano come tasso nullo e sono saltati in blocco: n passi di Holt con
+ *   osservazione nulla sono la potenza n-esima di una matrice 2x2, calcolata in forma chiusa in O(1).
+ * - Le decisioni sono prese alle departure, come per gli altri scaler, e rispettano il cooldown.
+ */
+public class PredictiveHorizontalScaler implements HorizontalScaler {
+
+    private static final int WARMUP_INTERVALS = 3;   // intervalli osservati prima della prima azione
+    private static final double DISCRIMINANT_EPS = 1e-12;
+    private static final double CAPACITY_EPS = 1e-9;  // evita un server in più per arrotondamento
+
+    private final double interval;
+    private final double alpha;
+    private final double beta;
+    private final double targetUtilization;
+    private final double scaleInUtilization;
+    private final double cooldownSec;
+    private final DoubleSupplier capacity;           // lavoro smaltito al secondo da tutti i server
+    private final DoubleSupplier serverCapacity;     // capacità aggiunta da un server base con lo scale-out
+    private final DoubleSupplier retiringCapacity;   // capacità del server che il prossimo scale-in ritirerebbe
+    private final IntSupplier activeServers;
+
+    // intervallo corrente
+    private double intervalEnd = Double.NaN;
+    private int intervalArrivals = 0;
+    private double intervalWork = 0.0;
+
+    // stato di Holt sul tasso di lavoro (secondi di servizio al secondo) e media del tasso di arrivo
+    private double level = 0.0;
+    private double trend = 0.0;
+    private double arrivalRate = 0.0;
+    private int observedIntervals = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+    private int actionSize = 1;
+    private int scaleActions = 0;
+
+    /**
+     * @param interval           durata degli intervalli di osservazione in secondi (> 0)
+     * @param alpha              peso del livello nello smoothing, in (0, 1]
+     * @param beta               peso del trend nello smoothing, in [0, 1]
+     * @param targetUtilization  utilizzo previsto oltre il quale si aggiunge un server, in (0, 1]
+     * @param scaleInUtilization utilizzo previsto con un server in meno sotto il quale se ne rimuove uno (< target)
+     * @param cooldownSec        secondi minimi tra due azioni e orizzonte della previsione (>= 0)
+     * @param capacity           capacità corrente dei web server, somma delle loro allocazioni di CPU
+     * @param serverCapacity     capacità di un server base, l'unità in cui si chiede lo scale-out (> 0)
+     * @param retiringCapacity   capacità del server che sarebbe rimosso da uno scale-in
+     * @param activeServers      numero corrente di web server attivi
+     */
+    public PredictiveHorizontalScaler(double interval, double alpha, double beta, double targetUtilization, double scaleInUtilization,
+                                      double cooldownSec, DoubleSupplier capacity, DoubleSupplier serverCapacity,
+                                      DoubleSupplier retiringCapacity, IntSupplier activeServers) {
+        if (interval <= 0) throw new IllegalArgumentException("interval must be > 0");
+        if (alpha <= 0 || alpha > 1) throw new IllegalArgumentException("alpha must be in (0, 1]");
+        if (beta < 0 || beta > 1) throw new IllegalArgumentException("beta must be in [0, 1]");
+        if (targetUtilization <= 0 || targetUtilization > 1) throw new IllegalArgumentException("targetUtilization must be in (0, 1]");
+        if (scaleInUtilization < 0 || scaleInUtilization >= targetUtilization) throw new IllegalArgumentException("Require 0 <= scaleInUtilization < targetUtilization");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+        if (capacity == null) throw new IllegalArgumentException("capacity cannot be null");
+        if (serverCapacity == null) throw new IllegalArgumentException("serverCapacity cannot be null");
+        if (retiringCapacity == null) throw new IllegalArgumentException("retiringCapacity cannot be null");
+        this.interval = interval;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.targetUtilization = targetUtilization;
+        this.scaleInUtilization = scaleInUtilization;
+        this.cooldownSec = cooldownSec;
+        this.capacity = capacity;
+        this.serverCapacity = serverCapacity;
+        this.retiringCapacity = retiringCapacity;
+        this.activeServers = activeServers;
+    }
+
+    @Override
+    public void notifyJobArrival(double size, double now) {
+        advanceTo(now);
+        intervalArrivals++;
+        intervalWork += size;
+    }
+
+    @Override
+    public Action notifyJobDeparture(double responseTimeSeconds, double now) {
+        advanceTo(now);
+        if (observedIntervals < WARMUP_INTERVALS || (now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        int servers = activeServers.getAsInt();
+        double current = capacity.getAsDouble();
+        double forecast = getForecastWorkRate();
+        if (forecast > targetUtilization * current) {
+            double perServer = serverCapacity.getAsDouble();
+            if (perServer <= 0) throw new IllegalStateException("server capacity must be > 0");
+            actionSize = Math.max(1, (int) Math.ceil((forecast / targetUtilization - current) / perServer - CAPACITY_EPS));
+            return Action.SCALE_OUT;
+        }
+        // la removal policy si interroga solo se lo scale-in è possibile anche con tutta la capacità
+        if (servers > 1 && forecast < scaleInUtilization * current
+                && forecast < scaleInUtilization * (current - retiringCapacity.getAsDouble())) {
+            double perServer = serverCapacity.getAsDouble();
+            if (perServer <= 0) throw new IllegalStateException("server capacity must be > 0");
+            actionSize = Math.max(1, (int) Math.ceil(retiringCapacity.getAsDouble() / perServer - CAPACITY_EPS));
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    // chiude l'intervallo corrente e salta in un solo passo quelli vuoti terminati prima di now
+    private void advanceTo(double now) {
+        if (Double.isNaN(intervalEnd)) {
+            intervalEnd = now + interval;
+            return;
+        }
+        if (now < intervalEnd) {
+            return;
+        }
+        observe(intervalArrivals / interval, intervalWork / interval);
+        intervalArrivals = 0;
+        intervalWork = 0.0;
+        long empty = (long) Math.floor((now - intervalEnd) / interval);
+        if (empty > 0) {
+            observeEmpty(empty);
+        }
+        intervalEnd += (empty + 1) * interval;
+        while (now >= intervalEnd) {   // solo arrotondamenti
+            intervalEnd += interval;
+        }
+    }
+
+    private void observe(double arrivals, double work) {
+        if (observedIntervals == 0) {
+            level = work;
+            trend = 0.0;
+            arrivalRate = arrivals;
+        } else {
+            double previousLevel = level;
+            level = alpha * work + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            arrivalRate = alpha * arrivals + (1 - alpha) * arrivalRate;
+        }
+        observedIntervals++;
+    }
+
+    /*
+     * n osservazioni nulle: (level, trend) <- M^n (level, trend) con M = [[1-α, 1-α], [-αβ, 1-αβ]].
+     * Per Cayley-Hamilton M^n = U(n) M - q U(n-1) I, con p = tr M, q = det M = 1-α e U la successione
+     * U(0) = 0, U(1) = 1, U(k+1) = p U(k) - q U(k-1), che ha forma chiusa.
+     */
+    private void observeEmpty(long n) {
+        double p = 2 - alpha - alpha * beta;
+        double q = 1 - alpha;
+        double un = lucasU(n, p, q);
+        double unPrev = lucasU(n - 1, p, q);
+        double previousLevel = level;
+        level = un * (1 - alpha) * (previousLevel + trend) - q * unPrev * previousLevel;
+        trend = un * (-alpha * beta * previousLevel + (1 - alpha * beta) * trend) - q * unPrev * trend;
+        arrivalRate *= Math.pow(1 - alpha, n);
+        observedIntervals = (int) Math.min(Integer.MAX_VALUE, observedIntervals + n);
+    }
+
+    // U(n) di x^2 - p x + q: radici reali distinte, complesse coniugate o doppia
+    private static double lucasU(long n, double p, double q) {
+        if (n <= 0) {
+            return 0.0;
+        }
+        double disc = p * p - 4 * q;
+        if (disc > DISCRIMINANT_EPS) {
+            double s = Math.sqrt(disc);
+            return (Math.pow((p + s) / 2, n) - Math.pow((p - s) / 2, n)) / s;
+        }
+        if (disc < -DISCRIMINANT_EPS) {
+            double r = Math.sqrt(q);
+            double theta = Math.acos(p / (2 * r));
+            return Math.pow(r, n - 1) * Math.sin(n * theta) / Math.sin(theta);
+        }
+        return n * Math.pow(p / 2, n - 1);
+    }
+
+    /** Tasso di lavoro previsto un cooldown più avanti (secondi di servizio richiesti al secondo). */
+    public double getForecastWorkRate() {
+        return Math.max(0.0, level + trend * (cooldownSec / interval));
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    @Override
+    public int getActionSize() {
+        return actionSize;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
@@ -0,0 +1,35 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+/**
+ * Stato interno di uno scaler a retroazione, aggiornato ad ogni valutazione e letto dall'output dei batch.
+ * I valori correnti si riferiscono all'ultima valutazione; i contatori sono cumulativi
+ * (chi li legge per batch ne fa la differenza con il batch precedente).
+ */
+public class ScalerState {
+    // ultima valutazione
+    double metric = Double.NaN;        // valore misurato
+    double error = Double.NaN;         // errore normalizzato (metric - setpoint) / setpoint
+    double proportional = 0.0;
+    double integral = 0.0;
+    double derivative = 0.0;
+    double output = Double.NaN;        // uscita del controllore in server, dopo la saturazione
+    int desiredServers = 0;            // uscita quantizzata
+
+    // contatori cumulativi
+    long evaluations = 0;
+    long saturatedEvaluations = 0;     // valutazioni con integrazione sospesa (anti-windup)
+    double errorSum = 0.0;
+    double absErrorSum = 0.0;
+
+    public double getMetric() { return metric; }
+    public double getError() { return error; }
+    public double getProportional() { return proportional; }
+    public double getIntegral() { return integral; }
+    public double getDerivative() { return derivative; }
+    public double getOutput() { return output; }
+    public int getDesiredServers() { return desiredServers; }
+    public long getEvaluations() { return evaluations; }
+    public long getSaturatedEvaluations() { return saturatedEvaluations; }
+    public double getErrorSum() { return errorSum; }
+    public double getAbsErrorSum() { return absErrorSum; }
+}
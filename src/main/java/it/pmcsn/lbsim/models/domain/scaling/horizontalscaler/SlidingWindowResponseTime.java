@@ -1,42 +1,47 @@
 package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
+// Mean of the last windowSize response times: ring buffer of doubles and running sum, O(1) per sample
 public class SlidingWindowResponseTime {
-    private final Queue<Double> queue;    // List to store response times
+    private final double[] window;  // ring buffer of the response times
     private final int windowSize;   // Size of the sliding window
+    private int next = 0;           // slot of the next sample
+    private int size = 0;
+    private double sum = 0.0;
 
     public SlidingWindowResponseTime(int windowSize) {
         if (windowSize <= 0) {
             throw new IllegalArgumentException("Window size must be greater than 0");
         }
         this.windowSize = windowSize;
-        this.queue = new LinkedList<>(); // Initialize the queue
+        this.window = new double[windowSize];
     }
 
     public void add(double rt) {
-        if (queue.size() == windowSize) {
-            queue.poll(); // remove the first element
+        if (size == windowSize) {
+            sum -= window[next]; // remove the oldest sample
+        } else {
+            size++;
+        }
+        window[next] = rt;
+        sum += rt;
+        next = (next + 1) % windowSize;
+        // the running sum drifts: re-sum the window once per full turn, O(1) amortized
+        if (next == 0) {
+            sum = 0.0;
+            for (int i = 0; i < size; i++) {
+                sum += window[i];
+            }
         }
-        queue.add(rt); // add the new response time into the queue
     }
 
     public double getAverage() {
-        if (queue.isEmpty()) {
-            return 0.0; // Return 0 if the queue is empty
-        }
-        double sum = 0.0;
-        for (double rt : queue) {
-            sum += rt; // Sum all response times in the queue
+        if (size == 0) {
+            return 0.0; // Return 0 if the window is empty
         }
-        return sum / queue.size(); // Calculate and return the average
+        return sum / size;
     }
 
     public boolean isFull() {
-        return queue.size() == windowSize;
+        return size == windowSize;
     }
-
-
-
 }
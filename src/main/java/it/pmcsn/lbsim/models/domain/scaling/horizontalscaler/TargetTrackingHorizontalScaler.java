@@ -0,0 +1,134 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Policy target tracking, come la regola dell'HPA di Kubernetes: desired = ceil(current · metric / target),
+ * dove metric è la media dei response time degli ultimi T secondi (TimeBucketWindow) e target il valore da inseguire.
+ * current e desired sono capacità in server base, così con più tipi di istanza il pool compra e ritira esattamente
+ * quello che lo scaler misura.
+ * - Se desired > current ⇒ SCALE_OUT di (desired - current) server base, al più maxStep per azione.
+ * - Se desired < current ⇒ SCALE_IN di (current - desired) server base, al più maxStep per azione.
+ * - Altrimenti NONE.
+ *
+ * Note:
+ * - Valutata su un timer periodico: una departure costa solo l'incremento di un bucket.
+ * - Rapporti metric/target entro la tolleranza (es. ±10%) non producono azioni, per non oscillare attorno al target.
+ * - Stabilizzazione dello scale-in: si usa il massimo dei desired raccomandati negli ultimi stabilizationSec
+ *   secondi, quindi si rimuovono server solo se il carico è rimasto basso per tutta la finestra.
+ *   Lo scale-out è immediato; il cooldown vale tra due azioni di qualunque verso.
+ */
+public class TargetTrackingHorizontalScaler implements HorizontalScaler {
+
+    private final TimeBucketWindow window;
+    private final double evaluationPeriod;
+    private final double target;
+    private final double tolerance;
+    private final double stabilizationSec;
+    private final int maxStep;
+    private final double cooldownSec;
+    private final IntSupplier activeServers;
+    private final double[] recommendedAt;   // raccomandazioni delle ultime valutazioni (ring buffer)
+    private final int[] recommended;
+    private int next = 0;
+    private int actionSize = 1;
+    private int scaleActions = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param windowSec        ampiezza della finestra in secondi (>0)
+     * @param buckets          numero di bucket della finestra (>=1)
+     * @param evaluationPeriod secondi tra due valutazioni (>0)
+     * @param target           response time medio da inseguire (>0)
+     * @param tolerance        scarto relativo di metric/target da 1 entro cui non si agisce (>=0)
+     * @param stabilizationSec finestra di stabilizzazione dello scale-in in secondi (>=0)
+     * @param maxStep          massimo numero di server aggiunti o rimossi con una azione (>=1)
+     * @param cooldownSec      secondi minimi tra due azioni di scaling (>=0)
+     * @param activeServers    capacità corrente dei web server in server base (ServerPool.getTargetBaseServers)
+     */
+    public TargetTrackingHorizontalScaler(double windowSec, int buckets, double evaluationPeriod, double target, double tolerance,
+                                          double stabilizationSec, int maxStep, double cooldownSec, IntSupplier activeServers) {
+        if (evaluationPeriod <= 0) throw new IllegalArgumentException("evaluationPeriod must be > 0");
+        if (target <= 0) throw new IllegalArgumentException("target must be > 0");
+        if (tolerance < 0) throw new IllegalArgumentException("tolerance must be >= 0");
+        if (stabilizationSec < 0) throw new IllegalArgumentException("stabilizationSec must be >= 0");
+        if (maxStep < 1) throw new IllegalArgumentException("maxStep must be >= 1");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+
+        this.window = new TimeBucketWindow(windowSec, buckets);
+        this.evaluationPeriod = evaluationPeriod;
+        this.target = target;
+        this.tolerance = tolerance;
+        this.stabilizationSec = stabilizationSec;
+        this.maxStep = maxStep;
+        this.cooldownSec = cooldownSec;
+        this.activeServers = activeServers;
+        int slots = (int) Math.ceil(stabilizationSec / evaluationPeriod) + 1;
+        this.recommendedAt = new double[slots];
+        this.recommended = new int[slots];
+        Arrays.fill(recommendedAt, Double.NEGATIVE_INFINITY);
+    }
+
+    @Override
+    public Action notifyJobDeparture(double rt, double now) {
+        if (rt < 0) throw new IllegalArgumentException("response time must be >= 0");
+        window.add(rt, now);
+        return Action.NONE;
+    }
+
+    @Override
+    public double getEvaluationPeriod() {
+        return evaluationPeriod;
+    }
+
+    @Override
+    public Action evaluate(double now) {
+        double metric = window.mean(now);
+        if (Double.isNaN(metric)) {
+            return Action.NONE;
+        }
+        int current = activeServers.getAsInt();
+        double ratio = metric / target;
+        int desired = Math.abs(ratio - 1.0) <= tolerance ? current : Math.max(1, (int) Math.ceil(current * ratio));
+        // ogni valutazione è registrata, anche in cooldown, così la stabilizzazione copre l'intera finestra
+        recommendedAt[next] = now;
+        recommended[next] = desired;
+        next = (next + 1) % recommended.length;
+        if ((now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        if (desired > current) {
+            actionSize = Math.min(desired - current, maxStep);
+            return Action.SCALE_OUT;
+        }
+        int stabilized = desired;
+        for (int i = 0; i < recommended.length; i++) {
+            if (now - recommendedAt[i] <= stabilizationSec) {
+                stabilized = Math.max(stabilized, recommended[i]);
+            }
+        }
+        if (stabilized < current) {
+            actionSize = Math.min(current - stabilized, maxStep);
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    @Override
+    public int getActionSize() {
+        return actionSize;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
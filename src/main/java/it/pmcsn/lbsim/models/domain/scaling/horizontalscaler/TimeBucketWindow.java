@@ -0,0 +1,84 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+/**
+ * Finestra temporale sugli ultimi T secondi di tempo simulato, divisa in B bucket di ampiezza T/B.
+ * Ogni bucket conserva solo conteggio e somma dei campioni (array primitivi), quindi registrare un campione
+ * costa O(1) e la memoria non dipende dal throughput. La finestra avanza a scatti di un bucket:
+ * i campioni più vecchi escono con una granularità di T/B secondi.
+ * Media e conteggio sono calcolati in O(B) sui bucket vivi, al momento della valutazione periodica.
+ */
+public class TimeBucketWindow {
+    private final double bucketWidth;
+    private final int[] counts;
+    private final double[] sums;
+    private long currentBucket = 0;       // indice assoluto (now / bucketWidth) del bucket corrente
+
+    /**
+     * @param windowSeconds ampiezza T della finestra in secondi (>0)
+     * @param buckets       numero B di bucket (>=1)
+     */
+    public TimeBucketWindow(double windowSeconds, int buckets) {
+        if (windowSeconds <= 0) throw new IllegalArgumentException("Window must be > 0 seconds");
+        if (buckets < 1) throw new IllegalArgumentException("Number of buckets must be >= 1");
+        this.bucketWidth = windowSeconds / buckets;
+        this.counts = new int[buckets];
+        this.sums = new double[buckets];
+    }
+
+    public void add(double value, double now) {
+        advance(now);
+        int slot = (int) (currentBucket % counts.length);
+        counts[slot]++;
+        sums[slot] += value;
+    }
+
+    // svuota i bucket usciti dalla finestra fino al tempo 'now'
+    public void advance(double now) {
+        long bucket = (long) Math.floor(now / bucketWidth);
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long expired = Math.min(bucket - currentBucket, counts.length);
+        for (long b = bucket - expired + 1; b <= bucket; b++) {
+            int slot = (int) (b % counts.length);
+            counts[slot] = 0;
+            sums[slot] = 0.0;
+        }
+        currentBucket = bucket;
+    }
+
+    public int count(double now) {
+        advance(now);
+        int count = 0;
+        for (int c : counts) {
+            count += c;
+        }
+        return count;
+    }
+
+    /** Somma dei campioni nella finestra al tempo 'now'. */
+    public double sum(double now) {
+        advance(now);
+        double sum = 0.0;
+        for (double s : sums) {
+            sum += s;
+        }
+        return sum;
+    }
+
+    public double getWindowSeconds() {
+        return bucketWidth * counts.length;
+    }
+
+    /** Media dei campioni nella finestra al tempo 'now'; NaN se la finestra è vuota. */
+    public double mean(double now) {
+        advance(now);
+        int count = 0;
+        double sum = 0.0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            sum += sums[i];
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
@@ -0,0 +1,86 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+/**
+ * Policy sulla media dei response time degli ultimi T secondi di tempo simulato, valutata su un timer periodico.
+ * - Se media > R0max ⇒ SCALE_OUT (se rispettato cooldown).
+ * - Se media < R0min ⇒ SCALE_IN  (se rispettato cooldown).
+ * - Altrimenti NONE.
+ *
+ * Note:
+ * - Una departure costa solo l'incremento di un bucket (TimeBucketWindow); la decisione avviene in evaluate,
+ *   chiamata dal load balancer ogni evaluationPeriod secondi, come un autoscaler basato su metriche.
+ * - A differenza della finestra sugli ultimi N job, la finestra ha la stessa durata a ogni carico:
+ *   con pochi arrivi non resta piena di campioni vecchi. Senza campioni nella finestra non si decide.
+ */
+public class TimeWindowHorizontalScaler implements HorizontalScaler {
+
+    private final TimeBucketWindow window;
+    private final double evaluationPeriod;
+    private final double R0min;
+    private final double R0max;
+    private final double cooldownSec;
+    private int scaleActions = 0;
+
+    private double lastActionAt = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param windowSec        ampiezza della finestra in secondi (>0)
+     * @param buckets          numero di bucket della finestra (>=1)
+     * @param evaluationPeriod secondi tra due valutazioni (>0)
+     * @param R0min            soglia inferiore per scale-in (>=0)
+     * @param R0max            soglia superiore per scale-out (> R0min)
+     * @param cooldownSec      secondi minimi tra due azioni di scaling (>=0)
+     */
+    public TimeWindowHorizontalScaler(double windowSec, int buckets, double evaluationPeriod, double R0min, double R0max, double cooldownSec) {
+        if (evaluationPeriod <= 0) throw new IllegalArgumentException("evaluationPeriod must be > 0");
+        if (R0min < 0 || R0max <= R0min) throw new IllegalArgumentException("Require 0 <= R0min < R0max");
+        if (cooldownSec < 0) throw new IllegalArgumentException("cooldownSec must be >= 0");
+
+        this.window = new TimeBucketWindow(windowSec, buckets);
+        this.evaluationPeriod = evaluationPeriod;
+        this.R0min = R0min;
+        this.R0max = R0max;
+        this.cooldownSec = cooldownSec;
+    }
+
+    @Override
+    public Action notifyJobDeparture(double rt, double now) {
+        if (rt < 0) throw new IllegalArgumentException("response time must be >= 0");
+        window.add(rt, now);
+        return Action.NONE;
+    }
+
+    @Override
+    public double getEvaluationPeriod() {
+        return evaluationPeriod;
+    }
+
+    @Override
+    public Action evaluate(double now) {
+        if ((now - lastActionAt) < cooldownSec) {
+            return Action.NONE;
+        }
+        double mean = window.mean(now);
+        if (Double.isNaN(mean)) {
+            return Action.NONE;
+        }
+        if (mean > R0max) {
+            return Action.SCALE_OUT;
+        }
+        if (mean < R0min) {
+            return Action.SCALE_IN;
+        }
+        return Action.NONE;
+    }
+
+    @Override
+    public void setLastActionAt(double time) {
+        this.lastActionAt = time;
+        this.scaleActions++;
+    }
+
+    @Override
+    public int getScaleActions() {
+        return scaleActions;
+    }
+}
@@ -0,0 +1,195 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import java.util.Arrays;
+
+/**
+ * Percentile (nearest rank) degli ultimi N campioni, aggiornato in O(log N) per campione e letto in O(1).
+ *
+ * I campioni sono in un ring buffer di double; due heap li dividono attorno al percentile: "lower" (max-heap) contiene
+ * i k = ceil(q·n) più piccoli, "upper" (min-heap) gli altri, quindi il percentile è la cima di lower.
+ * Il campione che esce dalla finestra non viene cercato negli heap: diventa morto (numero di sequenza fuori finestra)
+ * e viene scartato quando arriva in cima (lazy deletion). Gli heap sono ricostruiti se i morti superano i vivi.
+ * I campioni sono ordinati per (valore, sequenza), così anche i valori ripetuti hanno una posizione univoca.
+ */
+public class WindowedPercentile {
+    private final double quantile;
+    private final int windowSize;
+    private final double[] window;          // ring buffer, il campione con sequenza s è in window[s % windowSize]
+    private long added = 0;                 // campioni aggiunti, la finestra contiene le sequenze [added - size, added)
+    private final Heap lower = new Heap(true);
+    private final Heap upper = new Heap(false);
+    private int lowerLive = 0;
+    private int upperLive = 0;
+
+    public WindowedPercentile(int windowSize, double quantile) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be greater than 0");
+        }
+        if (quantile <= 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("Quantile must be in (0, 1]");
+        }
+        this.windowSize = windowSize;
+        this.quantile = quantile;
+        this.window = new double[windowSize];
+    }
+
+    public void add(double value) {
+        long sequence = added;
+        int slot = (int) (sequence % windowSize);
+        if (sequence >= windowSize) {
+            evict(window[slot], sequence - windowSize);
+        }
+        window[slot] = value;
+        added++;
+        // con lower vuoto il campione va in upper, il ribilanciamento sposta in lower il minimo
+        if (lowerLive > 0 && !after(value, sequence, lower.topValue(), lower.topSequence())) {
+            lower.push(value, sequence);
+            lowerLive++;
+        } else {
+            upper.push(value, sequence);
+            upperLive++;
+        }
+        rebalance();
+    }
+
+    private void evict(double value, long sequence) {
+        // lower e upper hanno la cima viva: il confronto con la cima di lower dice in quale heap si trova
+        if (lowerLive > 0 && !after(value, sequence, lower.topValue(), lower.topSequence())) {
+            lowerLive--;
+        } else {
+            upperLive--;
+        }
+        long firstLive = sequence + 1;
+        purge(lower, firstLive, lowerLive);
+        purge(upper, firstLive, upperLive);
+    }
+
+    private void rebalance() {
+        long firstLive = firstLive();
+        int target = (int) Math.ceil(quantile * size());
+        while (lowerLive > target) {
+            upper.push(lower.topValue(), lower.topSequence());
+            lower.pop();
+            lowerLive--;
+            upperLive++;
+            purge(lower, firstLive, lowerLive);
+        }
+        while (lowerLive < target) {
+            lower.push(upper.topValue(), upper.topSequence());
+            upper.pop();
+            upperLive--;
+            lowerLive++;
+            purge(upper, firstLive, upperLive);
+        }
+    }
+
+    // scarta i morti in cima e ricostruisce lo heap quando i morti sono più dei vivi
+    private static void purge(Heap heap, long firstLive, int live) {
+        while (heap.size > 0 && heap.topSequence() < firstLive) {
+            heap.pop();
+        }
+        if (heap.size > 2 * live + 32) {
+            heap.compact(firstLive);
+        }
+    }
+
+    private long firstLive() {
+        return Math.max(0, added - windowSize);
+    }
+
+    /** Percentile dei campioni nella finestra, NaN se vuota. */
+    public double getPercentile() {
+        return lowerLive == 0 ? Double.NaN : lower.topValue();
+    }
+
+    public int size() {
+        return lowerLive + upperLive;
+    }
+
+    public boolean isFull() {
+        return size() == windowSize;
+    }
+
+    // true se (v1, s1) viene strettamente dopo (v2, s2)
+    private static boolean after(double v1, long s1, double v2, long s2) {
+        int byValue = Double.compare(v1, v2);
+        return byValue != 0 ? byValue > 0 : s1 > s2;
+    }
+
+    // heap binario su array primitivi di (valore, sequenza)
+    private static final class Heap {
+        private final boolean max;
+        private double[] values = new double[64];
+        private long[] sequences = new long[64];
+        private int size = 0;
+
+        Heap(boolean max) {
+            this.max = max;
+        }
+
+        double topValue() { return values[0]; }
+        long topSequence() { return sequences[0]; }
+
+        void push(double value, long sequence) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(value, sequence, values[parent], sequences[parent])) break;
+                values[i] = values[parent];
+                sequences[i] = sequences[parent];
+                i = parent;
+            }
+            values[i] = value;
+            sequences[i] = sequence;
+        }
+
+        void pop() {
+            size--;
+            if (size > 0) {
+                siftDown(0, values[size], sequences[size]);
+            }
+        }
+
+        // tiene solo i campioni con sequenza >= firstLive e ricostruisce lo heap in O(n)
+        void compact(long firstLive) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (sequences[i] >= firstLive) {
+                    values[kept] = values[i];
+                    sequences[kept] = sequences[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, values[i], sequences[i]);
+            }
+        }
+
+        private void siftDown(int i, double value, long sequence) {
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && above(values[right], sequences[right], values[child], sequences[child])) {
+                    child = right;
+                }
+                if (!above(values[child], sequences[child], value, sequence)) break;
+                values[i] = values[child];
+                sequences[i] = sequences[child];
+                i = child;
+            }
+            values[i] = value;
+            sequences[i] = sequence;
+        }
+
+        // priorità: il maggiore in un max-heap, il minore in un min-heap
+        private boolean above(double v1, long s1, double v2, long s2) {
+            return max ? after(v1, s1, v2, s2) : after(v2, s2, v1, s1);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package it.pmcsn.lbsim.models.domain.scaling.spikerouter;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.NoneHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.LeastLoadPolicy;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingPolicy;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tier degli spike server: un ServerPool con la propria scheduling policy e il proprio scaler,
+ * tra minServers e maxServers server. Lo SpikeRouter decide se un job va al tier, la policy sceglie il server.
+ * I server spike hanno id negativi (-1, -2, ...); il singolo spike server è il tier 1..1 senza scaler.
+ */
+public class SpikeTier {
+    private static final Logger logger = Logger.getLogger(SpikeTier.class.getName());
+
+    private final ServerPool servers;
+    private final SchedulingPolicy policy;
+    private final HorizontalScaler scaler;
+    private final int minServers;
+    private final int maxServers;
+    // azioni e server lanciati/rilasciati dall'inizio della simulazione
+    private int scaleOutActions = 0;
+    private int scaleInActions = 0;
+    private int serversLaunched = 0;
+    private int serversReleased = 0;
+
+    public SpikeTier(ServerPool servers) {
+        this(servers, new LeastLoadPolicy(), new NoneHorizontalScaler(), servers.getWebServerCount(), servers.getWebServerCount());
+    }
+
+    /**
+     * @param servers    pool degli spike server, con minServers server iniziali
+     * @param policy     scheduling policy all'interno del tier
+     * @param scaler     scaler del tier, valutato alle departure dei job spike e, se periodico, sul suo timer
+     * @param minServers server minimi del tier (>= 1)
+     * @param maxServers server massimi del tier (>= minServers)
+     */
+    public SpikeTier(ServerPool servers, SchedulingPolicy policy, HorizontalScaler scaler, int minServers, int maxServers) {
+        if (minServers < 1 || maxServers < minServers) throw new IllegalArgumentException("Require 1 <= minServers <= maxServers");
+        this.servers = servers;
+        this.policy = policy;
+        this.scaler = scaler;
+        this.minServers = minServers;
+        this.maxServers = maxServers;
+    }
+
+    public void start(EventScheduler scheduler) {
+        servers.start(scheduler);
+        policy.attach(servers, null, scheduler);
+        double period = scaler.getEvaluationPeriod();
+        if (period > 0.0 && maxServers > minServers) {
+            scheduler.schedulePeriodic(scheduler.getCurrentTime() + period, period, now -> applyScalingAction(scaler.evaluate(now), now));
+        }
+    }
+
+    public static boolean isSpikeServer(Server server) {
+        return server.getId() < 0;
+    }
+
+    public Server selectServer(Job job) {
+        Server selected = policy.selectServer(servers, job);
+        if (selected == null) {
+            logger.log(Level.SEVERE, "No available spike servers to assign the job");
+            throw new IllegalStateException("No available spike servers to assign the job");
+        }
+        return selected;
+    }
+
+    public void notifyJobArrival(double size, double now) {
+        scaler.notifyJobArrival(size, now);
+    }
+
+    public void completeJob(Job job, double now, double responseTime) {
+        servers.completeJob(job);
+        applyScalingAction(scaler.notifyJobDeparture(responseTime, now), now);
+    }
+
+    public double cancelJob(Job job) {
+        return servers.cancelJob(job);
+    }
+
+    public void processJobs(double timeInterval) {
+        servers.processJobs(timeInterval);
+    }
+
+    // the action is clamped to [minServers, maxServers]
+    private void applyScalingAction(HorizontalScaler.Action action, double now) {
+        int target = servers.getTargetServerCount();
+        int changed = 0;
+        switch (action) {
+            case SCALE_OUT -> {
+                int size = Math.min(scaler.getActionSize(), maxServers - target);
+                if (size > 0) {
+                    changed = servers.scaleOut(size);
+                    serversLaunched += changed;
+                }
+            }
+            case SCALE_IN -> {
+                int size = Math.min(scaler.getActionSize(), target - minServers);
+                if (size > 0) {
+                    changed = servers.scaleIn(size);
+                    serversReleased += changed;
+                }
+            }
+            case NONE -> {
+                // No action needed
+            }
+        }
+        if (changed > 0) {
+            if (action == HorizontalScaler.Action.SCALE_OUT) scaleOutActions++;
+            else scaleInActions++;
+            scaler.setLastActionAt(now);
+            logger.log(Level.FINE, "Spike tier {0} at {1}: {2} servers", new Object[]{action, now, servers.getTargetServerCount()});
+        }
+    }
+
+    public ServerPool getServers() { return servers; }
+    public HorizontalScaler getScaler() { return scaler; }
+    public int getMinServers() { return minServers; }
+    public int getMaxServers() { return maxServers; }
+    public int getScaleOutActions() { return scaleOutActions; }
+    public int getScaleInActions() { return scaleInActions; }
+    public int getServersLaunched() { return serversLaunched; }
+    public int getServersReleased() { return serversReleased; }
+
+    public int getCurrentJobCount() {
+        return servers.getCurrentJobCount();
+    }
+}
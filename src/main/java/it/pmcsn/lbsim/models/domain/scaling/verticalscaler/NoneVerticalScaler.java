@@ -0,0 +1,21 @@
+package it.pmcsn.lbsim.models.domain.scaling.verticalscaler;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+
+public class NoneVerticalScaler implements VerticalScaler {
+
+    @Override
+    public double getEvaluationPeriod() {
+        return 0.0;
+    }
+
+    @Override
+    public double getResizeDelay() {
+        return 0.0;
+    }
+
+    @Override
+    public double evaluate(Server server, double nowSeconds) {
+        return server.getCpuPercentage();
+    }
+}
@@ -0,0 +1,83 @@
+package it.pmcsn.lbsim.models.domain.scaling.verticalscaler;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Policy a soglia sull'utilizzo di ogni server (frazione di tempo con almeno un job) dall'ultima valutazione.
+ * - Se utilizzo > scaleUpAbove  ⇒ cpuPercentage · factor, al più maxCpu.
+ * - Se utilizzo < scaleDownBelow ⇒ cpuPercentage / factor, almeno minCpu.
+ * - Altrimenti nessun cambiamento.
+ *
+ * Note:
+ * - Il tempo di busy è accumulato dal server stesso, quindi una valutazione costa O(1) per server.
+ * - Alla prima valutazione di un server (appena entrato nel pool) si registra solo il campione.
+ * - I campioni sono in una WeakHashMap: i server rilasciati escono da soli.
+ */
+public class UtilizationVerticalScaler implements VerticalScaler {
+
+    private final double evaluationPeriod;
+    private final double resizeDelay;
+    private final double scaleUpAbove;
+    private final double scaleDownBelow;
+    private final double factor;
+    private final double minCpu;
+    private final double maxCpu;
+    private final Map<Server, double[]> lastSample = new WeakHashMap<>();   // server -> {tempo, busy time}
+
+    /**
+     * @param evaluationPeriod secondi tra due valutazioni (>0)
+     * @param resizeDelay      secondi prima che il ridimensionamento sia effettivo (>=0)
+     * @param scaleUpAbove     utilizzo oltre il quale si aumenta la CPU, in (0, 1]
+     * @param scaleDownBelow   utilizzo sotto il quale si riduce la CPU (< scaleUpAbove)
+     * @param factor           moltiplicatore di un passo di ridimensionamento (>1)
+     * @param minCpu           cpuPercentage minima (>0)
+     * @param maxCpu           cpuPercentage massima (>= minCpu)
+     */
+    public UtilizationVerticalScaler(double evaluationPeriod, double resizeDelay, double scaleUpAbove, double scaleDownBelow,
+                                     double factor, double minCpu, double maxCpu) {
+        if (evaluationPeriod <= 0) throw new IllegalArgumentException("evaluationPeriod must be > 0");
+        if (resizeDelay < 0) throw new IllegalArgumentException("resizeDelay must be >= 0");
+        if (scaleUpAbove <= 0 || scaleUpAbove > 1) throw new IllegalArgumentException("scaleUpAbove must be in (0, 1]");
+        if (scaleDownBelow < 0 || scaleDownBelow >= scaleUpAbove) throw new IllegalArgumentException("Require 0 <= scaleDownBelow < scaleUpAbove");
+        if (factor <= 1) throw new IllegalArgumentException("factor must be > 1");
+        if (minCpu <= 0 || maxCpu < minCpu) throw new IllegalArgumentException("Require 0 < minCpu <= maxCpu");
+        this.evaluationPeriod = evaluationPeriod;
+        this.resizeDelay = resizeDelay;
+        this.scaleUpAbove = scaleUpAbove;
+        this.scaleDownBelow = scaleDownBelow;
+        this.factor = factor;
+        this.minCpu = minCpu;
+        this.maxCpu = maxCpu;
+    }
+
+    @Override
+    public double getEvaluationPeriod() {
+        return evaluationPeriod;
+    }
+
+    @Override
+    public double getResizeDelay() {
+        return resizeDelay;
+    }
+
+    @Override
+    public double evaluate(Server server, double now) {
+        double cpu = server.getCpuPercentage();
+        double busy = server.getBusyTime();
+        double[] last = lastSample.put(server, new double[]{now, busy});
+        if (last == null || now <= last[0]) {
+            return cpu;
+        }
+        double utilization = (busy - last[1]) / (now - last[0]);
+        if (utilization > scaleUpAbove) {
+            return Math.min(maxCpu, cpu * factor);
+        }
+        if (utilization < scaleDownBelow) {
+            return Math.max(minCpu, cpu / factor);
+        }
+        return cpu;
+    }
+}
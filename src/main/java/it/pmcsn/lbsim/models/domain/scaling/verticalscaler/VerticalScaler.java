@@ -0,0 +1,26 @@
+package it.pmcsn.lbsim.models.domain.scaling.verticalscaler;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+
+/**
+ * Decide il ridimensionamento della CPU dei singoli web server.
+ * Il load balancer lo valuta su un timer periodico per ogni server attivo; la nuova allocazione
+ * diventa effettiva dopo il resize delay. Può affiancare uno HorizontalScaler o sostituirlo.
+ */
+public interface VerticalScaler {
+
+    /**
+     * Periodo in secondi tra due valutazioni; 0 se lo scaler è disabilitato.
+     */
+    double getEvaluationPeriod();
+
+    /**
+     * Secondi tra la decisione e il momento in cui la nuova allocazione è effettiva.
+     */
+    double getResizeDelay();
+
+    /**
+     * Nuova cpuPercentage del server al tempo 'now', oppure quella attuale se non serve cambiarla.
+     */
+    double evaluate(Server server, double nowSeconds);
+}
@@ -0,0 +1,75 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.server.ServerPoolListener;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Every server reports each change of its load, the report reaches the dispatcher after `delay` seconds:
+// the dispatcher sees the load each server had `delay` seconds ago. Reports of the same server arrive in order.
+public class DelayedLoadView implements LoadView, ServerPoolListener {
+    private final double delay;
+    private final Map<Server, Integer> loads = new HashMap<>();
+    private final Map<Server, Double> works = new HashMap<>();
+    private EventScheduler scheduler;
+
+    public DelayedLoadView(double delay) {
+        if (delay <= 0.0) {
+            throw new IllegalArgumentException("Reporting delay must be > 0");
+        }
+        this.delay = delay;
+    }
+
+    @Override
+    public void attach(ServerPool pool, EventScheduler scheduler) {
+        this.scheduler = scheduler;
+        pool.addListener(this);
+        for (Server server : pool.getWebServers()) {
+            loads.put(server, server.getCurrentSI());
+            works.put(server, server.getRemainingWork());
+        }
+    }
+
+    @Override
+    public void serverLoadChanged(Server server) {
+        int load = server.getCurrentSI();
+        double work = server.getRemainingWork();
+        scheduler.schedule(scheduler.getCurrentTime() + delay, now -> {
+            // the server may have left the pool while the report was travelling
+            if (loads.containsKey(server)) {
+                loads.put(server, load);
+                works.put(server, work);
+            }
+        });
+    }
+
+    @Override
+    public int getLoad(Server server) {
+        return loads.getOrDefault(server, 0);
+    }
+
+    @Override
+    public double getRemainingWork(Server server) {
+        return works.getOrDefault(server, 0.0);
+    }
+
+    @Override
+    public Server leastLoaded(ServerPool pool) {
+        return LoadView.leastLoadedByScan(this, pool);
+    }
+
+    @Override
+    public void serverAdded(Server server) {
+        loads.put(server, 0);
+        works.put(server, 0.0);
+    }
+
+    @Override
+    public void serverRemoved(Server server) {
+        loads.remove(server);
+        works.remove(server);
+    }
+}
@@ -0,0 +1,94 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Sizes observed in a trace, streamed once into a histogram with logarithmic bins: memory grows with the range
+// of the sizes, not with their number. Inside a bin the work is spread uniformly, so the partial expectation is
+// exact at the bin edges and off by less than the width of a bin (about 1%) in between.
+public class EmpiricalSizeDistribution implements SizeDistribution {
+    private static final int BINS_PER_DECADE = 256;
+    private static final double LOG_BASE = Math.log(10.0) / BINS_PER_DECADE;
+
+    private final TreeMap<Integer, Double> workByBin = new TreeMap<>();
+    private long count = 0;
+    private double totalWork = 0.0;
+
+    // cumulative work below each bin, rebuilt after new sizes
+    private int[] bins;
+    private double[] workBelow;
+
+    public void add(double size) {
+        if (size < 0.0 || Double.isNaN(size)) {
+            throw new IllegalArgumentException("Job size must be >= 0");
+        }
+        count++;
+        if (size == 0.0) {
+            return; // no work: it only counts for the mean
+        }
+        totalWork += size;
+        workByBin.merge(bin(size), size, Double::sum);
+        bins = null;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public double mean() {
+        return count == 0 ? 0.0 : totalWork / count;
+    }
+
+    @Override
+    public double partialExpectation(double c) {
+        if (count == 0 || c <= 0.0) {
+            return 0.0;
+        }
+        if (bins == null) {
+            cumulate();
+        }
+        int bin = bin(c);
+        int index = lowerBound(bin);
+        double work = workBelow[index];
+        if (index < bins.length && bins[index] == bin) {
+            double low = edge(bin);
+            work += (workBelow[index + 1] - workBelow[index]) * (c - low) / (edge(bin + 1) - low);
+        }
+        return work / count;
+    }
+
+    private void cumulate() {
+        bins = new int[workByBin.size()];
+        workBelow = new double[workByBin.size() + 1];
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : workByBin.entrySet()) {
+            bins[i] = entry.getKey();
+            workBelow[i + 1] = workBelow[i] + entry.getValue();
+            i++;
+        }
+    }
+
+    // first position whose bin is >= the given one
+    private int lowerBound(int bin) {
+        int lo = 0;
+        int hi = bins.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bins[mid] < bin) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int bin(double size) {
+        return (int) Math.floor(Math.log(size) / LOG_BASE);
+    }
+
+    private static double edge(int bin) {
+        return Math.exp(bin * LOG_BASE);
+    }
+}
@@ -0,0 +1,156 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+import it.pmcsn.lbsim.models.domain.server.ServerPoolListener;
+import it.pmcsn.lbsim.utils.random.Rngs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Join Idle Queue: every dispatcher owns an idle queue, a server that becomes idle reports to one of them chosen
+// at random. An arrival reaches a random dispatcher, which takes an idle server from its own queue in O(1)
+// or, if the queue is empty, falls back to a random or round robin server.
+// Entries are checked lazily: a server that got busy through another dispatcher or left the pool is dropped when popped.
+// Behind a dispatcher front end each dispatcher uses forDispatcher(i) and the front end decides the queue instead.
+public class JoinIdleQueuePolicy implements SchedulingPolicy, ServerPoolListener {
+
+    public enum Fallback {
+        RANDOM,
+        ROUND_ROBIN;
+
+        public static Fallback fromString(String value) {
+            if (value == null) {
+                return RANDOM;
+            }
+            return switch (value.toLowerCase()) {
+                case "random" -> RANDOM;
+                case "round_robin" -> ROUND_ROBIN;
+                default -> throw new IllegalArgumentException("Unknown JIQ fallback: " + value);
+            };
+        }
+    }
+
+    private final Rngs rngs;
+    private final int stream;
+    private final Fallback fallback;
+    private final List<ArrayDeque<Server>> idleQueues;
+    private final Map<Server, Integer> registeredQueue = new HashMap<>();   // idle queue of each reported server
+    private int roundRobinIndex = 0;
+    private ServerPool attachedPool;
+
+    public JoinIdleQueuePolicy(Rngs rngs, int dispatchers, Fallback fallback, int stream) {
+        if (dispatchers < 1) {
+            throw new IllegalArgumentException("Number of dispatchers must be >= 1");
+        }
+        this.rngs = rngs;
+        this.stream = stream;
+        this.fallback = fallback;
+        this.idleQueues = new ArrayList<>(dispatchers);
+        for (int i = 0; i < dispatchers; i++) {
+            idleQueues.add(new ArrayDeque<>());
+        }
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        // the dispatchers sharing this policy attach it once each
+        if (attachedPool == pool) {
+            return;
+        }
+        attachedPool = pool;
+        pool.addListener(this);
+        for (Server server : pool.getWebServers()) {
+            if (server.getCurrentSI() == 0) {
+                serverIdle(server);
+            }
+        }
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        if (pool.getWebServers().isEmpty()) {
+            throw new IllegalStateException("No available web servers");
+        }
+        return select(pool, randomIndex(idleQueues.size()));
+    }
+
+    // the policy of one dispatcher: it always takes from its own idle queue
+    public SchedulingPolicy forDispatcher(int dispatcher) {
+        if (dispatcher < 0 || dispatcher >= idleQueues.size()) {
+            throw new IllegalArgumentException("Dispatcher index out of range: " + dispatcher);
+        }
+        return new SchedulingPolicy() {
+            @Override
+            public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+                JoinIdleQueuePolicy.this.attach(pool, spikeServers, scheduler);
+            }
+
+            @Override
+            public Server selectServer(ServerPool pool, Job job) {
+                if (pool.getWebServers().isEmpty()) {
+                    throw new IllegalStateException("No available web servers");
+                }
+                return select(pool, dispatcher);
+            }
+        };
+    }
+
+    private Server select(ServerPool pool, int dispatcher) {
+        List<Server> servers = pool.getWebServers();
+        ArrayDeque<Server> queue = idleQueues.get(dispatcher);
+        while (!queue.isEmpty()) {
+            Server server = queue.poll();
+            Integer registered = registeredQueue.get(server);
+            if (registered == null || registered != dispatcher) {
+                continue; // removed from the pool while waiting in the queue
+            }
+            registeredQueue.remove(server);
+            if (pool.isActive(server) && server.getCurrentSI() == 0) {
+                return server;
+            }
+        }
+        if (fallback == Fallback.ROUND_ROBIN) {
+            if (roundRobinIndex >= servers.size()) {
+                roundRobinIndex = 0;
+            }
+            return servers.get(roundRobinIndex++);
+        }
+        return servers.get(randomIndex(servers.size()));
+    }
+
+    @Override
+    public void serverIdle(Server server) {
+        // a server already waiting in an idle queue is not reported twice
+        if (registeredQueue.containsKey(server)) {
+            return;
+        }
+        int queue = randomIndex(idleQueues.size());
+        idleQueues.get(queue).add(server);
+        registeredQueue.put(server, queue);
+    }
+
+    @Override
+    public void serverAdded(Server server) {
+        serverIdle(server);
+    }
+
+    @Override
+    public void serverRemoved(Server server) {
+        // the stale entry stays in its deque and is skipped when popped
+        registeredQueue.remove(server);
+    }
+
+    private int randomIndex(int bound) {
+        if (bound == 1) {
+            return 0;
+        }
+        rngs.selectStream(stream);
+        return (int) (rngs.random() * bound);
+    }
+}
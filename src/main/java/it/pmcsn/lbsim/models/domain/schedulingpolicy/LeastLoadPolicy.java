@@ -1,20 +1,33 @@
 package it.pmcsn.lbsim.models.domain.schedulingpolicy;
 
+import it.pmcsn.lbsim.models.domain.Job;
 import it.pmcsn.lbsim.models.domain.server.Server;
-
-import java.util.Comparator;
-import java.util.List;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
 
 // Least Load Scheduling
 public class LeastLoadPolicy implements SchedulingPolicy {
+    private final LoadView loadView;
+
+    public LeastLoadPolicy() {
+        this(new LiveLoadView());
+    }
+
+    public LeastLoadPolicy(LoadView loadView) {
+        this.loadView = loadView;
+    }
+
     @Override
-    public Server selectServer(List<Server> servers) {
-        if (servers.isEmpty()) {
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        loadView.attach(pool, scheduler);
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        if (pool.getWebServerCount() == 0) {
             throw new IllegalStateException("No available web servers");
         }
-
-        return servers.stream()
-                .min(Comparator.comparingInt(Server::getCurrentSI))
-                .orElseThrow(() -> new IllegalStateException("No available web servers"));
+        // live view: O(1) lookup in the pool load index, ties broken by the lowest server id
+        return loadView.leastLoaded(pool);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.List;
+
+// Least Work Left: joins the server with the least remaining work (sum of the remaining sizes of its jobs).
+// Each server keeps its remaining work incrementally, so a decision only reads one value per server.
+public class LeastWorkLeftPolicy implements SchedulingPolicy {
+    private final LoadView loadView;
+
+    public LeastWorkLeftPolicy() {
+        this(new LiveLoadView());
+    }
+
+    public LeastWorkLeftPolicy(LoadView loadView) {
+        this.loadView = loadView;
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        loadView.attach(pool, scheduler);
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        List<Server> servers = pool.getWebServers();
+        if (servers.isEmpty()) {
+            throw new IllegalStateException("No available web servers");
+        }
+        Server best = null;
+        double bestWork = Double.POSITIVE_INFINITY;
+        for (Server server : servers) {
+            // the time to drain the server accounts for its capacity
+            double work = loadView.getRemainingWork(server) / (server.getCpuPercentage() * server.getCpuMultiplier());
+            if (work < bestWork || (work == bestWork && server.getId() < best.getId())) {
+                best = server;
+                bestWork = work;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,22 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+
+// Up to date information: the dispatcher reads the servers directly
+public class LiveLoadView implements LoadView {
+    @Override
+    public int getLoad(Server server) {
+        return server.getCurrentSI();
+    }
+
+    @Override
+    public double getRemainingWork(Server server) {
+        return server.getRemainingWork();
+    }
+
+    @Override
+    public Server leastLoaded(ServerPool pool) {
+        return pool.getLeastLoadedServer();
+    }
+}
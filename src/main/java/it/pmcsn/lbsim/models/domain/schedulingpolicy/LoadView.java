@@ -0,0 +1,38 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+/**
+ * Load information as seen by the dispatcher. Load-aware policies decide on this view instead of reading
+ * the servers, so the view decides how fresh the information is: live, periodic snapshots or delayed reports.
+ */
+public interface LoadView {
+
+    /** Number of jobs of the server according to the dispatcher. */
+    int getLoad(Server server);
+
+    /** Remaining work of the server according to the dispatcher. */
+    double getRemainingWork(Server server);
+
+    /** Active server with the least known load, ties broken by the lowest id. */
+    Server leastLoaded(ServerPool pool);
+
+    // called once when the simulation starts, views that need updates register here
+    default void attach(ServerPool pool, EventScheduler scheduler) {}
+
+    // scan of the active servers on the known load, used by the stale views
+    static Server leastLoadedByScan(LoadView view, ServerPool pool) {
+        Server best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (Server server : pool.getWebServers()) {
+            int load = view.getLoad(server);
+            if (load < bestLoad || (load == bestLoad && server.getId() < best.getId())) {
+                best = server;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,19 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+public enum LoadViewType {
+    LIVE,
+    PERIODIC,
+    DELAYED;
+
+    public static LoadViewType fromString(String value) {
+        if (value == null) {
+            return LIVE;
+        }
+        return switch (value.toLowerCase()) {
+            case "live" -> LIVE;
+            case "periodic" -> PERIODIC;
+            case "delayed" -> DELAYED;
+            default -> throw new IllegalArgumentException("Unknown load information mode: " + value);
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.server.ServerPoolListener;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The dispatcher polls all the servers every `period` seconds and decides on the last snapshot.
+// Between two polls the least loaded server does not change: this is where herding comes from.
+// A server added after the last poll is known as empty.
+// With several dispatchers the polls are staggered by `phase`, the delay of the first poll after the initial snapshot.
+public class PeriodicLoadView implements LoadView, ServerPoolListener {
+    private final double period;
+    private final double phase;
+    private final Map<Server, Integer> loads = new HashMap<>();
+    private final Map<Server, Double> works = new HashMap<>();
+    private ServerPool pool;
+    private Server leastLoaded;             // argmin of the snapshot, null if it must be recomputed
+
+    public PeriodicLoadView(double period) {
+        this(period, period);
+    }
+
+    public PeriodicLoadView(double period, double phase) {
+        if (period <= 0.0) {
+            throw new IllegalArgumentException("Polling period must be > 0");
+        }
+        if (phase <= 0.0 || phase > period) {
+            throw new IllegalArgumentException("Polling phase must be in (0, period]");
+        }
+        this.period = period;
+        this.phase = phase;
+    }
+
+    @Override
+    public void attach(ServerPool pool, EventScheduler scheduler) {
+        this.pool = pool;
+        pool.addListener(this);
+        double now = scheduler.getCurrentTime();
+        snapshot();
+        scheduler.schedulePeriodic(now + phase, period, t -> snapshot());
+    }
+
+    private void snapshot() {
+        loads.clear();
+        works.clear();
+        for (Server server : pool.getWebServers()) {
+            loads.put(server, server.getCurrentSI());
+            works.put(server, server.getRemainingWork());
+        }
+        leastLoaded = null;
+    }
+
+    @Override
+    public int getLoad(Server server) {
+        return loads.getOrDefault(server, 0);
+    }
+
+    @Override
+    public double getRemainingWork(Server server) {
+        return works.getOrDefault(server, 0.0);
+    }
+
+    @Override
+    public Server leastLoaded(ServerPool pool) {
+        if (leastLoaded == null) {
+            leastLoaded = LoadView.leastLoadedByScan(this, pool);
+        }
+        return leastLoaded;
+    }
+
+    @Override
+    public void serverAdded(Server server) {
+        leastLoaded = null;
+    }
+
+    @Override
+    public void serverRemoved(Server server) {
+        loads.remove(server);
+        works.remove(server);
+        if (server == leastLoaded) {
+            leastLoaded = null;
+        }
+    }
+}
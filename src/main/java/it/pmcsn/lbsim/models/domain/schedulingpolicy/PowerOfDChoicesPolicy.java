@@ -0,0 +1,108 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+import it.pmcsn.lbsim.utils.random.Rngs;
+
+import java.util.List;
+
+// Power of d choices, JSQ(d,m): samples d distinct servers and joins the least loaded,
+// also considering the m best servers remembered from the previous decisions. O(d + m) per job.
+public class PowerOfDChoicesPolicy implements SchedulingPolicy {
+    private final Rngs rngs;
+    private final int d;
+    private final int stream;
+    private final Server[] memory;      // best servers seen at the last decision, least loaded first
+    private int remembered = 0;
+    private final int[] sampled;        // indexes sampled in the current decision
+    private final Server[] candidates;  // remembered + sampled servers of the current decision
+    private final LoadView loadView;
+
+    public PowerOfDChoicesPolicy(Rngs rngs, int d, int memory, int stream) {
+        this(rngs, d, memory, stream, new LiveLoadView());
+    }
+
+    public PowerOfDChoicesPolicy(Rngs rngs, int d, int memory, int stream, LoadView loadView) {
+        if (d < 1) {
+            throw new IllegalArgumentException("d must be >= 1");
+        }
+        if (memory < 0) {
+            throw new IllegalArgumentException("Memory must be >= 0");
+        }
+        this.rngs = rngs;
+        this.d = d;
+        this.stream = stream;
+        this.memory = new Server[memory];
+        this.sampled = new int[d];
+        this.candidates = new Server[memory + d];
+        this.loadView = loadView;
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        loadView.attach(pool, scheduler);
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        List<Server> servers = pool.getWebServers();
+        int n = servers.size();
+        if (n == 0) {
+            throw new IllegalStateException("No available web servers");
+        }
+        // candidates: the remembered servers still active, then d distinct servers sampled uniformly
+        int count = 0;
+        for (int i = 0; i < remembered; i++) {
+            if (pool.isActive(memory[i])) {
+                candidates[count++] = memory[i];
+            }
+        }
+        rngs.selectStream(stream);
+        int k = Math.min(d, n);
+        // Floyd's algorithm: k distinct indexes in [0, n) with exactly k draws
+        for (int j = n - k, s = 0; j < n; j++, s++) {
+            int t = (int) (rngs.random() * (j + 1));
+            for (int i = 0; i < s; i++) {
+                if (sampled[i] == t) {
+                    t = j;
+                    break;
+                }
+            }
+            sampled[s] = t;
+            Server server = servers.get(t);
+            if (!contains(candidates, count, server)) {
+                candidates[count++] = server;
+            }
+        }
+        sortByLoad(loadView, candidates, count);
+        remembered = Math.min(memory.length, count);
+        System.arraycopy(candidates, 0, memory, 0, remembered);
+        return candidates[0];
+    }
+
+    private static boolean contains(Server[] servers, int count, Server server) {
+        for (int i = 0; i < count; i++) {
+            if (servers[i] == server) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // insertion sort on (SI, id): at most d + m elements
+    private static void sortByLoad(LoadView loadView, Server[] servers, int count) {
+        for (int i = 1; i < count; i++) {
+            Server server = servers[i];
+            int load = loadView.getLoad(server);
+            int j = i - 1;
+            while (j >= 0 && (loadView.getLoad(servers[j]) > load
+                    || (loadView.getLoad(servers[j]) == load && servers[j].getId() > server.getId()))) {
+                servers[j + 1] = servers[j];
+                j--;
+            }
+            servers[j + 1] = server;
+        }
+    }
+}
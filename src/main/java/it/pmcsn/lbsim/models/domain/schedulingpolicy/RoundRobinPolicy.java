@@ -1,6 +1,8 @@
 package it.pmcsn.lbsim.models.domain.schedulingpolicy;
 
+import it.pmcsn.lbsim.models.domain.Job;
 import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
 
 import java.util.List;
 
@@ -9,7 +11,8 @@ public class RoundRobinPolicy implements SchedulingPolicy {
     private int index = 0;
 
     @Override
-    public Server selectServer(List<Server> servers) {
+    public Server selectServer(ServerPool pool, Job job) {
+        List<Server> servers = pool.getWebServers();
         if (servers.isEmpty()) {
             throw new IllegalStateException("No available web servers");
         }
@@ -1,9 +1,15 @@
 package it.pmcsn.lbsim.models.domain.schedulingpolicy;
 
+import it.pmcsn.lbsim.models.domain.Job;
 import it.pmcsn.lbsim.models.domain.server.Server;
-
-import java.util.List;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
 
 public interface SchedulingPolicy {
-    Server selectServer(List<Server> servers);
+    // the job is passed before assignment: its size is already known and size-aware policies may use it
+    Server selectServer(ServerPool pool, Job job);
+
+    // called once when the simulation starts, policies that track the pool state (or target the spike servers) register here.
+    // The policy of the spike tier gets no spike servers
+    default void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {}
 }
@@ -2,7 +2,13 @@ package it.pmcsn.lbsim.models.domain.schedulingpolicy;
 
 public enum SchedulingType {
     LEAST_LOAD,
-    ROUND_ROBIN;
+    ROUND_ROBIN,
+    POWER_OF_D,
+    JOIN_IDLE_QUEUE,
+    SITA,
+    LEAST_WORK_LEFT,
+    WEIGHTED_ROUND_ROBIN,
+    WEIGHTED_LEAST_LOAD;
 
     public static SchedulingType fromString(String value) {
         if (value == null) {
@@ -13,6 +19,18 @@ public enum SchedulingType {
                 return LEAST_LOAD;
             case "round_robin":
                 return ROUND_ROBIN;
+            case "power_of_d":
+                return POWER_OF_D;
+            case "jiq":
+                return JOIN_IDLE_QUEUE;
+            case "sita":
+                return SITA;
+            case "least_work_left":
+                return LEAST_WORK_LEFT;
+            case "weighted_round_robin":
+                return WEIGHTED_ROUND_ROBIN;
+            case "weighted_least_load":
+                return WEIGHTED_LEAST_LOAD;
             default:
                 throw new IllegalArgumentException("Unknown scheduling policy: " + value);
         }
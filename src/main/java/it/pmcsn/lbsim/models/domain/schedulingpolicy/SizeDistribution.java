@@ -0,0 +1,38 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+// Distribution of the job sizes a size-aware policy balances: its mean and the partial expectation E[X; X < c],
+// non decreasing in c and tending to the mean.
+public interface SizeDistribution {
+
+    double mean();
+
+    double partialExpectation(double c);
+
+    // with probability p mean m1, otherwise mean m2
+    static SizeDistribution hyperExponential(double p, double m1, double m2) {
+        if (p < 0.0 || p > 1.0 || m1 <= 0.0 || m2 <= 0.0) {
+            throw new IllegalArgumentException("Invalid hyperexponential size distribution");
+        }
+        return new SizeDistribution() {
+            @Override
+            public double mean() {
+                return p * m1 + (1 - p) * m2;
+            }
+
+            @Override
+            public double partialExpectation(double c) {
+                return p * exponentialPartialExpectation(c, m1) + (1 - p) * exponentialPartialExpectation(c, m2);
+            }
+        };
+    }
+
+    static SizeDistribution exponential(double mean) {
+        return hyperExponential(1.0, mean, mean);
+    }
+
+    // ∫_0^c x e^(-x/m)/m dx = m (1 - e^(-c/m) (1 + c/m))
+    private static double exponentialPartialExpectation(double c, double m) {
+        double x = c / m;
+        return m * (1.0 - Math.exp(-x) * (1.0 + x));
+    }
+}
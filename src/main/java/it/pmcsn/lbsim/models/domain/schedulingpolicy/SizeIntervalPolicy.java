@@ -0,0 +1,106 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.server.ServerPoolListener;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Size Interval Task Assignment: the i-th server serves only the jobs with size in [cutoff(i-1), cutoff(i)).
+// Cutoffs equalise the load: every interval carries 1/N of E[X] of the size distribution of the workload.
+// They are computed once for every pool size met during the run, so scaling keeps them balanced.
+// The i-th server is the i-th of the policy's own list, not of the pool: a removed server leaves its place to the
+// following ones and a new server takes the largest sizes, so the others keep neighbouring intervals.
+public class SizeIntervalPolicy implements SchedulingPolicy, ServerPoolListener {
+    private static final double TOLERANCE = 1e-12;
+
+    private final SizeDistribution sizes;
+    private final Map<Integer, double[]> cutoffsBySize = new HashMap<>();
+    private final List<Server> classServers = new ArrayList<>();
+    private ServerPool attachedPool;
+
+    // H2 size distribution: with probability p mean m1, otherwise mean m2 (p = 1 for an exponential)
+    public SizeIntervalPolicy(double p, double m1, double m2) {
+        this(SizeDistribution.hyperExponential(p, m1, m2));
+    }
+
+    public SizeIntervalPolicy(SizeDistribution sizes) {
+        if (sizes == null || !(sizes.mean() > 0.0)) {
+            throw new IllegalArgumentException("SITA needs a size distribution with a positive mean");
+        }
+        this.sizes = sizes;
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        if (attachedPool == pool) {
+            return;
+        }
+        attachedPool = pool;
+        classServers.clear();
+        classServers.addAll(pool.getWebServers());
+        pool.addListener(this);
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        if (pool != attachedPool) {
+            attach(pool, null, null);
+        }
+        if (classServers.isEmpty()) {
+            throw new IllegalStateException("No available web servers");
+        }
+        double[] cutoffs = cutoffsBySize.computeIfAbsent(classServers.size(), this::computeCutoffs);
+        int position = Arrays.binarySearch(cutoffs, job.getRemainingSize());
+        // insertion point = number of cutoffs below the size = size class
+        int sizeClass = position >= 0 ? position + 1 : -position - 1;
+        return classServers.get(sizeClass);
+    }
+
+    @Override
+    public void serverAdded(Server server) {
+        classServers.add(server);
+    }
+
+    // scale events only: a linear scan over the servers is enough
+    @Override
+    public void serverRemoved(Server server) {
+        classServers.remove(server);
+    }
+
+    public double[] getCutoffs(int servers) {
+        return cutoffsBySize.computeIfAbsent(servers, this::computeCutoffs).clone();
+    }
+
+    // N-1 cutoffs c_i such that E[X; X < c_i] = i/N * E[X], by bisection on the partial expectation
+    private double[] computeCutoffs(int servers) {
+        double mean = sizes.mean();
+        double[] cutoffs = new double[servers - 1];
+        double low = 0.0;
+        for (int i = 1; i < servers; i++) {
+            double target = mean * i / servers;
+            double high = Math.max(low, mean);
+            while (sizes.partialExpectation(high) < target) {
+                high *= 2;
+            }
+            double lo = low;
+            while (high - lo > TOLERANCE * Math.max(1.0, high)) {
+                double mid = 0.5 * (lo + high);
+                if (sizes.partialExpectation(mid) < target) {
+                    lo = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            cutoffs[i - 1] = high;
+            low = high;
+        }
+        return cutoffs;
+    }
+}
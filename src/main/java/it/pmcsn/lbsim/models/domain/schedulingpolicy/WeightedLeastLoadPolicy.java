@@ -0,0 +1,56 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.List;
+
+// Least Load normalised by capacity: joins the server minimising (SI + 1) / (cpuMultiplier * cpuPercentage),
+// i.e. the one where the new job gets the largest processor sharing rate. On equal capacities it picks the
+// same server as LeastLoadPolicy; ties are broken by the lowest id.
+public class WeightedLeastLoadPolicy implements SchedulingPolicy {
+    private final boolean includeSpike;
+    private final LoadView loadView;
+    private ServerPool spikeServers;
+
+    public WeightedLeastLoadPolicy(boolean includeSpike) {
+        this(includeSpike, new LiveLoadView());
+    }
+
+    public WeightedLeastLoadPolicy(boolean includeSpike, LoadView loadView) {
+        this.includeSpike = includeSpike;
+        this.loadView = loadView;
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        this.spikeServers = spikeServers;
+        loadView.attach(pool, scheduler);
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        List<Server> servers = pool.getWebServers();
+        if (servers.isEmpty()) {
+            throw new IllegalStateException("No available web servers");
+        }
+        List<Server> spikes = includeSpike && spikeServers != null ? spikeServers.getWebServers() : List.of();
+        int candidates = servers.size() + spikes.size();
+        Server best = null;
+        double bestLoad = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < candidates; i++) {
+            boolean spike = i >= servers.size();
+            Server server = spike ? spikes.get(i - servers.size()) : servers.get(i);
+            // the spike servers are not reported by the pool: the dispatcher always sees their live load
+            int jobs = spike ? server.getCurrentSI() : loadView.getLoad(server);
+            double load = (jobs + 1) / (server.getCpuMultiplier() * server.getCpuPercentage());
+            if (load < bestLoad || (load == bestLoad && server.getId() < best.getId())) {
+                best = server;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
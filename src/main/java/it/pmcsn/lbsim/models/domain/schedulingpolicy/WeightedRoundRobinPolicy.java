@@ -0,0 +1,58 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Smooth Weighted Round Robin (nginx): the weight of a server is its capacity (cpuMultiplier * cpuPercentage).
+// At every pick each server gains its weight, the one with the highest current weight is chosen and loses
+// the total weight: picks are proportional to capacity and interleaved, not in bursts. O(S) per job.
+public class WeightedRoundRobinPolicy implements SchedulingPolicy {
+    private final boolean includeSpike;
+    private final Map<Server, Double> currentWeights = new HashMap<>();
+    private ServerPool spikeServers;
+
+    public WeightedRoundRobinPolicy(boolean includeSpike) {
+        this.includeSpike = includeSpike;
+    }
+
+    @Override
+    public void attach(ServerPool pool, ServerPool spikeServers, EventScheduler scheduler) {
+        this.spikeServers = spikeServers;
+    }
+
+    @Override
+    public Server selectServer(ServerPool pool, Job job) {
+        List<Server> servers = pool.getWebServers();
+        if (servers.isEmpty()) {
+            throw new IllegalStateException("No available web servers");
+        }
+        List<Server> spikes = includeSpike && spikeServers != null ? spikeServers.getWebServers() : List.of();
+        // forget the servers that left the pool or the spike tier
+        int candidates = servers.size() + spikes.size();
+        if (currentWeights.size() > candidates) {
+            currentWeights.keySet().removeIf(server -> !pool.isActive(server) && (spikeServers == null || !spikeServers.isActive(server)));
+        }
+        double total = 0.0;
+        Server best = null;
+        double bestWeight = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < candidates; i++) {
+            Server server = i < servers.size() ? servers.get(i) : spikes.get(i - servers.size());
+            double weight = server.getCpuMultiplier() * server.getCpuPercentage();
+            double current = currentWeights.getOrDefault(server, 0.0) + weight;
+            currentWeights.put(server, current);
+            total += weight;
+            if (current > bestWeight) {
+                best = server;
+                bestWeight = current;
+            }
+        }
+        currentWeights.put(best, bestWeight - total);
+        return best;
+    }
+}
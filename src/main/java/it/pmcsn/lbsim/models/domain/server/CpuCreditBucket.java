@@ -0,0 +1,145 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Modello a token bucket di un'istanza burstable (crediti CPU).
+ * Un credito è un secondo di CPU alla cpuPercentage 1 del server. Il server guadagna 'accrualRate' crediti al secondo,
+ * fino a 'maxBalance', e finché ha crediti lavora alla burst rate (la sua cpuPercentage) consumandone cpuPercentage
+ * al secondo. Esauriti i crediti viene limitato alla baseline, pari ad accrualRate: consumo e guadagno si equivalgono
+ * e il saldo resta a zero finché il server non torna idle.
+ * La limitazione è un fattore separato della capacità del server, che si moltiplica con quello del warm-up.
+ *
+ * Il saldo evolve linearmente tra due eventi, quindi:
+ * - quando il server diventa busy con crediti si schedula l'evento di esaurimento, che riduce la capacità;
+ * - quando torna idle l'evento viene invalidato e il saldo ricomincia a crescere;
+ * - un server idle con crediti lavora di nuovo alla burst rate al job successivo.
+ * Il saldo è aggiornato da processJobs ad ogni avanzamento del clock, come il lavoro dei job.
+ */
+public class CpuCreditBucket {
+    private static final Logger logger = Logger.getLogger(CpuCreditBucket.class.getName());
+    private static final double EPSILON = 1e-9;
+
+    private final double accrualRate;
+    private final double maxBalance;
+    private double balance;
+    private Server server;
+    private EventScheduler scheduler;
+    private long exhaustionEpoch = 0;      // invalida gli eventi di esaurimento schedulati prima dell'ultimo idle
+    private boolean busy = false;
+    private boolean throttled = false;
+    private double throttledSeconds = 0.0;  // statistiche cumulative
+    private int exhaustions = 0;
+
+    /**
+     * @param accrualRate    crediti guadagnati al secondo, anche cpuPercentage di baseline (> 0, < burst rate)
+     * @param maxBalance     saldo massimo in crediti (> 0)
+     * @param initialBalance saldo al lancio, in [0, maxBalance]
+     */
+    public CpuCreditBucket(double accrualRate, double maxBalance, double initialBalance) {
+        if (accrualRate <= 0) throw new IllegalArgumentException("Credit accrual rate must be > 0");
+        if (maxBalance <= 0) throw new IllegalArgumentException("Maximum credit balance must be > 0");
+        if (initialBalance < 0 || initialBalance > maxBalance) throw new IllegalArgumentException("Require 0 <= initialBalance <= maxBalance");
+        this.accrualRate = accrualRate;
+        this.maxBalance = maxBalance;
+        this.balance = initialBalance;
+    }
+
+    // chiamato da Server.setCpuCredits
+    void bind(Server server) {
+        if (this.server != null) {
+            throw new IllegalStateException("Credit bucket is already bound to server " + this.server.getId());
+        }
+        if (accrualRate >= server.getCpuPercentage()) {
+            throw new IllegalArgumentException("Credit accrual rate must be below the burst rate " + server.getCpuPercentage());
+        }
+        this.server = server;
+    }
+
+    public void start(EventScheduler scheduler) {
+        this.scheduler = scheduler;
+        busy = false;
+        loadChanged(server.getCurrentSI() > 0);
+    }
+
+    // saldo dopo un intervallo in cui il server è rimasto nello stesso stato
+    void advance(double timeInterval, boolean busy) {
+        if (!busy) {
+            balance = Math.min(maxBalance, balance + accrualRate * timeInterval);
+        } else if (throttled) {
+            throttledSeconds += timeInterval;
+        } else {
+            balance = Math.min(maxBalance, Math.max(0.0, balance - (server.getCpuPercentage() - accrualRate) * timeInterval));
+        }
+    }
+
+    // chiamato dal server dopo ogni variazione dei job attivi, conta solo il passaggio idle <-> busy
+    void loadChanged(boolean busy) {
+        // prima dell'avvio della simulazione il saldo non cambia
+        if (busy == this.busy || scheduler == null) {
+            return;
+        }
+        this.busy = busy;
+        if (busy) {
+            startBurst();
+        } else {
+            // da ora guadagna crediti
+            exhaustionEpoch++;
+            setThrottled(false);
+        }
+    }
+
+    private void startBurst() {
+        long epoch = ++exhaustionEpoch;
+        if (server.getCpuPercentage() <= accrualRate) {
+            setThrottled(false);
+            return; // a burst rate below the baseline never runs out of credits
+        }
+        if (balance <= EPSILON) {
+            throttle();
+            return;
+        }
+        setThrottled(false);
+        double exhaustion = balance / (server.getCpuPercentage() - accrualRate);
+        scheduler.schedule(scheduler.getCurrentTime() + exhaustion, t -> {
+            if (epoch == exhaustionEpoch) {
+                exhaustions++;
+                logger.log(Level.FINE, "Server id={0} ran out of CPU credits at {1}", new Object[]{server.getId(), t});
+                throttle();
+            }
+        });
+    }
+
+    private void throttle() {
+        balance = 0.0;
+        setThrottled(true);
+    }
+
+    // the credits limit only their own factor: warm-up and vertical resizes still apply to the server
+    private void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+        server.setCreditFactor(throttled ? accrualRate / server.getCpuPercentage() : 1.0);
+    }
+
+    // chiamato dal server dopo un resize verticale: il burst in corso riparte con la nuova burst rate
+    void cpuPercentageChanged() {
+        if (busy && scheduler != null) {
+            startBurst();
+        }
+    }
+
+    public double getAccrualRate() { return accrualRate; }
+    public double getMaxBalance() { return maxBalance; }
+    public double getBalance() { return balance; }
+    public boolean isThrottled() { return throttled; }
+    public double getThrottledSeconds() { return throttledSeconds; }
+    public int getExhaustions() { return exhaustions; }
+
+    @Override
+    public String toString() {
+        return String.format("accrual %.3f credits/s (baseline), max balance %.1f, balance %.1f", accrualRate, maxBalance, balance);
+    }
+}
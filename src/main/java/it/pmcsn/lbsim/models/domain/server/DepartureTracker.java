@@ -0,0 +1,7 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+// Told when the next departure of a server may have changed: a job was added or removed, or the server
+// now serves its jobs at a different rate. Between two such calls the estimated departure stays valid.
+public interface DepartureTracker {
+    void departureChanged(Server server);
+}
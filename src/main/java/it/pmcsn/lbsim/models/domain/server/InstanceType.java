@@ -0,0 +1,43 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+/**
+ * Taglia di VM acquistabile per il pool web: capacità (moltiplicatore di CPU), costo orario e tempi di avvio.
+ * L'efficienza di costo è la capacità per unità di costo orario.
+ */
+public class InstanceType {
+    private final String name;
+    private final double cpuMultiplier;
+    private final double pricePerHour;
+    private final ServerLifecycle lifecycle;
+
+    /**
+     * @param name          nome del tipo, per i log
+     * @param cpuMultiplier capacità di un server di questo tipo rispetto a un web server base (> 0)
+     * @param pricePerHour  costo orario di un server (>= 0)
+     * @param lifecycle     provisioning e warm-up dei server di questo tipo
+     */
+    public InstanceType(String name, double cpuMultiplier, double pricePerHour, ServerLifecycle lifecycle) {
+        if (cpuMultiplier <= 0) throw new IllegalArgumentException("CPU Multiplier must be > 0");
+        if (pricePerHour < 0) throw new IllegalArgumentException("Price per hour must be >= 0");
+        if (lifecycle == null) throw new IllegalArgumentException("Server lifecycle cannot be null");
+        this.name = name;
+        this.cpuMultiplier = cpuMultiplier;
+        this.pricePerHour = pricePerHour;
+        this.lifecycle = lifecycle;
+    }
+
+    public String getName() { return name; }
+    public double getCpuMultiplier() { return cpuMultiplier; }
+    public double getPricePerHour() { return pricePerHour; }
+    public ServerLifecycle getLifecycle() { return lifecycle; }
+
+    // capacity per unit of hourly cost, +inf for a free instance
+    public double getCostEfficiency() {
+        return pricePerHour == 0 ? Double.POSITIVE_INFINITY : cpuMultiplier / pricePerHour;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (cpu x" + cpuMultiplier + ", " + pricePerHour + "/h, " + lifecycle + ")";
+    }
+}
@@ -1,6 +1,8 @@
 package it.pmcsn.lbsim.models.domain.server;
 
 import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ServiceDiscipline;
 
 import java.util.List;
 import java.util.logging.Logger;
@@ -12,13 +14,42 @@ public class Server {
 
     private final int id;
     private final List<Job> activeJobs;         // List of jobs currently being processed by this server
+    private double remainingWork = 0.0;         // Sum of the remaining sizes of the active jobs, kept incrementally
     private final double cpuMultiplier;            // 1 for WebServer, 2 or 3 for SpikeServer
-    private final double cpuPercentage;         // WebServer is 1.0 and SpikeServer is 0.4 or 0.8
+    private double cpuPercentage;               // WebServer is 1.0 and SpikeServer is 0.4 or 0.8, changed by vertical scaling
+    private final ServiceDiscipline discipline; // How the capacity is shared among the active jobs
+    private final InstanceType instanceType;    // Size and price of the VM, null for servers outside a priced pool
+    private ServerState state = ServerState.ACTIVE; // Lifecycle state, changed by the pool
+    private double warmupFactor = 1.0;          // Fraction of the capacity available, below 1 while warming up
+    private double creditFactor = 1.0;          // Fraction of the burst rate allowed by the CPU credits, below 1 while throttled
+    private double busyTime = 0.0;              // Cumulative time with at least one job
+    private CpuCreditBucket cpuCredits;         // Burstable instance: capacity limited by CPU credits, null otherwise
+    boolean resizePending = false;              // A vertical resize has been requested and is not yet effective
+    ServerLoadIndex loadIndex;                  // Index of the pool this server is active in, null otherwise
+    int heapPosition = -1;                      // Position inside loadIndex
+    private DepartureTracker departureTracker;  // Event list holding the next departure of this server, null if none
 
     public Server(double cpuMultiplier, double cpuPercentage, int id) {
+        this(cpuMultiplier, cpuPercentage, id, new ProcessorSharing());
+    }
+
+    public Server(double cpuMultiplier, double cpuPercentage, int id, ServiceDiscipline discipline) {
+        this(cpuMultiplier, cpuPercentage, id, discipline, null);
+    }
+
+    public Server(InstanceType instanceType, double cpuPercentage, int id, ServiceDiscipline discipline) {
+        this(instanceType.getCpuMultiplier(), cpuPercentage, id, discipline, instanceType);
+    }
+
+    private Server(double cpuMultiplier, double cpuPercentage, int id, ServiceDiscipline discipline, InstanceType instanceType) {
+        if (discipline == null) {
+            throw new IllegalArgumentException("Service discipline cannot be null");
+        }
         this.id = id;
         this.cpuMultiplier = cpuMultiplier;
+        this.instanceType = instanceType;
         this.cpuPercentage = cpuPercentage;
+        this.discipline = discipline;
         this.activeJobs = new java.util.ArrayList<>();
     }
 
@@ -28,12 +59,52 @@ public class Server {
     public double getCpuMultiplier() { return this.cpuMultiplier; }
     public double getCpuPercentage() { return this.cpuPercentage; }
     public int getCurrentSI() { return this.activeJobs.size(); }
+    public double getRemainingWork() { return this.remainingWork; }
+    public InstanceType getInstanceType() { return this.instanceType; }
+    public ServerState getState() { return this.state; }
+    public double getWarmupFactor() { return this.warmupFactor; }
+    public double getCreditFactor() { return this.creditFactor; }
+    public double getBusyTime() { return this.busyTime; }
+    public CpuCreditBucket getCpuCredits() { return this.cpuCredits; }
+
+    public void setCpuCredits(CpuCreditBucket cpuCredits) {
+        cpuCredits.bind(this);
+        this.cpuCredits = cpuCredits;
+    }
+
+    public void setDepartureTracker(DepartureTracker departureTracker) {
+        this.departureTracker = departureTracker;
+    }
+
+    void setState(ServerState state) { this.state = state; }
+
+    void setWarmupFactor(double warmupFactor) {
+        this.warmupFactor = warmupFactor;
+        rateChanged();
+    }
+
+    void setCreditFactor(double creditFactor) {
+        this.creditFactor = creditFactor;
+        rateChanged();
+    }
+
+    // the jobs in service keep their remaining work, only their departure moves
+    void setCpuPercentage(double cpuPercentage) {
+        this.cpuPercentage = cpuPercentage;
+        if (cpuCredits != null) {
+            cpuCredits.cpuPercentageChanged();
+        }
+        rateChanged();
+    }
 
     public void addJob(Job job) {
         if (job == null) {
             throw new IllegalArgumentException("Job cannot be null");
         }
         activeJobs.add(job);
+        discipline.add(job);
+        remainingWork += job.getRemainingSize();
+        loadChanged();
     }
 
     public void removeJob(Job job) {
@@ -50,6 +121,46 @@ public class Server {
             throw new IllegalStateException("Cannot remove a job that is not yet completed");
         }
         activeJobs.remove(job);
+        discipline.remove(job);
+        updateRemainingWork(job.getRemainingSize());
+        loadChanged();
+    }
+
+    // Removes a job that has not completed (e.g. abandoned by the client), returns its remaining size
+    public double cancelJob(Job job) {
+        if (job == null) {
+            logger.log(Level.SEVERE, "Attempted to cancel a null job from the server");
+            throw new IllegalArgumentException("Job cannot be null");
+        }
+        if (!activeJobs.remove(job)) {
+            logger.log(Level.WARNING, "Attempted to cancel a job that is not present in the server's active job list. jobId={0}", job.getJobId());
+            throw new IllegalArgumentException("Job not found in the server's active job list");
+        }
+        discipline.remove(job);
+        updateRemainingWork(job.getRemainingSize());
+        loadChanged();
+        return job.getRemainingSize();
+    }
+
+    private void updateRemainingWork(double removed) {
+        // an empty server has no work left: this also clears the floating point drift
+        remainingWork = activeJobs.isEmpty() ? 0.0 : remainingWork - removed;
+    }
+
+    private void loadChanged() {
+        if (loadIndex != null) {
+            loadIndex.loadChanged(this);
+        }
+        if (cpuCredits != null) {
+            cpuCredits.loadChanged(!activeJobs.isEmpty());
+        }
+        rateChanged();
+    }
+
+    private void rateChanged() {
+        if (departureTracker != null) {
+            departureTracker.departureChanged(this);
+        }
     }
 
     public void processJobs(double timeInterval) {
@@ -57,19 +168,34 @@ public class Server {
             logger.log(Level.SEVERE, "Attempted to process jobs with a negative time interval: {0}", timeInterval);
             throw new IllegalArgumentException("Time interval cannot be negative");
         }
+        if (cpuCredits != null) {
+            cpuCredits.advance(timeInterval, !activeJobs.isEmpty());
+        }
         if (activeJobs.isEmpty()) {
             return; // No jobs to process
         }
+        busyTime += timeInterval;
 
-        double effectiveProcessingRate = (cpuPercentage * cpuMultiplier) / activeJobs.size();
-        double amountToProcess = effectiveProcessingRate * timeInterval;
+        remainingWork -= discipline.process(timeInterval, getServiceRate());
+    }
 
-        for (Job job : new java.util.ArrayList<>(activeJobs)) {
-            job.process(amountToProcess);
-            if (job.getRemainingSize() <= 0) {
-                logger.log(Level.FINE, "Job {0} completed and removed from server\n", job.getJobId()); //TODO: metti in fine il log
-            }
-        }
+    // Fraction of the allocated capacity in use: warm-up and CPU credits limit it independently
+    public double getSpeed() {
+        return warmupFactor * creditFactor;
+    }
+
+    private double getServiceRate() {
+        return cpuPercentage * cpuMultiplier * getSpeed();
+    }
+
+    // The job of this server that completes first if nothing else changes, null if the server is empty
+    public Job getNextDeparture() {
+        return discipline.nextDeparture(getServiceRate());
+    }
+
+    // Completion time of the job under the service discipline, +inf if another job of this server completes first
+    public double estimateDepartureTime(Job job, double currentTime) {
+        return discipline.departureTime(job, currentTime, getServiceRate());
     }
 
     public int isBusy() {
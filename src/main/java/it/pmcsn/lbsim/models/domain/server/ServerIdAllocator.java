@@ -4,26 +4,41 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 
 public class ServerIdAllocator {
-    private int nextId = 0;  // prossimo id se non ci sono slot liberi
+    private final boolean negative;  // id negativi (-1, -2, ...) per il tier spike
+    private int nextId = 0;  // prossimo ordinale se non ci sono slot liberi
     private final Queue<Integer> freeIds = new PriorityQueue<>();
 
+    public ServerIdAllocator() {
+        this(false);
+    }
+
+    private ServerIdAllocator(boolean negative) {
+        this.negative = negative;
+    }
+
+    /**
+     * Allocatore di id -1, -2, ...: i server spike restano distinguibili da quelli web.
+     */
+    public static ServerIdAllocator negative() {
+        return new ServerIdAllocator(true);
+    }
+
     /**
      * Restituisce un nuovo ID server.
-     * Se ci sono ID liberi, prende il più piccolo disponibile.
+     * Se ci sono ID liberi, prende il più piccolo (in valore assoluto) disponibile.
      */
     public int allocate() {
-        if (!freeIds.isEmpty()) {
-            return freeIds.poll();
-        }
-        return nextId++;
+        int ordinal = freeIds.isEmpty() ? nextId++ : freeIds.poll();
+        return negative ? -ordinal - 1 : ordinal;
     }
 
     /**
-     * Libera un ID server (che potrà essere riutilizzato).
+     * Libera un ID server (che potrà essere riutilizzato); il primo (0 oppure -1) non viene mai riassegnato.
      */
     public void release(int id) {
-        if (id > 0) {
-            freeIds.add(id);
+        int ordinal = negative ? -id - 1 : id;
+        if (ordinal > 0) {
+            freeIds.add(ordinal);
         }
     }
 }
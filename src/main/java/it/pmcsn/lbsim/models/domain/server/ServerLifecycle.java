@@ -0,0 +1,110 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+import it.pmcsn.lbsim.utils.random.Rngs;
+import it.pmcsn.lbsim.utils.random.Rvgs;
+
+/**
+ * Tempi del ciclo di vita dei server aggiunti con lo scale-out.
+ * Il provisioning dura un tempo estratto dalla distribuzione configurata, poi il server entra nel pool
+ * e per 'warmup' secondi lavora a 'warmupRate' volte la sua capacità.
+ * Con provisioning e warm-up nulli (INSTANT) il server è subito attivo a piena velocità.
+ */
+public class ServerLifecycle {
+
+    public enum DelayDistribution {
+        FIXED,
+        EXPONENTIAL,
+        UNIFORM;
+
+        public static DelayDistribution fromString(String value) {
+            if (value == null) {
+                return FIXED;
+            }
+            return switch (value.toLowerCase()) {
+                case "fixed" -> FIXED;
+                case "exponential" -> EXPONENTIAL;
+                case "uniform" -> UNIFORM;
+                default -> throw new IllegalArgumentException("Unknown provisioning distribution: " + value);
+            };
+        }
+    }
+
+    public static final ServerLifecycle INSTANT = new ServerLifecycle(null, DelayDistribution.FIXED, 0.0, 0.0, 0.0, 0, 0.0, 1.0);
+
+    private final Rngs rngs;
+    private final Rvgs rvgs;
+    private final DelayDistribution distribution;
+    private final double mean;
+    private final double min;
+    private final double max;
+    private final int stream;
+    private final double warmup;
+    private final double warmupRate;
+
+    /**
+     * @param distribution distribuzione del tempo di provisioning
+     * @param mean         durata (fixed) o media (exponential) del provisioning in secondi (>= 0)
+     * @param min          estremo inferiore del provisioning uniform in secondi (>= 0)
+     * @param max          estremo superiore del provisioning uniform in secondi (>= min)
+     * @param stream       stream di Rngs per le durate casuali
+     * @param warmup       durata del warm-up in secondi (>= 0)
+     * @param warmupRate   frazione della capacità durante il warm-up, in (0, 1]
+     */
+    public ServerLifecycle(Rngs rngs, DelayDistribution distribution, double mean, double min, double max, int stream,
+                           double warmup, double warmupRate) {
+        if (distribution == null) throw new IllegalArgumentException("Provisioning distribution cannot be null");
+        if (mean < 0) throw new IllegalArgumentException("Provisioning mean must be >= 0");
+        if (min < 0 || max < min) throw new IllegalArgumentException("Require 0 <= min <= max");
+        if (warmup < 0) throw new IllegalArgumentException("Warm-up must be >= 0");
+        if (warmupRate <= 0 || warmupRate > 1) throw new IllegalArgumentException("Warm-up rate must be in (0, 1]");
+        boolean random = distribution == DelayDistribution.UNIFORM ? max > min : distribution == DelayDistribution.EXPONENTIAL && mean > 0;
+        if (random && rngs == null) throw new IllegalArgumentException("Rngs cannot be null for random provisioning times");
+        this.rngs = rngs;
+        this.rvgs = rngs != null ? new Rvgs(rngs) : null;
+        this.distribution = distribution;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.stream = stream;
+        this.warmup = warmup;
+        this.warmupRate = warmupRate;
+    }
+
+    public double nextProvisioningDelay() {
+        return switch (distribution) {
+            case FIXED -> mean;
+            case EXPONENTIAL -> {
+                if (mean == 0) yield 0.0;
+                rngs.selectStream(stream);
+                yield rvgs.exponential(mean);
+            }
+            case UNIFORM -> {
+                if (max == min) yield min;
+                rngs.selectStream(stream);
+                yield rvgs.uniform(min, max);
+            }
+        };
+    }
+
+    // true if a new server never goes through provisioning nor warm-up
+    public boolean isInstant() {
+        boolean noDelay = switch (distribution) {
+            case FIXED, EXPONENTIAL -> mean == 0;
+            case UNIFORM -> max == 0;
+        };
+        return noDelay && warmup == 0;
+    }
+
+    public double getWarmup() { return warmup; }
+    public double getWarmupRate() { return warmupRate; }
+
+    @Override
+    public String toString() {
+        String delay = switch (distribution) {
+            case FIXED -> "fixed " + mean + "s";
+            case EXPONENTIAL -> "exponential mean " + mean + "s";
+            case UNIFORM -> "uniform [" + min + ", " + max + "]s";
+        };
+        return "provisioning " + delay + ", warm-up " + warmup + "s at rate " + warmupRate;
+    }
+}
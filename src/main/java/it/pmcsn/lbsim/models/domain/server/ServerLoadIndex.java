@@ -0,0 +1,121 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Min-heap indicizzato dei server attivi, ordinato per (currentSI, id).
+ * Ogni server conosce la propria posizione nello heap, quindi una variazione di carico costa O(log S)
+ * e la ricerca del server meno carico O(1), con tie-break deterministico sull'id.
+ * È mantenuto da ServerPool: i server vi entrano allo scale-out e ne escono allo scale-in (anche se in draining).
+ */
+public class ServerLoadIndex {
+    private Server[] heap = new Server[16];
+    private int size = 0;
+    private final Consumer<Server> onLoadChanged;
+
+    public ServerLoadIndex() {
+        this(server -> {});
+    }
+
+    // onLoadChanged è invocato dopo ogni variazione di carico di un server indicizzato
+    public ServerLoadIndex(Consumer<Server> onLoadChanged) {
+        this.onLoadChanged = onLoadChanged;
+    }
+
+    public void add(Server server) {
+        if (server.loadIndex != null) {
+            throw new IllegalStateException("Server " + server.getId() + " is already indexed");
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = server;
+        server.heapPosition = size;
+        server.loadIndex = this;
+        size++;
+        siftUp(size - 1);
+    }
+
+    public void remove(Server server) {
+        if (server.loadIndex != this) {
+            throw new IllegalStateException("Server " + server.getId() + " is not in this index");
+        }
+        int position = server.heapPosition;
+        size--;
+        if (position != size) {
+            move(heap[size], position);
+            heap[size] = null;
+            update(heap[position]);
+        } else {
+            heap[size] = null;
+        }
+        server.heapPosition = -1;
+        server.loadIndex = null;
+    }
+
+    // chiamato dal server dopo ogni addJob/removeJob/cancelJob
+    void loadChanged(Server server) {
+        update(server);
+        onLoadChanged.accept(server);
+    }
+
+    private void update(Server server) {
+        int position = server.heapPosition;
+        if (position > 0 && less(server, heap[(position - 1) >>> 1])) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    /** Server con meno job attivi, a parità quello con id minore; null se l'indice è vuoto. */
+    public Server leastLoaded() {
+        return size == 0 ? null : heap[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        Server server = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(server, heap[parent])) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(server, position);
+    }
+
+    private void siftDown(int position) {
+        Server server = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], server)) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(server, position);
+    }
+
+    private void move(Server server, int position) {
+        heap[position] = server;
+        server.heapPosition = position;
+    }
+
+    private static boolean less(Server a, Server b) {
+        int bySI = Integer.compare(a.getCurrentSI(), b.getCurrentSI());
+        return bySI != 0 ? bySI < 0 : a.getId() < b.getId();
+    }
+}
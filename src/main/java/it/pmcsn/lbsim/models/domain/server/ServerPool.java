@@ -2,68 +2,341 @@ package it.pmcsn.lbsim.models.domain.server;
 
 import it.pmcsn.lbsim.models.domain.Job;
 import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicy;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ServiceDiscipline;
+import it.pmcsn.lbsim.models.simulation.EventScheduler;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ServerPool {
     public final static Logger logger = Logger.getLogger(ServerPool.class.getName());
-    private final double cpuMultiplier;
+    private static final double EPSILON = 1e-9;
+    private final List<InstanceType> instanceTypes;                      // the first one is the base type of the initial servers
     private final int initialServerCount;
+    private final double cpuPercentage;                                  // share of the CPU of every server, below 1 for spike servers;
+                                                                         // pricePerHour is the price of a server at this share
     private final List<Server> webServers;
     private final List<Server> removingServers;
+    private final List<Server> provisioningServers = new ArrayList<>();   // launched, not yet in the pool
+    private EventScheduler scheduler;
+    private double billedPricePerHour = 0.0;                             // hourly cost of the servers in any state but RELEASED
+    private int warmingServers = 0;
+    private double targetCpu = 0.0;                                      // CPU allocated to the active and booting servers
+    // time integrals of the number of servers in each state, and of their cost
+    private double provisioningSeconds = 0.0;
+    private double warmingSeconds = 0.0;
+    private double activeSeconds = 0.0;
+    private double drainingSeconds = 0.0;
+    private double cost = 0.0;
+    private double allocatedCpuSeconds = 0.0;   // integral of the CPU allocated to the active servers
+    private int resizeUps = 0;                  // vertical resizes applied, cumulative
+    private int resizeDowns = 0;
     private final RemovalPolicy removalPolicy;
-    private final ServerIdAllocator idAllocator = new ServerIdAllocator();
+    private final Supplier<ServiceDiscipline> disciplineFactory;   // every server of the pool gets its own instance
+    private final ServerIdAllocator idAllocator;
+    private Supplier<CpuCreditBucket> cpuCredits;                        // burstable servers: every one gets its own bucket
+    private final List<ServerPoolListener> listeners = new ArrayList<>();
+    private final ServerLoadIndex loadIndex = new ServerLoadIndex(server -> listeners.forEach(l -> l.serverLoadChanged(server)));   // active servers by (SI, id)
 
     public ServerPool(int initialServerCount, double cpuMultiplier, RemovalPolicy removalPolicy) {
+        this(initialServerCount, cpuMultiplier, removalPolicy, ProcessorSharing::new);
+    }
+
+    public ServerPool(int initialServerCount, double cpuMultiplier, RemovalPolicy removalPolicy, Supplier<ServiceDiscipline> disciplineFactory) {
+        this(initialServerCount, cpuMultiplier, removalPolicy, disciplineFactory, ServerLifecycle.INSTANT, 0.0);
+    }
+
+    public ServerPool(int initialServerCount, double cpuMultiplier, RemovalPolicy removalPolicy, Supplier<ServiceDiscipline> disciplineFactory,
+                      ServerLifecycle lifecycle, double pricePerHour) {
+        this(initialServerCount, List.of(new InstanceType("web", cpuMultiplier, pricePerHour, lifecycle)), removalPolicy, disciplineFactory);
+    }
+
+    public ServerPool(int initialServerCount, List<InstanceType> instanceTypes, RemovalPolicy removalPolicy, Supplier<ServiceDiscipline> disciplineFactory) {
+        this(initialServerCount, 1.0, instanceTypes, removalPolicy, disciplineFactory, new ServerIdAllocator());
+    }
+
+    public ServerPool(int initialServerCount, double cpuPercentage, List<InstanceType> instanceTypes, RemovalPolicy removalPolicy,
+                      Supplier<ServiceDiscipline> disciplineFactory, ServerIdAllocator idAllocator) {
+        if (instanceTypes == null || instanceTypes.isEmpty()) throw new IllegalArgumentException("At least one instance type is required");
         if (removalPolicy == null) throw new IllegalArgumentException("Removal policy cannot be null");
+        if (disciplineFactory == null) throw new IllegalArgumentException("Service discipline factory cannot be null");
         if (initialServerCount <= 0) throw new IllegalArgumentException("Initial server count must be > 0");
-        if (cpuMultiplier <= 0) throw new IllegalArgumentException("CPU Multiplier must be > 0");
+        if (cpuPercentage <= 0) throw new IllegalArgumentException("CPU percentage must be > 0");
+        if (idAllocator == null) throw new IllegalArgumentException("Id allocator cannot be null");
+        this.cpuPercentage = cpuPercentage;
+        this.idAllocator = idAllocator;
         this.removalPolicy = removalPolicy;
-        this.cpuMultiplier = cpuMultiplier;
+        this.disciplineFactory = disciplineFactory;
+        this.instanceTypes = List.copyOf(instanceTypes);
         this.initialServerCount = initialServerCount;
         webServers = new ArrayList<>();
         for (int i = 0; i < initialServerCount; i++) {
-            Server server = new Server(cpuMultiplier, 1, idAllocator.allocate());
+            Server server = newServer(this.instanceTypes.get(0));
             webServers.add(server);
+            loadIndex.add(server);
         }
         removingServers = new ArrayList<>();
     }
 
+    private Server newServer(InstanceType type) {
+        billedPricePerHour += type.getPricePerHour();
+        targetCpu += type.getCpuMultiplier() * cpuPercentage;
+        Server server = new Server(type, cpuPercentage, idAllocator.allocate(), disciplineFactory.get());
+        if (cpuCredits != null) {
+            server.setCpuCredits(cpuCredits.get());
+            if (scheduler != null) {
+                server.getCpuCredits().start(scheduler);
+            }
+        }
+        return server;
+    }
+
+    // every server of the pool, also the ones launched later, becomes a burstable instance
+    public void setCpuCredits(Supplier<CpuCreditBucket> cpuCredits) {
+        if (scheduler != null) {
+            throw new IllegalStateException("CPU credits must be set before the pool is started");
+        }
+        this.cpuCredits = cpuCredits;
+        for (Server server : webServers) {
+            server.setCpuCredits(cpuCredits.get());
+        }
+    }
+
+    // binds provisioning and warm-up to the event list of the simulation; the initial servers are already active
+    public void start(EventScheduler scheduler) {
+        this.scheduler = scheduler;
+        if (cpuCredits != null) {
+            for (Server server : webServers) {
+                server.getCpuCredits().start(scheduler);
+            }
+        }
+    }
+
     public List<Server> getWebServers() {
         return webServers;
     }
 
+    public List<InstanceType> getInstanceTypes() {
+        return instanceTypes;
+    }
+
+    public void addListener(ServerPoolListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Listener cannot be null");
+        listeners.add(listener);
+    }
+
+    // O(1): least loaded active server, ties broken by the lowest id
+    public Server getLeastLoadedServer() {
+        return loadIndex.leastLoaded();
+    }
+
+    // O(1): true if the server is active in this pool (not draining nor removed)
+    public boolean isActive(Server server) {
+        return server.loadIndex == loadIndex;
+    }
+
     public List<Server> getRemovingServers() {
         return removingServers;
     }
 
     // return true if scale-in request accepted, false otherwise
     public boolean requestScaleIn() {
-        if (webServers.size() <= 1) {
+        if (webServers.size() + provisioningServers.size() <= 1) {
             logger.log(Level.WARNING,"Cannot scale in. At least one Web Server must remain.\n");
             return false;
         }
-        Server toRemove = removalPolicy.chooseServerToRemove(webServers);
+        removeServer(nextToRetire());
+        return true;
+    }
+
+    // releases up to the capacity of count base servers in one action, the unit scaleOut buys in, keeping at least one server.
+    // Servers are retired in removal order while they fit in the capacity left, so a scale-in never takes away more
+    // than requested: with several instance types or resized servers it may release fewer servers, or none.
+    // Returns the servers released.
+    public int scaleIn(int count) {
+        double left = count * getBaseServerCpu();
+        int released = 0;
+        while (count > 0 && webServers.size() + provisioningServers.size() > 1) {
+            Server next = nextToRetire();
+            if (allocation(next) > left + EPSILON) {
+                break;
+            }
+            left -= allocation(next);
+            removeServer(next);
+            released++;
+        }
+        if (released == 0 && count > 0) {
+            logger.log(Level.FINE, "Cannot scale in by {0} base servers: at least one server must remain and the next one to retire must fit", count);
+        }
+        return released;
+    }
+
+    // a server still booting is cancelled first: it has no jobs and costs without serving
+    private Server nextToRetire() {
+        if (!provisioningServers.isEmpty()) {
+            return provisioningServers.get(provisioningServers.size() - 1);
+        }
+        return removalPolicy.chooseServerToRemove(this);
+    }
+
+    private void removeServer(Server toRemove) {
+        if (toRemove.getState() == ServerState.PROVISIONING) {
+            provisioningServers.remove(toRemove);
+            targetCpu -= allocation(toRemove);
+            release(toRemove);
+            logger.log(Level.INFO,"Scaled in by cancelling the provisioning of server id=" + toRemove.getId());
+            return;
+        }
         webServers.remove(toRemove);
+        loadIndex.remove(toRemove);
+        targetCpu -= allocation(toRemove);
+        if (toRemove.getState() == ServerState.WARMING) {
+            warmingServers--;
+        }
+        listeners.forEach(l -> l.serverRemoved(toRemove));
         if (toRemove.getCurrentSI() == 0) {
-            idAllocator.release(toRemove.getId());
+            release(toRemove);
             logger.log(Level.INFO,"Scaled in immediately. Removed server id=" + toRemove.getId());
         } else {
+            toRemove.setState(ServerState.DRAINING);
             removingServers.add(toRemove);
             logger.log(Level.INFO,"Server id=" + toRemove.getId() + " draining...");
         }
-        return true;
+    }
+
+    private void release(Server server) {
+        server.setState(ServerState.RELEASED);
+        billedPricePerHour -= price(server.getInstanceType(), server.getCpuPercentage());
+        idAllocator.release(server.getId());
     }
 
     // return true if scale-out request accepted, false otherwise
     public boolean requestScaleOut() {
-        Server server = new Server(cpuMultiplier, 1, idAllocator.allocate());
-        webServers.add(server);
+        return scaleOut(1) > 0;
+    }
+
+    // adds the capacity of count base servers in one action, returns the servers launched.
+    // Among the instance types the one covering that capacity at the lowest hourly cost is bought:
+    // capacity per cost decides, rounded to whole servers of each type.
+    public int scaleOut(int count) {
+        if (count <= 0) {
+            return 0;
+        }
+        double deficit = count * instanceTypes.get(0).getCpuMultiplier();
+        InstanceType best = null;
+        int bestServers = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (InstanceType type : instanceTypes) {
+            int servers = Math.max(1, (int) Math.ceil(deficit / type.getCpuMultiplier() - EPSILON));
+            double cost = servers * type.getPricePerHour();
+            if (best == null || cost < bestCost || (cost == bestCost && type.getCostEfficiency() > best.getCostEfficiency())) {
+                best = type;
+                bestServers = servers;
+                bestCost = cost;
+            }
+        }
+        if (instanceTypes.size() > 1) {
+            logger.log(Level.FINE, "Scale out by {0} base servers: launching {1} x {2}", new Object[]{count, bestServers, best.getName()});
+        }
+        for (int i = 0; i < bestServers; i++) {
+            launch(best);
+        }
+        return bestServers;
+    }
+
+    private void launch(InstanceType type) {
+        Server server = newServer(type);
+        ServerLifecycle lifecycle = type.getLifecycle();
+        if (lifecycle.isInstant()) {
+            join(server);
+            return;
+        }
+        if (scheduler == null) {
+            throw new IllegalStateException("Server provisioning needs the pool to be started");
+        }
+        double now = scheduler.getCurrentTime();
+        double delay = lifecycle.nextProvisioningDelay();
+        if (delay == 0.0) {
+            provisioned(server, now);
+        } else {
+            server.setState(ServerState.PROVISIONING);
+            provisioningServers.add(server);
+            logger.log(Level.FINE, "Provisioning server id={0} until {1}", new Object[]{server.getId(), now + delay});
+            scheduler.schedule(now + delay, t -> provisioned(server, t));
+        }
+    }
+
+    // the server booted: it joins the pool, cold if there is a warm-up
+    private void provisioned(Server server, double now) {
+        if (server.getState() == ServerState.RELEASED) {
+            return; // cancelled by a scale-in while booting
+        }
+        provisioningServers.remove(server);
+        ServerLifecycle lifecycle = server.getInstanceType().getLifecycle();
+        if (lifecycle.getWarmup() > 0) {
+            server.setState(ServerState.WARMING);
+            server.setWarmupFactor(lifecycle.getWarmupRate());
+            warmingServers++;
+            scheduler.schedule(now + lifecycle.getWarmup(), t -> warmedUp(server));
+        } else {
+            server.setState(ServerState.ACTIVE);
+        }
+        join(server);
+    }
+
+    // changes the CPU allocation of a server after delay seconds; false if a resize of that server is already pending.
+    // The price of a server follows its allocation.
+    public boolean requestResize(Server server, double cpuPercentage, double delay) {
+        if (cpuPercentage <= 0) throw new IllegalArgumentException("CPU percentage must be > 0");
+        if (delay < 0) throw new IllegalArgumentException("Resize delay must be >= 0");
+        if (server.resizePending || server.getState() == ServerState.RELEASED) {
+            return false;
+        }
+        if (delay == 0.0) {
+            resize(server, cpuPercentage);
+            return true;
+        }
+        if (scheduler == null) {
+            throw new IllegalStateException("Server resizing needs the pool to be started");
+        }
+        server.resizePending = true;
+        scheduler.schedule(scheduler.getCurrentTime() + delay, t -> resize(server, cpuPercentage));
         return true;
     }
 
+    private void resize(Server server, double cpuPercentage) {
+        server.resizePending = false;
+        if (server.getState() == ServerState.RELEASED || cpuPercentage == server.getCpuPercentage()) {
+            return;
+        }
+        if (cpuPercentage > server.getCpuPercentage()) resizeUps++;
+        else resizeDowns++;
+        billedPricePerHour += price(server.getInstanceType(), cpuPercentage) - price(server.getInstanceType(), server.getCpuPercentage());
+        if (server.getState() != ServerState.DRAINING) {
+            targetCpu += server.getCpuMultiplier() * (cpuPercentage - server.getCpuPercentage());
+        }
+        logger.log(Level.FINE, "Server id={0} resized from {1} to {2}", new Object[]{server.getId(), server.getCpuPercentage(), cpuPercentage});
+        server.setCpuPercentage(cpuPercentage);
+    }
+
+    // only the warm-up factor is lifted: a throttled burstable server stays throttled
+    private void warmedUp(Server server) {
+        server.setWarmupFactor(1.0);
+        if (server.getState() == ServerState.WARMING) {
+            server.setState(ServerState.ACTIVE);
+            warmingServers--;
+        }
+    }
+
+    private void join(Server server) {
+        webServers.add(server);
+        loadIndex.add(server);
+        listeners.forEach(l -> l.serverAdded(server));
+    }
+
     public void completeJob(Job job) {
         if (job == null) {
             throw new IllegalArgumentException("Job cannot be null");
@@ -75,7 +348,33 @@ public class ServerPool {
         assignedServer.removeJob(job);
         if (removingServers.contains(assignedServer) && assignedServer.getActiveJobs().isEmpty()) {
             removingServers.remove(assignedServer);
-            idAllocator.release(assignedServer.getId());
+            release(assignedServer);
+        }
+        notifyIfIdle(assignedServer);
+    }
+
+    // Cancels a job still in service, returns the work left undone
+    public double cancelJob(Job job) {
+        if (job == null) {
+            throw new IllegalArgumentException("Job cannot be null");
+        }
+        Server assignedServer = job.getAssignedServer();
+        if (assignedServer == null) {
+            throw new IllegalStateException("Job is not assigned to any server");
+        }
+        double remaining = assignedServer.cancelJob(job);
+        if (removingServers.contains(assignedServer) && assignedServer.getActiveJobs().isEmpty()) {
+            removingServers.remove(assignedServer);
+            release(assignedServer);
+        }
+        notifyIfIdle(assignedServer);
+        return remaining;
+    }
+
+    // only active servers report idleness: draining ones must never receive new jobs
+    private void notifyIfIdle(Server server) {
+        if (isActive(server) && server.getCurrentSI() == 0) {
+            listeners.forEach(l -> l.serverIdle(server));
         }
     }
 
@@ -83,18 +382,100 @@ public class ServerPool {
         if (timeInterval < 0) {
             throw new IllegalArgumentException("Time interval cannot be negative");
         }
+        double allocated = 0.0;
         for (Server server : webServers) {
             server.processJobs(timeInterval);
+            allocated += server.getCpuMultiplier() * server.getCpuPercentage();
         }
+        allocatedCpuSeconds += allocated * timeInterval;
         for (Server server : new ArrayList<>(removingServers)) {
             server.processJobs(timeInterval);
         }
+        // the clock moves forward only through here: integrate servers per state and their cost
+        provisioningSeconds += provisioningServers.size() * timeInterval;
+        warmingSeconds += warmingServers * timeInterval;
+        activeSeconds += (webServers.size() - warmingServers) * timeInterval;
+        drainingSeconds += removingServers.size() * timeInterval;
+        cost += billedPricePerHour * timeInterval / 3600.0;
     }
 
     public int getWebServerCount() {
         return webServers.size();
     }
 
+    // jobs in service on the active and draining servers
+    public int getCurrentJobCount() {
+        int jobs = 0;
+        for (Server server : webServers) {
+            jobs += server.getCurrentSI();
+        }
+        for (Server server : removingServers) {
+            jobs += server.getCurrentSI();
+        }
+        return jobs;
+    }
+
+    public int getProvisioningServerCount() {
+        return provisioningServers.size();
+    }
+
+    public int getWarmingServerCount() {
+        return warmingServers;
+    }
+
+    // servers already requested: in the pool or still booting, what a scaler compares with its target
+    public int getTargetServerCount() {
+        return webServers.size() + provisioningServers.size();
+    }
+
+    // O(1): CPU (cpuMultiplier x cpuPercentage) of the servers counted by getTargetServerCount,
+    // the capacity a scaler compares with the load whatever the instance types and vertical resizes
+    public double getTargetCpu() {
+        return targetCpu;
+    }
+
+    // CPU bought by scaleOut(1): the capacity of one server of the base type
+    public double getBaseServerCpu() {
+        return instanceTypes.get(0).getCpuMultiplier() * cpuPercentage;
+    }
+
+    // capacity of the servers counted by getTargetServerCount in base servers, the unit of scaleOut and scaleIn
+    public int getTargetBaseServers() {
+        return (int) Math.round(targetCpu / getBaseServerCpu());
+    }
+
+    // CPU the next single scale-in would take away: the last server still booting, otherwise the one the removal policy retires
+    public double getRetiringCpu() {
+        if (provisioningServers.isEmpty() && webServers.isEmpty()) {
+            return 0.0;
+        }
+        return allocation(nextToRetire());
+    }
+
+    // hourly price of a server at the given CPU share: pricePerHour at the share of the pool, then proportional to it
+    private double price(InstanceType type, double cpuPercentage) {
+        return type.getPricePerHour() * cpuPercentage / this.cpuPercentage;
+    }
+
+    private static double allocation(Server server) {
+        return server.getCpuMultiplier() * server.getCpuPercentage();
+    }
+
+    // servers paid for: every state but RELEASED
+    public int getBilledServerCount() {
+        return provisioningServers.size() + webServers.size() + removingServers.size();
+    }
+
+    // cumulative server-seconds per state and cost since the start of the simulation
+    public double getProvisioningSeconds() { return provisioningSeconds; }
+    public double getWarmingSeconds() { return warmingSeconds; }
+    public double getActiveSeconds() { return activeSeconds; }
+    public double getDrainingSeconds() { return drainingSeconds; }
+    public double getCost() { return cost; }
+    public double getAllocatedCpuSeconds() { return allocatedCpuSeconds; }
+    public int getResizeUps() { return resizeUps; }
+    public int getResizeDowns() { return resizeDowns; }
+
 
     public int getJobCount(int id){
         for (Server server : webServers) {
@@ -150,30 +531,45 @@ public class ServerPool {
     }
 
     public void backToInitialState() {
-        // 1) Pulisci i server in draining
+        // 1) Pulisci i server in draining e annulla quelli in provisioning
+        for (Server s : new ArrayList<>(provisioningServers)) {
+            provisioningServers.remove(s);
+            targetCpu -= allocation(s);
+            release(s);
+            logger.log(Level.INFO, "BackToInitialState: cancelled provisioning server id={0}", s.getId());
+        }
         for (Server s : new ArrayList<>(removingServers)) {
             removingServers.remove(s);
-            idAllocator.release(s.getId());
+            release(s);
             logger.log(Level.INFO, "BackToInitialState: removed draining server id={0}", s.getId());
         }
 
         // 2) Rimuovi server attivi se ce ne sono troppi
         while (webServers.size() > initialServerCount) {
-            Server toRemove = removalPolicy.chooseServerToRemove(webServers);
+            Server toRemove = removalPolicy.chooseServerToRemove(this);
             if (toRemove == null && !webServers.isEmpty()) {
                 toRemove = webServers.get(webServers.size() - 1);
             }
             if (toRemove == null) break;
 
             webServers.remove(toRemove);
-            idAllocator.release(toRemove.getId());
+            loadIndex.remove(toRemove);
+            targetCpu -= allocation(toRemove);
+            if (toRemove.getState() == ServerState.WARMING) {
+                warmingServers--;
+            }
+            Server removed = toRemove;
+            listeners.forEach(l -> l.serverRemoved(removed));
+            release(toRemove);
             logger.log(Level.INFO, "BackToInitialState: removed extra server id={0}", toRemove.getId());
         }
 
         // 3) Aggiungi nuovi server se ce ne sono troppo pochi
         while (webServers.size() < initialServerCount) {
-            Server newServer = new Server(cpuMultiplier, 1, idAllocator.allocate());
+            Server newServer = newServer(instanceTypes.get(0));
             webServers.add(newServer);
+            loadIndex.add(newServer);
+            listeners.forEach(l -> l.serverAdded(newServer));
             logger.log(Level.INFO, "BackToInitialState: added new server id={0}", newServer.getId());
         }
     }
@@ -0,0 +1,20 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+/**
+ * Notifiche di ServerPool sui server attivi. I server in draining non generano notifiche:
+ * vengono segnalati con serverRemoved nel momento in cui escono dal pool attivo.
+ */
+public interface ServerPoolListener {
+
+    /** Un server attivo ha appena completato (o perso) il suo ultimo job. */
+    default void serverIdle(Server server) {}
+
+    /** Il numero di job di un server attivo è cambiato. */
+    default void serverLoadChanged(Server server) {}
+
+    /** Un nuovo server (vuoto) è entrato nel pool attivo. */
+    default void serverAdded(Server server) {}
+
+    /** Un server è uscito dal pool attivo (scale-in, draining o rimozione). */
+    default void serverRemoved(Server server) {}
+}
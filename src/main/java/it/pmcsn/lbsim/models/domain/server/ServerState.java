@@ -0,0 +1,13 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+/**
+ * Ciclo di vita di un web server: PROVISIONING → WARMING → ACTIVE → DRAINING → RELEASED.
+ * Un server è fatturato in tutti gli stati tranne RELEASED e riceve job solo in WARMING e ACTIVE.
+ */
+public enum ServerState {
+    PROVISIONING,   // VM in avvio: non riceve job
+    WARMING,        // riceve job ma lavora a velocità ridotta (cache fredde, JIT)
+    ACTIVE,
+    DRAINING,       // uscito dal pool attivo, completa i job che ha
+    RELEASED
+}
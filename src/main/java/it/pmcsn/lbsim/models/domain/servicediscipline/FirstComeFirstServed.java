@@ -0,0 +1,53 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.LinkedHashSet;
+
+// FCFS: the oldest job gets the whole capacity, the others wait. O(1) per operation, also for cancellations.
+public class FirstComeFirstServed implements ServiceDiscipline {
+    private final LinkedHashSet<Job> queue = new LinkedHashSet<>();
+    private final double efficiency;     // one job runs at a time: the rate curve at n = 1
+
+    public FirstComeFirstServed() {
+        this(RateCurve.FLAT);
+    }
+
+    public FirstComeFirstServed(RateCurve curve) {
+        this.efficiency = curve.factor(1);
+    }
+
+    @Override
+    public void add(Job job) {
+        queue.add(job);
+    }
+
+    @Override
+    public void remove(Job job) {
+        queue.remove(job);
+    }
+
+    @Override
+    public double process(double timeInterval, double capacity) {
+        if (queue.isEmpty()) {
+            return 0.0;
+        }
+        Job head = queue.getFirst();
+        double before = head.getRemainingSize();
+        head.process(capacity * efficiency * timeInterval);
+        return before - head.getRemainingSize();
+    }
+
+    @Override
+    public Job nextDeparture(double capacity) {
+        return queue.isEmpty() ? null : queue.getFirst();
+    }
+
+    @Override
+    public double departureTime(Job job, double currentTime, double capacity) {
+        if (job != queue.getFirst()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return currentTime + job.getRemainingSize() / (capacity * efficiency);
+    }
+}
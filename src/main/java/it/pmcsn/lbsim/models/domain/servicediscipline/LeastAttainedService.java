@@ -0,0 +1,152 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+// Least attained service (foreground-background): the jobs that received the least service share the capacity.
+// When they catch up with the next group, the two groups merge. Jobs of a group have the same attained service
+// and progress together, so each group is a heap by remaining size; groups are kept ordered by attained service.
+// A new job starts its own group with no service; the group it preempts moves to the ordered map unchanged.
+// The efficiency of the server follows the size of the served group, so it changes at every merge.
+public class LeastAttainedService implements ServiceDiscipline {
+    private PriorityQueue<Job> served = new PriorityQueue<>(BY_REMAINING_SIZE);    // group with least service
+    private double servedAttained = 0.0;                                            // service of each job in served
+    private final TreeMap<Double, PriorityQueue<Job>> preempted = new TreeMap<>();  // attained service -> group
+    private final RateCurve curve;
+
+    // next completion, computed once per state change
+    private boolean dirty = true;
+    private double cachedCapacity;
+    private Job nextJob;
+    private double nextDuration;
+
+    public LeastAttainedService() {
+        this(RateCurve.FLAT);
+    }
+
+    public LeastAttainedService(RateCurve curve) {
+        this.curve = curve;
+    }
+
+    @Override
+    public void add(Job job) {
+        if (!served.isEmpty() && servedAttained > 0.0) {
+            preempted.put(servedAttained, served);
+            served = new PriorityQueue<>(BY_REMAINING_SIZE);
+        }
+        servedAttained = 0.0;
+        served.add(job);
+        dirty = true;
+    }
+
+    @Override
+    public void remove(Job job) {
+        dirty = true;
+        if (served.remove(job)) {
+            if (served.isEmpty() && !preempted.isEmpty()) {
+                Map.Entry<Double, PriorityQueue<Job>> next = preempted.pollFirstEntry();
+                servedAttained = next.getKey();
+                served = next.getValue();
+            }
+            return;
+        }
+        // cancellation of a preempted job: rare, a scan over the groups is enough
+        var iterator = preempted.values().iterator();
+        while (iterator.hasNext()) {
+            PriorityQueue<Job> group = iterator.next();
+            if (group.remove(job)) {
+                if (group.isEmpty()) iterator.remove();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double process(double timeInterval, double capacity) {
+        double time = timeInterval;
+        double done = 0.0;
+        while (time > 0.0 && !served.isEmpty()) {
+            double rate = rate(served.size(), capacity);
+            Map.Entry<Double, PriorityQueue<Job>> next = preempted.firstEntry();
+            if (next != null && servedAttained + rate * time >= next.getKey()) {
+                // the served group catches up with the next one during the interval
+                double step = next.getKey() - servedAttained;
+                done += serve(step);
+                time -= step / rate;
+                servedAttained = next.getKey();
+                served.addAll(preempted.pollFirstEntry().getValue());
+            } else {
+                double step = rate * time;
+                done += serve(step);
+                servedAttained += step;
+                time = 0.0;
+            }
+        }
+        dirty = true;
+        return done;
+    }
+
+    private double serve(double amount) {
+        double done = 0.0;
+        for (Job job : served) {
+            double before = job.getRemainingSize();
+            job.process(amount);
+            done += before - job.getRemainingSize();
+        }
+        return done;
+    }
+
+    @Override
+    public Job nextDeparture(double capacity) {
+        if (dirty || capacity != cachedCapacity) {
+            computeNextCompletion(capacity);
+        }
+        return nextJob;
+    }
+
+    @Override
+    public double departureTime(Job job, double currentTime, double capacity) {
+        if (dirty || capacity != cachedCapacity) {
+            computeNextCompletion(capacity);
+        }
+        return job == nextJob ? currentTime + nextDuration : Double.POSITIVE_INFINITY;
+    }
+
+    // follows the merges of the served group until its smallest job completes: O(groups)
+    private void computeNextCompletion(double capacity) {
+        dirty = false;
+        cachedCapacity = capacity;
+        nextJob = served.peek();
+        if (nextJob == null) {
+            return;
+        }
+        double remaining = nextJob.getRemainingSize();
+        int size = served.size();
+        double attained = servedAttained;
+        double duration = 0.0;
+        for (Map.Entry<Double, PriorityQueue<Job>> group : preempted.entrySet()) {
+            double distance = group.getKey() - attained;
+            if (remaining <= distance) {
+                break;
+            }
+            duration += distance / rate(size, capacity);
+            remaining -= distance;
+            attained = group.getKey();
+            size += group.getValue().size();
+            Job smallest = group.getValue().peek();
+            if (smallest.getRemainingSize() < remaining) {
+                nextJob = smallest;
+                remaining = smallest.getRemainingSize();
+            }
+        }
+        nextDuration = duration + remaining / rate(size, capacity);
+    }
+
+    // rate of each job of a served group of the given size
+    private double rate(int size, double capacity) {
+        return capacity * curve.factor(size) / size;
+    }
+}
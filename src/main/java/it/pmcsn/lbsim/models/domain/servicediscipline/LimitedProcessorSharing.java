@@ -0,0 +1,90 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+
+// Processor sharing on k cores among at most `limit` jobs (multiprogramming limit), the others wait in a local FCFS queue.
+// Jobs in service progress by the same amount, so their order by remaining size never changes:
+// the next completion is the head of a heap. The efficiency depends on the jobs in service only: the limit is
+// what keeps a server below its thrashing point.
+public class LimitedProcessorSharing implements ServiceDiscipline {
+    private final int limit;
+    private final int cores;
+    private final RateCurve curve;
+    private final PriorityQueue<Job> inService = new PriorityQueue<>(BY_REMAINING_SIZE);
+    private final LinkedHashSet<Job> waiting = new LinkedHashSet<>();
+
+    public LimitedProcessorSharing(int limit) {
+        this(limit, 1, RateCurve.FLAT);
+    }
+
+    public LimitedProcessorSharing(int limit, int cores, RateCurve curve) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Multiprogramming limit must be >= 1");
+        }
+        if (cores < 1) {
+            throw new IllegalArgumentException("Number of cores must be >= 1");
+        }
+        this.limit = limit;
+        this.cores = cores;
+        this.curve = curve;
+    }
+
+    @Override
+    public void add(Job job) {
+        if (inService.size() < limit) {
+            inService.add(job);
+        } else {
+            waiting.add(job);
+        }
+    }
+
+    @Override
+    public void remove(Job job) {
+        if (waiting.remove(job)) {
+            return;
+        }
+        if (job == inService.peek()) {
+            inService.poll();
+        } else {
+            inService.remove(job);
+        }
+        if (!waiting.isEmpty()) {
+            inService.add(waiting.removeFirst());
+        }
+    }
+
+    @Override
+    public double process(double timeInterval, double capacity) {
+        if (inService.isEmpty()) {
+            return 0.0;
+        }
+        double amountToProcess = rate(capacity) * timeInterval;
+        double done = 0.0;
+        for (Job job : inService) {
+            double before = job.getRemainingSize();
+            job.process(amountToProcess);
+            done += before - job.getRemainingSize();
+        }
+        return done;
+    }
+
+    @Override
+    public Job nextDeparture(double capacity) {
+        return inService.peek();
+    }
+
+    @Override
+    public double departureTime(Job job, double currentTime, double capacity) {
+        if (job != inService.peek()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return currentTime + job.getRemainingSize() / rate(capacity);
+    }
+
+    private double rate(double capacity) {
+        return ProcessorSharing.rate(inService.size(), cores, capacity * curve.factor(inService.size()));
+    }
+}
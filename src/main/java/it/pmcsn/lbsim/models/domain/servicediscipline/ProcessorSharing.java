@@ -0,0 +1,74 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.PriorityQueue;
+
+// Egalitarian processor sharing on k cores: a job cannot use more than one core, so each of the n jobs is
+// served at capacity * min(1, k / n), where capacity is the speed of a core. With one core this is capacity / n.
+// The capacity is scaled by the efficiency of the server at n concurrent jobs (RateCurve).
+// All jobs progress by the same amount, so their order by remaining size never changes: the next completion
+// is the head of a heap. Every job has a finite estimate.
+public class ProcessorSharing implements ServiceDiscipline {
+    private final PriorityQueue<Job> jobs = new PriorityQueue<>(BY_REMAINING_SIZE);
+    private final int cores;
+    private final RateCurve curve;
+
+    public ProcessorSharing() {
+        this(1, RateCurve.FLAT);
+    }
+
+    public ProcessorSharing(int cores, RateCurve curve) {
+        if (cores < 1) {
+            throw new IllegalArgumentException("Number of cores must be >= 1");
+        }
+        this.cores = cores;
+        this.curve = curve;
+    }
+
+    @Override
+    public void add(Job job) {
+        jobs.add(job);
+    }
+
+    @Override
+    public void remove(Job job) {
+        if (job == jobs.peek()) {
+            jobs.poll();
+        } else {
+            jobs.remove(job);
+        }
+    }
+
+    @Override
+    public double process(double timeInterval, double capacity) {
+        if (jobs.isEmpty()) {
+            return 0.0;
+        }
+        double effectiveProcessingRate = rate(jobs.size(), cores, capacity * curve.factor(jobs.size()));
+        double amountToProcess = effectiveProcessingRate * timeInterval;
+        double done = 0.0;
+        for (Job job : jobs) {
+            double before = job.getRemainingSize();
+            job.process(amountToProcess);
+            done += before - job.getRemainingSize();
+        }
+        return done;
+    }
+
+    @Override
+    public Job nextDeparture(double capacity) {
+        return jobs.peek();
+    }
+
+    @Override
+    public double departureTime(Job job, double currentTime, double capacity) {
+        double effectiveProcessingRate = rate(jobs.size(), cores, capacity * curve.factor(jobs.size()));
+        return currentTime + (job.getRemainingSize() / effectiveProcessingRate);
+    }
+
+    // rate of each of n jobs sharing k cores
+    static double rate(int n, int cores, double capacity) {
+        return n <= cores ? capacity : capacity * cores / n;
+    }
+}
@@ -0,0 +1,49 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import java.util.Arrays;
+
+// Efficiency of a server as a function of the jobs running concurrently (GC, lock contention, cache misses):
+// the service capacity is multiplied by factor(n). Piecewise linear between the measured points, constant
+// before the first and after the last. The values are tabulated up to the last point, so factor(n) is O(1).
+public class RateCurve {
+    public static final RateCurve FLAT = new RateCurve(new int[]{1}, new double[]{1.0});
+
+    private final double[] table;       // factor for n = 0 .. last point
+
+    public RateCurve(int[] jobs, double[] factors) {
+        if (jobs.length == 0 || jobs.length != factors.length) {
+            throw new IllegalArgumentException("Rate curve needs the same, non zero, number of job counts and factors");
+        }
+        for (int i = 0; i < jobs.length; i++) {
+            if (jobs[i] < 1 || (i > 0 && jobs[i] <= jobs[i - 1])) {
+                throw new IllegalArgumentException("Rate curve job counts must be >= 1 and strictly increasing");
+            }
+            if (factors[i] <= 0.0) {
+                throw new IllegalArgumentException("Rate curve factors must be > 0");
+            }
+        }
+        int last = jobs[jobs.length - 1];
+        table = new double[last + 1];
+        int point = 0;
+        for (int n = 0; n <= last; n++) {
+            while (jobs[point] < n) {
+                point++;
+            }
+            if (point == 0 || jobs[point] == n) {
+                table[n] = factors[point];
+            } else {
+                double w = (double) (n - jobs[point - 1]) / (jobs[point] - jobs[point - 1]);
+                table[n] = factors[point - 1] + w * (factors[point] - factors[point - 1]);
+            }
+        }
+    }
+
+    public double factor(int n) {
+        return n < table.length ? table[n] : table[table.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return "RateCurve" + Arrays.toString(table);
+    }
+}
@@ -0,0 +1,26 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.Comparator;
+
+// How a server shares its capacity among the jobs it holds. The server owns the jobs, the discipline decides
+// which of them progress and which one completes next; capacity is the service rate of the whole server.
+public interface ServiceDiscipline {
+    // ties on the remaining size are broken by the lowest jobId, as in the future event list
+    Comparator<Job> BY_REMAINING_SIZE = Comparator.comparingDouble(Job::getRemainingSize).thenComparingLong(Job::getJobId);
+
+    void add(Job job);
+
+    // the job completed or was cancelled
+    void remove(Job job);
+
+    // serves the jobs for timeInterval seconds, returns the work done
+    double process(double timeInterval, double capacity);
+
+    // the job that completes first if nothing else changes, null if there are no jobs
+    Job nextDeparture(double capacity);
+
+    // completion time of the job if nothing else changes, +inf if another job of this server completes first
+    double departureTime(Job job, double currentTime, double capacity);
+}
@@ -0,0 +1,23 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+public enum ServiceDisciplineType {
+    PROCESSOR_SHARING,
+    FCFS,
+    SRPT,
+    LEAST_ATTAINED_SERVICE,
+    LIMITED_PROCESSOR_SHARING;
+
+    public static ServiceDisciplineType fromString(String value) {
+        if (value == null) {
+            return PROCESSOR_SHARING;
+        }
+        return switch (value.toLowerCase()) {
+            case "ps" -> PROCESSOR_SHARING;
+            case "fcfs" -> FCFS;
+            case "srpt" -> SRPT;
+            case "las" -> LEAST_ATTAINED_SERVICE;
+            case "limited_ps" -> LIMITED_PROCESSOR_SHARING;
+            default -> throw new IllegalArgumentException("Unknown service discipline: " + value);
+        };
+    }
+}
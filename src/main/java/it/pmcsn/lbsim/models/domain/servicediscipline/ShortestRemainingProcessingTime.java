@@ -0,0 +1,54 @@
+package it.pmcsn.lbsim.models.domain.servicediscipline;
+
+import it.pmcsn.lbsim.models.domain.Job;
+
+import java.util.TreeSet;
+
+// Preemptive SRPT: the job with the least remaining work gets the whole capacity.
+// Serving the first job only lowers its key, so the ordered set stays valid while it is processed. O(log n).
+public class ShortestRemainingProcessingTime implements ServiceDiscipline {
+    private final TreeSet<Job> jobs = new TreeSet<>(BY_REMAINING_SIZE);
+    private final double efficiency;     // one job runs at a time: the rate curve at n = 1
+
+    public ShortestRemainingProcessingTime() {
+        this(RateCurve.FLAT);
+    }
+
+    public ShortestRemainingProcessingTime(RateCurve curve) {
+        this.efficiency = curve.factor(1);
+    }
+
+    @Override
+    public void add(Job job) {
+        jobs.add(job);
+    }
+
+    @Override
+    public void remove(Job job) {
+        jobs.remove(job);
+    }
+
+    @Override
+    public double process(double timeInterval, double capacity) {
+        if (jobs.isEmpty()) {
+            return 0.0;
+        }
+        Job first = jobs.first();
+        double before = first.getRemainingSize();
+        first.process(capacity * efficiency * timeInterval);
+        return before - first.getRemainingSize();
+    }
+
+    @Override
+    public Job nextDeparture(double capacity) {
+        return jobs.isEmpty() ? null : jobs.first();
+    }
+
+    @Override
+    public double departureTime(Job job, double currentTime, double capacity) {
+        if (job != jobs.first()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return currentTime + job.getRemainingSize() / (capacity * efficiency);
+    }
+}
@@ -0,0 +1,48 @@
+package it.pmcsn.lbsim.models.simulation;
+
+/**
+ * Lets the simulator and the domain objects schedule timed events (timeouts, retries, timers ...)
+ * on the future event list. When an event fires the simulator has already advanced all the servers
+ * to the event time, and recomputes the departure estimates after the action.
+ */
+public interface EventScheduler {
+
+    @FunctionalInterface
+    interface Action {
+        void fire(double now);
+    }
+
+    /**
+     * Schedules {@code action} at the absolute simulated time {@code time}.
+     * @return the event, that can be cancelled until it fires
+     */
+    ScheduledEvent schedule(double time, Action action);
+
+    /** Current simulated time. */
+    double getCurrentTime();
+
+    /**
+     * True once no arrival can come and no job or retry is left in the system.
+     * Periodic timers (schedulePeriodic) stop rescheduling themselves, so that a run on an exhausted trace ends.
+     */
+    boolean isDrained();
+
+    /**
+     * Fires {@code action} at {@code first} and then every {@code period} seconds, until the run is drained.
+     * Every periodic timer is scheduled here, so none of them can keep a finished run going forever.
+     */
+    default void schedulePeriodic(double first, double period, Action action) {
+        if (period <= 0.0) {
+            throw new IllegalArgumentException("Period must be > 0");
+        }
+        schedule(first, new Action() {
+            @Override
+            public void fire(double now) {
+                action.fire(now);
+                if (!isDrained()) {
+                    schedule(now + period, this);
+                }
+            }
+        });
+    }
+}
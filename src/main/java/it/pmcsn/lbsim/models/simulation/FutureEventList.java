@@ -1,21 +1,48 @@
 package it.pmcsn.lbsim.models.simulation;
 
 
-import java.util.List;
-
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.server.DepartureTracker;
+import it.pmcsn.lbsim.models.domain.server.Server;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
-public class FutureEventList {
+// Departures are indexed per server: only the first job to complete on each server has an estimate, kept in an
+// ordered set. A server whose jobs or rate change is re-estimated once before the next event, the others keep
+// their absolute departure time, so an event costs O(log S) for each server it touched.
+public class FutureEventList implements EventScheduler, DepartureTracker {
     private static final Logger logger = Logger.getLogger(FutureEventList.class.getName());
 
     private double nextArrivalTime;                 // Next arrival time for jobs
-    private final List<JobStats> jobStats;
-
-    enum Event { DEPARTURE, ARRIVAL }
+    private final Map<Job, JobStats> jobStats;
+    private final TreeSet<JobStats> departures;      // next departure of each server with jobs
+    private final Map<Server, JobStats> nextDepartures;
+    private final Set<Server> changedServers;       // servers to re-estimate before the next event
+    private final PriorityQueue<ScheduledEvent> timedEvents;  // timeouts, retries and other timers
+    private long eventSequence = 0;
+    private double currentTime = 0.0;               // clock of the simulator owning this list
+    private int pendingRetries = 0;                 // retries scheduled but not yet arrived
+
+    // on equal times: departures first, then timed events, then arrivals;
+    // among departures (e.g. jobs of the same batch on the same server) the lowest jobId first
+    enum Event { DEPARTURE, TIMER, ARRIVAL }
 
     public FutureEventList() {
         this.nextArrivalTime = Double.POSITIVE_INFINITY;
-        this.jobStats = new java.util.ArrayList<>();
+        this.jobStats = new HashMap<>();
+        this.departures = new TreeSet<>(Comparator.comparingDouble(JobStats::getEstimatedDepartureTime)
+                .thenComparingLong(stats -> stats.getJob().getJobId()));
+        this.nextDepartures = new HashMap<>();
+        this.changedServers = new LinkedHashSet<>();
+        this.timedEvents = new PriorityQueue<>();
     }
 
 
@@ -27,7 +54,57 @@ public class FutureEventList {
         } else {
             nextDepartureTime = Double.POSITIVE_INFINITY;
         }
-        return (nextArrivalTime >= nextDepartureTime) ? Event.DEPARTURE : Event.ARRIVAL;
+        double nextTimerTime = getNextTimerTime();
+        if (nextDepartureTime <= nextTimerTime && nextDepartureTime <= nextArrivalTime) {
+            return Event.DEPARTURE;
+        }
+        return (nextTimerTime <= nextArrivalTime) ? Event.TIMER : Event.ARRIVAL;
+    }
+
+    @Override
+    public double getCurrentTime() {
+        return currentTime;
+    }
+
+    public void setCurrentTime(double currentTime) {
+        this.currentTime = currentTime;
+    }
+
+    @Override
+    public boolean isDrained() {
+        return nextArrivalTime == Double.POSITIVE_INFINITY && jobStats.isEmpty() && pendingRetries == 0;
+    }
+
+    public void retryScheduled() {
+        pendingRetries++;
+    }
+
+    public void retryAdmitted() {
+        pendingRetries--;
+    }
+
+    public int getPendingRetries() {
+        return pendingRetries;
+    }
+
+    @Override
+    public ScheduledEvent schedule(double time, Action action) {
+        ScheduledEvent event = new ScheduledEvent(time, eventSequence++, action);
+        timedEvents.add(event);
+        return event;
+    }
+
+    // time of the first non cancelled timed event, +inf if none
+    public double getNextTimerTime() {
+        while (!timedEvents.isEmpty() && timedEvents.peek().isCancelled()) {
+            timedEvents.poll();
+        }
+        return timedEvents.isEmpty() ? Double.POSITIVE_INFINITY : timedEvents.peek().getTime();
+    }
+
+    public ScheduledEvent pollNextTimer() {
+        getNextTimerTime();
+        return timedEvents.poll();
     }
 
 
@@ -39,40 +116,53 @@ public class FutureEventList {
         this.nextArrivalTime = nextArrivalTime;
     }
 
-    public List<JobStats> getJobStats() {
-        return jobStats;
+    public Collection<JobStats> getJobStats() {
+        return jobStats.values();
     }
 
-
-
     private JobStats findNextDepartureJob() {
-    double nextDepartureTime = Double.POSITIVE_INFINITY;
-        JobStats bestJob = null;
-
-        for (JobStats stats : jobStats) {
-            double depTime = stats.getEstimatedDepartureTime();
-            if (depTime < nextDepartureTime) {
-                nextDepartureTime = depTime;
-                bestJob = stats;
-            }
-        }
-        return bestJob;
+        refreshDepartures();
+        return departures.isEmpty() ? null : departures.first();
     }
+
     public JobStats nextDepartureJob() {
         return findNextDepartureJob();
     }
 
+    // the job must already be assigned: from now on its server reports its changes here
     public void addJobStats(JobStats jobStat) {
-        jobStats.add(jobStat);
+        Server server = jobStat.getJob().getAssignedServer();
+        jobStats.put(jobStat.getJob(), jobStat);
+        server.setDepartureTracker(this);
+        departureChanged(server);
+    }
+
+    public void removeJobStats(JobStats jobStat) {
+        jobStats.remove(jobStat.getJob());
+        departureChanged(jobStat.getJob().getAssignedServer());
     }
-    public void removeJobStats(JobStats jobStat) {jobStats.remove(jobStat);}
 
-    public List<Double> getAllDepartureTimes() {
-        List<Double> departureTimes = new java.util.ArrayList<>();
-        for (JobStats stats : jobStats) {
-            departureTimes.add(stats.getEstimatedDepartureTime());
+    @Override
+    public void departureChanged(Server server) {
+        changedServers.add(server);
+    }
+
+    // estimates at the current time the next departure of the servers changed since the last event
+    private void refreshDepartures() {
+        for (Server server : changedServers) {
+            JobStats previous = nextDepartures.remove(server);
+            if (previous != null) {
+                departures.remove(previous);
+            }
+            Job next = server.getNextDeparture();
+            JobStats stats = next != null ? jobStats.get(next) : null;
+            if (stats != null) {
+                stats.estimateDepartureTime(currentTime);
+                nextDepartures.put(server, stats);
+                departures.add(stats);
+            }
         }
-        return departureTimes;
+        changedServers.clear();
     }
 
 }
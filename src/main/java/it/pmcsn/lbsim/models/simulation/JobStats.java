@@ -6,8 +6,8 @@ import it.pmcsn.lbsim.models.domain.Job;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-// TODO: alcuni job hanno arrival time = departure time, lo si osserva dal csv.
-// TODO: come gestiamo job diversi con lo stesso istante di arrivo?
+// Job diversi possono avere lo stesso istante di arrivo (arrivi a blocchi): sono assegnati nell'ordine di
+// creazione e, a parità di partenza stimata, la FutureEventList li serve in ordine di jobId.
 public class JobStats {
 
     // Constants
@@ -15,12 +15,18 @@ public class JobStats {
 
     // Instance variables
     private final Double arrivalTime;
+    private final double requestArrivalTime;      // Arrival of the first attempt of the client request
     private Double estimatedDepartureTime;        // Estimated time when the job will depart according to the assigned server state
     private  final Double originalSize;           // generated size of the job
     private final Job job;                        // The job associated with these stats
+    private ScheduledEvent timeoutEvent;          // Client timeout of this attempt, null if none
 
     // Constructor
     public JobStats(Job job, Double arrivalTime, Double originalSize) {
+        this(job, arrivalTime, originalSize, arrivalTime);
+    }
+
+    public JobStats(Job job, Double arrivalTime, Double originalSize, double requestArrivalTime) {
         if (job == null) {
             logger.log(Level.SEVERE, "Job cannot be null");
             throw new IllegalArgumentException("Job cannot be null");
@@ -34,6 +40,7 @@ public class JobStats {
             throw new IllegalArgumentException("Arrival time cannot be null or negative");
         }
         this.arrivalTime = arrivalTime;
+        this.requestArrivalTime = requestArrivalTime;
         this.estimatedDepartureTime = null;
         this.originalSize = originalSize;
     }
@@ -56,12 +63,8 @@ public class JobStats {
             throw new IllegalStateException("Server load cannot be zero or negative");
         }
 
-        // In processor sharing, each job gets 1/n of the CPU time
-        double effectiveProcessingRate = assignedServer.getCpuPercentage() *
-                assignedServer.getCpuMultiplier() /
-                assignedServer.getCurrentSI();
-
-        estimatedDepartureTime = currentTime + (job.getRemainingSize() / effectiveProcessingRate);
+        // the service discipline of the server decides how fast the job progresses
+        estimatedDepartureTime = assignedServer.estimateDepartureTime(job, currentTime);
     }
 
     // Getters and Setters
@@ -90,4 +93,16 @@ public class JobStats {
     public Double getOriginalSize() {
         return this.originalSize;
     }
+
+    public double getRequestArrivalTime() {
+        return requestArrivalTime;
+    }
+
+    public ScheduledEvent getTimeoutEvent() {
+        return timeoutEvent;
+    }
+
+    public void setTimeoutEvent(ScheduledEvent timeoutEvent) {
+        this.timeoutEvent = timeoutEvent;
+    }
 }
\ No newline at end of file
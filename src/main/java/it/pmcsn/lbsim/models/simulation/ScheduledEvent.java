@@ -0,0 +1,46 @@
+package it.pmcsn.lbsim.models.simulation;
+
+/**
+ * Timed event of the future event list. Events with the same time fire in scheduling order.
+ * Cancellation is lazy: the event stays in the queue and is discarded when it reaches the head.
+ */
+public class ScheduledEvent implements Comparable<ScheduledEvent> {
+    private final double time;
+    private final long sequence;
+    private final EventScheduler.Action action;
+    private boolean cancelled = false;
+
+    ScheduledEvent(double time, long sequence, EventScheduler.Action action) {
+        if (Double.isNaN(time)) {
+            throw new IllegalArgumentException("Event time cannot be NaN");
+        }
+        if (action == null) {
+            throw new IllegalArgumentException("Event action cannot be null");
+        }
+        this.time = time;
+        this.sequence = sequence;
+        this.action = action;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    void fire() {
+        action.fire(time);
+    }
+
+    @Override
+    public int compareTo(ScheduledEvent other) {
+        int c = Double.compare(this.time, other.time);
+        return c != 0 ? c : Long.compare(this.sequence, other.sequence);
+    }
+}
@@ -3,9 +3,13 @@ package it.pmcsn.lbsim.models.simulation;
 
 import it.pmcsn.lbsim.models.domain.Job;
 import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.client.ClientPolicy;
+import it.pmcsn.lbsim.models.domain.client.NoneClientPolicy;
 import it.pmcsn.lbsim.models.simulation.workloadgenerator.WorkloadGenerator;
 import it.pmcsn.lbsim.models.simulation.runType.RunPolicy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,13 +20,20 @@ public class Simulator {
     private final WorkloadGenerator workload; // Workload generator
     private final LoadBalancer loadBalancer; // System under simulation
     private final RunPolicy runPolicy;
+    private final ClientPolicy clientPolicy; // Client timeouts and retries
 
     public Simulator(WorkloadGenerator workloadGenerator, LoadBalancer loadBalancer, RunPolicy runPolicy) {
+        this(workloadGenerator, loadBalancer, runPolicy, new NoneClientPolicy());
+    }
+
+    public Simulator(WorkloadGenerator workloadGenerator, LoadBalancer loadBalancer, RunPolicy runPolicy, ClientPolicy clientPolicy) {
         this.currentTime = 0.0;
         this.loadBalancer = loadBalancer;
         this.runPolicy = runPolicy;
         this.workload = workloadGenerator;
+        this.clientPolicy = clientPolicy;
         this.futureEventList = new FutureEventList();
+        this.loadBalancer.start(this.futureEventList);
     }
 
     public void run(int numJobs) {
@@ -33,7 +44,7 @@ public class Simulator {
         int createdJobs = 0;
         // Schedule first arrival
         this.futureEventList.setNextArrivalTime(this.workload.nextArrival(currentTime));
-        // Main loop - until we create numJobs
+        // Main loop - until we create numJobs or the workload runs out: the periodic timers stop once the system is drained
         while (createdJobs < numJobs) {
             FutureEventList.Event event = this.futureEventList.nextEvent();
 
@@ -42,13 +53,13 @@ public class Simulator {
                 if (nextArrivalTime == Double.POSITIVE_INFINITY) {
                     break; // no more arrivals possible
                 }
-                double elapsedTime = nextArrivalTime - this.currentTime;
-                this.currentTime = nextArrivalTime;
+                double elapsedTime = advanceTo(nextArrivalTime);
                 this.futureEventList.setNextArrivalTime(this.workload.nextArrival(currentTime));
 
-                arrivalHandler(elapsedTime, this.currentTime);
-                createdJobs++; // conta job creato
+                createdJobs += arrivalHandler(elapsedTime, this.currentTime, numJobs - createdJobs); // conta job creati
 
+            } else if (event == FutureEventList.Event.TIMER) {
+                timerHandler(this.futureEventList.pollNextTimer());
             } else { // DEPARTURE
                 JobStats nextDepartureJob = this.futureEventList.nextDepartureJob();
                 if (nextDepartureJob == null) {
@@ -58,19 +69,12 @@ public class Simulator {
                 if (nextDepartureTime == Double.POSITIVE_INFINITY) {
                     break;
                 }
-                double elapsedTime = nextDepartureTime - this.currentTime;
-                this.currentTime = nextDepartureTime;
+                double elapsedTime = advanceTo(nextDepartureTime);
                 departureHandler(elapsedTime, nextDepartureJob);
             }
         }
         // Drain: completa i job rimanenti
-        while (this.futureEventList.nextDepartureJob() != null) {
-            JobStats nextDepartureJob = this.futureEventList.nextDepartureJob();
-            double nextDepartureTime = nextDepartureJob.getEstimatedDepartureTime();
-            double elapsedTime = nextDepartureTime - this.currentTime;
-            this.currentTime = nextDepartureTime;
-            departureHandler(elapsedTime, nextDepartureJob);
-        }
+        drain();
         // Reset servers to initial state
         loadBalancer.getWebServers().backToInitialState();
         // update final runpolicy
@@ -92,70 +96,138 @@ public class Simulator {
                 if (nextArrivalTime == Double.POSITIVE_INFINITY) {
                     break; // No more events to process
                 }
-                double elapsedTime = nextArrivalTime - this.currentTime;
-                this.currentTime = nextArrivalTime;
+                double elapsedTime = advanceTo(nextArrivalTime);
                 this.futureEventList.setNextArrivalTime(this.workload.nextArrival(currentTime));
-                arrivalHandler(elapsedTime, this.currentTime);
+                arrivalHandler(elapsedTime, this.currentTime, Integer.MAX_VALUE);
+            } else if (event == FutureEventList.Event.TIMER) {
+                timerHandler(this.futureEventList.pollNextTimer());
             } else {
                 JobStats nextDepartureJob = this.futureEventList.nextDepartureJob();
                 double nextDepartureTime = nextDepartureJob.getEstimatedDepartureTime();
                 if (nextDepartureTime == Double.POSITIVE_INFINITY) {
                     break; // No more events to process
                 }
-                double elapsedTime = nextDepartureTime - this.currentTime;
-                this.currentTime = nextDepartureTime;
+                double elapsedTime = advanceTo(nextDepartureTime);
                 departureHandler(elapsedTime,nextDepartureJob);
             }
         }
         // Drain remaining jobs after simulation ends
-        while ( this.futureEventList.nextDepartureJob() != null) {
-                JobStats nextDepartureJob = this.futureEventList.nextDepartureJob();
-                double nextDepartureTime = nextDepartureJob.getEstimatedDepartureTime();
-                double elapsedTime =  nextDepartureTime - this.currentTime;
-                this.currentTime = nextDepartureTime;
-                departureHandler(elapsedTime,nextDepartureJob);
-        }
+        drain();
         // Remove the servers added
         loadBalancer.getWebServers().backToInitialState();
         // update final runpolicy
         runPolicy.updateFinalStats();
     }
 
+    // No more fresh arrivals: serve the jobs in the system, including timeouts and pending retries
+    private void drain() {
+        while (!this.futureEventList.getJobStats().isEmpty() || this.futureEventList.getPendingRetries() > 0) {
+            JobStats nextDepartureJob = this.futureEventList.nextDepartureJob();
+            double nextDepartureTime = nextDepartureJob != null ? nextDepartureJob.getEstimatedDepartureTime() : Double.POSITIVE_INFINITY;
+            if (this.futureEventList.getNextTimerTime() < nextDepartureTime) {
+                timerHandler(this.futureEventList.pollNextTimer());
+            } else if (nextDepartureJob != null) {
+                double elapsedTime = advanceTo(nextDepartureTime);
+                departureHandler(elapsedTime, nextDepartureJob);
+            } else {
+                break; // nothing left that can happen
+            }
+        }
+    }
+
+
+    // Moves the clock forward, returns the elapsed time
+    private double advanceTo(double time) {
+        double elapsedTime = time - this.currentTime;
+        this.currentTime = time;
+        this.futureEventList.setCurrentTime(time);
+        return elapsedTime;
+    }
 
-    private void arrivalHandler(double elapsedTime, double currentTime) {
+    // Handles an arrival epoch, which may carry a batch of jobs; returns the number of jobs created
+    private int arrivalHandler(double elapsedTime, double currentTime, int maxJobs) {
         // Process elapsed time for all active jobs
         this.loadBalancer.getWebServers().processJobs(elapsedTime);
-        this.loadBalancer.getSpikeServer().processJobs(elapsedTime);
-        // Create new job
-        double size = this.workload.nextJobSize();
-        Job newJob = new Job(size);
-        // assign job to load balancer
+        this.loadBalancer.getSpikeTier().processJobs(elapsedTime);
+        // Create the new jobs, all with the same arrival time
+        int batchSize = Math.min(this.workload.nextBatchSize(), maxJobs);
+        List<Job> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new Job(this.workload.nextJobSize()));
+        }
+        // the whole batch is dispatched in one pass, the servers that got a job are re-estimated once
+        this.loadBalancer.assignJobs(batch, this.currentTime);
+        List<JobStats> batchStats = new ArrayList<>(batchSize);
+        for (Job job : batch) {
+            batchStats.add(trackJob(job, job.getRemainingSize(), this.currentTime));
+        }
+        for (JobStats jobStats : batchStats) {
+            runPolicy.updateArrivalStats(this.currentTime, jobStats, this.loadBalancer);
+        }
+        return batchSize;
+    }
+
+    // Admits a single retry of a timed out request
+    private void admitJob(Job newJob, double size, double requestArrivalTime) {
         this.loadBalancer.assignJob(newJob, currentTime);
-        JobStats newJobStats = new JobStats(newJob, this.currentTime, size);
+        JobStats newJobStats = trackJob(newJob, size, requestArrivalTime);
+        runPolicy.updateArrivalStats(this.currentTime, newJobStats, this.loadBalancer);
+    }
+
+    // Adds an assigned job (first attempt or retry) to the event list and schedules its client timeout
+    private JobStats trackJob(Job newJob, double size, double requestArrivalTime) {
+        JobStats newJobStats = new JobStats(newJob, this.currentTime, size, requestArrivalTime);
         this.futureEventList.addJobStats(newJobStats);
-        // Recalculate estimated departure times for all jobs
-        for (JobStats jobStat : this.futureEventList.getJobStats()) {
-            jobStat.estimateDepartureTime(this.currentTime);
+        double deadline = this.clientPolicy.deadline(this.currentTime);
+        if (deadline != Double.POSITIVE_INFINITY) {
+            newJobStats.setTimeoutEvent(this.futureEventList.schedule(deadline, now -> timeoutHandler(newJobStats)));
         }
-        runPolicy.updateArrivalStats(this.currentTime, newJobStats, this.loadBalancer);
+        return newJobStats;
     }
 
     private void departureHandler(double elapsedTime, JobStats targetDepartureJobStats) {
         //Process elapsed time for all active jobs
         this.loadBalancer.getWebServers().processJobs(elapsedTime);
-        this.loadBalancer.getSpikeServer().processJobs(elapsedTime);
+        this.loadBalancer.getSpikeTier().processJobs(elapsedTime);
         // Process job departure through load balancer
         double responseTime = this.currentTime - targetDepartureJobStats.getArrivalTime();
         this.loadBalancer.completeJob(targetDepartureJobStats.getJob(),this.currentTime, responseTime);
+        // The client got its response: its timeout will never fire
+        if (targetDepartureJobStats.getTimeoutEvent() != null) {
+            targetDepartureJobStats.getTimeoutEvent().cancel();
+        }
         // Add to the csv for forensics analysis
         this.futureEventList.removeJobStats(targetDepartureJobStats);
-        // Recalculate estimated departure times for remaining jobs
-        for (JobStats js : this.futureEventList.getJobStats()) {
-            js.estimateDepartureTime(this.currentTime);
-        }
         // Log job statistics
         this.runPolicy.updateDepartureStats(this.currentTime, targetDepartureJobStats, this.loadBalancer, responseTime);
     }
 
+    private void timerHandler(ScheduledEvent event) {
+        // Process elapsed time for all active jobs, then let the event change the system state
+        double elapsedTime = advanceTo(event.getTime());
+        this.loadBalancer.getWebServers().processJobs(elapsedTime);
+        this.loadBalancer.getSpikeTier().processJobs(elapsedTime);
+        // the servers the event changes report it to the event list, which re-estimates only those
+        event.fire();
+    }
+
+    // The client gave up: cancel the job and, if allowed, schedule a retry of the same request
+    private void timeoutHandler(JobStats timedOut) {
+        Job job = timedOut.getJob();
+        double remaining = this.loadBalancer.abandonJob(job, this.currentTime);
+        this.futureEventList.removeJobStats(timedOut);
+        boolean retry = this.clientPolicy.shouldRetry(job);
+        this.runPolicy.updateTimeoutStats(this.currentTime, timedOut, this.loadBalancer, timedOut.getOriginalSize() - remaining, retry);
+        if (retry) {
+            double size = timedOut.getOriginalSize();
+            double requestArrivalTime = timedOut.getRequestArrivalTime();
+            this.futureEventList.retryScheduled();
+            this.futureEventList.schedule(this.clientPolicy.retryTime(job, this.currentTime), now -> {
+                this.futureEventList.retryAdmitted();
+                admitJob(new Job(size, job), size, requestArrivalTime);
+            });
+        }
+    }
+
 
-}
\ No newline at end of file
+}
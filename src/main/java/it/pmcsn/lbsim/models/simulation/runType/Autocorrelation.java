@@ -1,6 +1,7 @@
 package it.pmcsn.lbsim.models.simulation.runType;
 
 import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
 import it.pmcsn.lbsim.models.simulation.FutureEventList;
 import it.pmcsn.lbsim.models.simulation.JobStats;
 import it.pmcsn.lbsim.utils.AutoCorrelationFunction;
@@ -46,7 +47,7 @@ public class Autocorrelation implements RunPolicy {
 
     @Override
     public void updateDepartureStats(double currentTime, JobStats departureJob, LoadBalancer loadBalancer, double responseTime) {
-        if (departureJob.getJob().getAssignedServer().getId() == -1) {
+        if (SpikeTier.isSpikeServer(departureJob.getJob().getAssignedServer())) {
             // job scartato (es. load balancer ha rifiutato il job)
             return;
         }
@@ -69,6 +70,11 @@ public class Autocorrelation implements RunPolicy {
         acs.iteration(responseTime);
     }
 
+    @Override
+    public void updateTimeoutStats(double currentTime, JobStats timedOutJob, LoadBalancer loadBalancer, double wastedWork, boolean retried) {
+        // no-op
+    }
+
     @Override
     public void updateFinalStats() {
         // chiudi calcolo ACF
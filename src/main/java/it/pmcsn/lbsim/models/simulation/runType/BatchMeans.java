@@ -1,6 +1,12 @@
 package it.pmcsn.lbsim.models.simulation.runType;
 
 import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.dispatcher.Dispatcher;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.ScalerState;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.server.CpuCreditBucket;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
 import it.pmcsn.lbsim.models.simulation.JobStats;
 import it.pmcsn.lbsim.utils.IntervalEstimation;
 import it.pmcsn.lbsim.utils.TimeMediateWelford;
@@ -9,9 +15,14 @@ import it.pmcsn.lbsim.utils.csv.CsvAppender;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,7 +33,14 @@ import java.util.logging.Logger;
  * - Utilization
  * - Mean Number of Jobs
  * - Requests distribution Spike vs Web
- * - Throughput for Spike and all spike servers
+ * - Throughput for every spike and web server
+ * - Size, scaling actions and cost of the spike tier
+ * - Client timeouts and retries: goodput vs throughput, amplification factor
+ * - Response time and slowdown per job size class (decades of the original size)
+ * - Jobs and herding per dispatcher (load of the chosen server above the least loaded one)
+ * - Servers per lifecycle state (time averages) and their cost
+ * - Cost per job (ResponseR0.csv): cost of the web pool and of the spike tier over all the departures
+ * - Internal state of feedback scalers (PID terms, error and saturation)
  */
 public class BatchMeans implements RunPolicy {
     private final int batchSize;
@@ -35,12 +53,19 @@ public class BatchMeans implements RunPolicy {
     private final CsvAppender meanJobsCsv;
     private final CsvAppender responseR0Csv;
     private final CsvAppender serverActvityCsv;
-
-    // Spike server metrics
-    private final WelfordSimple responseTimeSpike = new WelfordSimple();
-    private final TimeMediateWelford utilizationSpike = new TimeMediateWelford();
-    private final TimeMediateWelford meanJobsSpike = new TimeMediateWelford();
-    private int spikeRequestsProcessed = 0;
+    private final CsvAppender retriesCsv;
+    private final CsvAppender sizeClassesCsv;
+    private final CsvAppender dispatchersCsv;
+    private final CsvAppender scalerStateCsv;
+    private final CsvAppender spikeCreditsCsv;
+    private final CsvAppender spikeTierCsv;
+
+    // Dynamic maps for Spike Servers (id -> tracker), printed -1, -2, ...
+    // A released spike server keeps its trackers until the end of the batch
+    private final Map<Integer, WelfordSimple> responseTimeSpike = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<Integer, TimeMediateWelford> utilizationSpike = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<Integer, TimeMediateWelford> meanJobsSpike = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<Integer, Integer> spikeRequestsProcessed = new HashMap<>();
 
     // Dynamic maps for Web Servers (id -> tracker)
     private final Map<Integer, WelfordSimple> responseTimeWS = new HashMap<>();
@@ -51,11 +76,57 @@ public class BatchMeans implements RunPolicy {
     // scaling orizzontale
     private int scaleInAction = 0;
     private int scaleOutAction = 0;
+    private int serversReleased = 0;
+    private int serversLaunched = 0;
 
     // Global R0
     private final WelfordSimple responseR0 = new WelfordSimple();
+    private double[] batchResponseTimes = new double[1024];   // response times of the batch, for the tail percentiles
+    private int batchResponseCount = 0;
     private final TimeMediateWelford onlineServers = new TimeMediateWelford();
     private final TimeMediateWelford activeServers = new TimeMediateWelford();
+    // cumulative server-seconds per lifecycle state and cost of the pool at the end of the previous batch
+    private double lastProvisioningSeconds = 0.0;
+    private double lastWarmingSeconds = 0.0;
+    private double lastDrainingSeconds = 0.0;
+    private double lastCost = 0.0;
+    private double lastAllocatedCpuSeconds = 0.0;   // vertical scaling: CPU allocated and resizes up to the previous batch
+    private double lastActiveSeconds = 0.0;
+    private int lastResizeUps = 0;
+    private int lastResizeDowns = 0;
+
+    // Client timeouts and retries
+    private int requestsArrived = 0;     // first attempts
+    private int attemptsArrived = 0;     // first attempts + retries
+    private int timeouts = 0;
+    private int giveUps = 0;             // requests abandoned without further retries
+    private double wastedWork = 0.0;     // service spent on jobs later abandoned
+    private double abandonedWork = 0.0;  // service never delivered to abandoned jobs
+    private final WelfordSimple requestLatency = new WelfordSimple(); // from first attempt to response
+
+    // Size classes: [0, 0.01), [0.01, 0.1), [0.1, 1), [1, 10), [10, inf) seconds of original size
+    private static final double[] SIZE_CLASS_BOUNDS = {0.01, 0.1, 1.0, 10.0};
+    private final WelfordSimple[] responseBySize = new WelfordSimple[SIZE_CLASS_BOUNDS.length + 1];
+    private final WelfordSimple[] slowdownBySize = new WelfordSimple[SIZE_CLASS_BOUNDS.length + 1];
+
+    // Dispatcher counters are cumulative: values at the end of the previous batch (id -> jobs, load, excess, herded)
+    private final Map<Integer, long[]> dispatcherSnapshots = new HashMap<>();
+
+    // Scaler state counters are cumulative too: values at the end of the previous batch
+    private long lastEvaluations = 0;
+    private long lastSaturated = 0;
+    private double lastErrorSum = 0.0;
+    private double lastAbsErrorSum = 0.0;
+    // CPU credits of a burstable spike server, cumulative
+    private final Map<CpuCreditBucket, double[]> lastCredits = new HashMap<>();   // bucket -> {throttled seconds, exhaustions}
+    // spike tier: cumulative server-seconds, actions and cost at the end of the previous batch
+    private double lastSpikeActiveSeconds = 0.0;
+    private double lastSpikeBilledSeconds = 0.0;
+    private double lastSpikeCost = 0.0;
+    private int lastSpikeScaleOut = 0;
+    private int lastSpikeScaleIn = 0;
+    private int lastSpikeLaunched = 0;
+    private int lastSpikeReleased = 0;
 
     private final IntervalEstimation intervalEstimation;
     private final static Logger logger = Logger.getLogger(BatchMeans.class.getName());
@@ -67,11 +138,21 @@ public class BatchMeans implements RunPolicy {
             responseTimeCsv = new CsvAppender(Path.of("output/csv/ResponseTime.csv"), "BatchID", "TotalDepartures", "ServerID", "Type", "NumDepartures", "Mean", "StdDev", "Variance", "SeminInterval", "%reqDirected", "Throughput");
             utilizationCsv = new CsvAppender(Path.of("output/csv/Utilization.csv"), "BatchID", "ServerID", "Type", "NumSamples", "Mean", "StdDev", "Variance");
             meanJobsCsv = new CsvAppender(Path.of("output/csv/MeanJobs.csv"), "BatchID", "ServerID", "Type", "NumSamples", "Mean", "StdDev", "Variance");
-            responseR0Csv = new CsvAppender(Path.of("output/csv/ResponseR0.csv"), "BatchID", "TotalDepartures", "Mean", "StdDev", "Variance", "SeminIntervalR0", "scaleInActions", "scaleOutActions");
-            serverActvityCsv = new CsvAppender(Path.of("output/csv/ServerActivity.csv"), "BatchID", "NumActiveServer", "NumOnlineServer");
+            responseR0Csv = new CsvAppender(Path.of("output/csv/ResponseR0.csv"), "BatchID", "TotalDepartures", "Mean", "StdDev", "Variance", "SeminIntervalR0", "scaleInActions", "scaleOutActions", "P95", "P99", "serversReleased", "serversLaunched", "CostPerJob");
+            serverActvityCsv = new CsvAppender(Path.of("output/csv/ServerActivity.csv"), "BatchID", "NumActiveServer", "NumOnlineServer", "NumProvisioningServer", "NumWarmingServer", "NumDrainingServer", "Cost", "ResizeUp", "ResizeDown", "MeanCpuAllocation");
+            retriesCsv = new CsvAppender(Path.of("output/csv/Retries.csv"), "BatchID", "TotalDepartures", "Requests", "Attempts", "Timeouts", "GiveUps", "Throughput", "Goodput", "AmplificationFactor", "WastedWork", "AbandonedWork", "MeanRequestLatency");
+            sizeClassesCsv = new CsvAppender(Path.of("output/csv/SizeClasses.csv"), "BatchID", "Class", "MinSize", "MaxSize", "NumDepartures", "MeanResponse", "StdDevResponse", "MeanSlowdown");
+            dispatchersCsv = new CsvAppender(Path.of("output/csv/Dispatchers.csv"), "BatchID", "DispatcherID", "NumJobs", "%jobs", "MeanChosenSI", "MeanHerdingExcess", "%herded");
+            scalerStateCsv = new CsvAppender(Path.of("output/csv/ScalerState.csv"), "BatchID", "Evaluations", "MeanError", "MeanAbsError", "%saturated", "Metric", "Error", "P", "I", "D", "Output", "DesiredServers");
+            spikeCreditsCsv = new CsvAppender(Path.of("output/csv/SpikeCredits.csv"), "BatchID", "ServerID", "Balance", "MaxBalance", "%throttled", "Exhaustions", "Throttled");
+            spikeTierCsv = new CsvAppender(Path.of("output/csv/SpikeTier.csv"), "BatchID", "NumActiveSpikeServer", "NumBilledSpikeServer", "ScaleOutActions", "ScaleInActions", "ServersLaunched", "ServersReleased", "Cost");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        for (int i = 0; i < responseBySize.length; i++) {
+            responseBySize[i] = new WelfordSimple();
+            slowdownBySize[i] = new WelfordSimple();
+        }
     }
 
     // ---------------- Helpers ----------------
@@ -88,6 +169,14 @@ public class BatchMeans implements RunPolicy {
         return meanJobsWS.computeIfAbsent(id, k -> new TimeMediateWelford());
     }
 
+    private void updateSpikeTrackers(LoadBalancer loadBalancer, double time) {
+        for (Server spike : loadBalancer.getSpikeTier().getServers().getWebServers()) {
+            int id = spike.getId();
+            utilizationSpike.computeIfAbsent(id, k -> new TimeMediateWelford()).iteration(spike.isBusy(), time);
+            meanJobsSpike.computeIfAbsent(id, k -> new TimeMediateWelford()).iteration(spike.getCurrentSI(), time);
+        }
+    }
+
     private int getRequestsProcessed(int id) {
         return requestsWSProcessed.computeIfAbsent(id, k -> 0);
     }
@@ -100,9 +189,10 @@ public class BatchMeans implements RunPolicy {
 
     @Override
     public void updateArrivalStats(double current, JobStats newJobStats, LoadBalancer loadBalancer) {
+        attemptsArrived++;
+        if (newJobStats.getJob().getAttempt() == 0) requestsArrived++;
         // Spike
-        utilizationSpike.iteration(loadBalancer.getSpikeServer().isBusy(), current);
-        meanJobsSpike.iteration(loadBalancer.getSpikeServer().getCurrentSI(), current);
+        updateSpikeTrackers(loadBalancer, current);
         // All Web Servers
         loadBalancer.getWebServers().getWebServers().forEach(ws -> {
             int id = ws.getId();
@@ -111,15 +201,14 @@ public class BatchMeans implements RunPolicy {
         });
         // num servers
         activeServers.iteration(loadBalancer.getWebServers().getWebServers().size(), current);
-        onlineServers.iteration(loadBalancer.getWebServers().getWebServers().size()+loadBalancer.getWebServers().getRemovingServers().size(), current);
+        onlineServers.iteration(loadBalancer.getWebServers().getBilledServerCount(), current);
     }
 
     @Override
     public void updateDepartureStats(double currentTime, JobStats departureJob, LoadBalancer loadBalancer, double responseTime) {
         countTotalDeparture++;
         // Spike update
-        utilizationSpike.iteration(loadBalancer.getSpikeServer().isBusy(), currentTime);
-        meanJobsSpike.iteration(loadBalancer.getSpikeServer().getCurrentSI(), currentTime);
+        updateSpikeTrackers(loadBalancer, currentTime);
 
         // Web Servers update
         double t = currentTime;
@@ -129,34 +218,57 @@ public class BatchMeans implements RunPolicy {
             getMeanJobsTracker(id).iteration(ws.getCurrentSI(), t);
         });
         // Response times + requests distribution
-        if (departureJob.getJob().getAssignedServer().getId() == -1) {
-            responseTimeSpike.iteration(responseTime);
-            spikeRequestsProcessed++;
+        Server assigned = departureJob.getJob().getAssignedServer();
+        if (SpikeTier.isSpikeServer(assigned)) {
+            responseTimeSpike.computeIfAbsent(assigned.getId(), k -> new WelfordSimple()).iteration(responseTime);
+            spikeRequestsProcessed.merge(assigned.getId(), 1, Integer::sum);
         } else {
             int id = departureJob.getJob().getAssignedServer().getId();
             getResponseTracker(id).iteration(responseTime);
             incrementRequestsProcessed(id);
         }
         responseR0.iteration(responseTime);
+        int sizeClass = sizeClass(departureJob.getOriginalSize());
+        responseBySize[sizeClass].iteration(responseTime);
+        slowdownBySize[sizeClass].iteration(responseTime / departureJob.getOriginalSize());
+        if (batchResponseCount == batchResponseTimes.length) {
+            batchResponseTimes = Arrays.copyOf(batchResponseTimes, batchResponseCount * 2);
+        }
+        batchResponseTimes[batchResponseCount++] = responseTime;
+        requestLatency.iteration(currentTime - departureJob.getRequestArrivalTime());
         // get if scaling action happened
-        if (loadBalancer.isScaleOutinThisDeparture()) scaleOutAction++;
-        if (loadBalancer.isScaleInThisDeparture()) scaleInAction++;
+        scaleOutAction += loadBalancer.getScaleOutinThisDeparture();
+        scaleInAction += loadBalancer.getScaleInThisDeparture();
+        serversReleased += loadBalancer.getServersReleasedThisDeparture();
+        serversLaunched += loadBalancer.getServersLaunchedThisDeparture();
         // num servers
         activeServers.iteration(loadBalancer.getWebServers().getWebServers().size(), currentTime);
-        onlineServers.iteration(loadBalancer.getWebServers().getWebServers().size()+loadBalancer.getWebServers().getRemovingServers().size(), currentTime);
+        onlineServers.iteration(loadBalancer.getWebServers().getBilledServerCount(), currentTime);
 
         // End of batch?
         if (countTotalDeparture == batchSize) {
             logger.log(Level.INFO, "Finished batch " + currentBatch);
             double elapsedTime = currentTime - time;
             time = currentTime;
-            printCsvs(elapsedTime);
+            printCsvs(elapsedTime, loadBalancer.getWebServers(), loadBalancer.getSpikeTier().getServers());
+            printDispatchers(loadBalancer);
+            printScalerState(loadBalancer);
+            printSpikeCredits(loadBalancer, elapsedTime);
+            printSpikeTier(loadBalancer.getSpikeTier(), elapsedTime);
             resetTrackers(time, loadBalancer);
             countTotalDeparture = 0;
             currentBatch++;
         }
     }
 
+    @Override
+    public void updateTimeoutStats(double currentTime, JobStats timedOutJob, LoadBalancer loadBalancer, double wastedWork, boolean retried) {
+        timeouts++;
+        if (!retried) giveUps++;
+        this.wastedWork += wastedWork;
+        this.abandonedWork += timedOutJob.getOriginalSize() - wastedWork;
+    }
+
     @Override
     public void updateFinalStats() {
         // no-op for now
@@ -164,31 +276,38 @@ public class BatchMeans implements RunPolicy {
 
     // ---------------- CSV printing ----------------
 
-    private void printCsvs(double elapsedTime) {
+    private void printCsvs(double elapsedTime, ServerPool pool, ServerPool spikePool) {
         int totalDepartures = countTotalDeparture;
-
-        // Spike
-        writeResponseRow(
-                currentBatch, totalDepartures,
-                -1, "SPIKE", spikeRequestsProcessed,
-                responseTimeSpike, elapsedTime
-        );
-        utilizationCsv.writeRow(
-                String.valueOf(currentBatch),
-                "-1", "SPIKE",
-                String.valueOf(totalDepartures),
-                String.valueOf(utilizationSpike.getMean()),
-                String.valueOf(utilizationSpike.getStdDev()),
-                String.valueOf(utilizationSpike.getVariance())
-        );
-        meanJobsCsv.writeRow(
-                String.valueOf(currentBatch),
-                "-1", "SPIKE",
-                String.valueOf(totalDepartures),
-                String.valueOf(meanJobsSpike.getMean()),
-                String.valueOf(meanJobsSpike.getStdDev()),
-                String.valueOf(meanJobsSpike.getVariance())
-        );
+        double batchCost = pool.getCost() - lastCost;
+        // the departures include the jobs served by the spike tier, so its cost is part of the cost per job
+        double spikeBatchCost = spikePool.getCost() - lastSpikeCost;
+
+        // Spike Servers
+        for (int id : utilizationSpike.keySet()) {
+            TimeMediateWelford util = utilizationSpike.get(id);
+            TimeMediateWelford jobs = meanJobsSpike.get(id);
+            writeResponseRow(
+                    currentBatch, totalDepartures,
+                    id, "SPIKE", spikeRequestsProcessed.getOrDefault(id, 0),
+                    responseTimeSpike.computeIfAbsent(id, k -> new WelfordSimple()), elapsedTime
+            );
+            utilizationCsv.writeRow(
+                    String.valueOf(currentBatch),
+                    String.valueOf(id), "SPIKE",
+                    String.valueOf(totalDepartures),
+                    String.valueOf(util.getMean()),
+                    String.valueOf(util.getStdDev()),
+                    String.valueOf(util.getVariance())
+            );
+            meanJobsCsv.writeRow(
+                    String.valueOf(currentBatch),
+                    String.valueOf(id), "SPIKE",
+                    String.valueOf(totalDepartures),
+                    String.valueOf(jobs.getMean()),
+                    String.valueOf(jobs.getStdDev()),
+                    String.valueOf(jobs.getVariance())
+            );
+        }
 
         // Web Servers
         for (int id : responseTimeWS.keySet()) {
@@ -220,6 +339,7 @@ public class BatchMeans implements RunPolicy {
             );
         }
         // R0 global
+        Arrays.sort(batchResponseTimes, 0, batchResponseCount);
         responseR0Csv.writeRow(
                 String.valueOf(currentBatch),
                 String.valueOf(totalDepartures),
@@ -229,16 +349,190 @@ public class BatchMeans implements RunPolicy {
                 String.valueOf(intervalEstimation.semiIntervalEstimation(
                         responseR0.getStandardVariation(), responseR0.getI())),
                 String.valueOf(scaleInAction),
-                String.valueOf(scaleOutAction)
+                String.valueOf(scaleOutAction),
+                String.valueOf(percentile(0.95)),
+                String.valueOf(percentile(0.99)),
+                String.valueOf(serversReleased),
+                String.valueOf(serversLaunched),
+                String.valueOf((batchCost + spikeBatchCost) / totalDepartures)
         );
 
+        // CPU allocated per online server: the integral of the allocation over the server-seconds of the batch
+        double onlineSeconds = (pool.getActiveSeconds() - lastActiveSeconds) + (pool.getWarmingSeconds() - lastWarmingSeconds);
+        double meanCpuAllocation = onlineSeconds > 0.0 ? (pool.getAllocatedCpuSeconds() - lastAllocatedCpuSeconds) / onlineSeconds : 0.0;
         serverActvityCsv.writeRow(
                 String.valueOf(currentBatch),
                 String.valueOf(activeServers.getMean()),
-                String.valueOf(onlineServers.getMean())
+                String.valueOf(onlineServers.getMean()),
+                String.valueOf((pool.getProvisioningSeconds() - lastProvisioningSeconds) / elapsedTime),
+                String.valueOf((pool.getWarmingSeconds() - lastWarmingSeconds) / elapsedTime),
+                String.valueOf((pool.getDrainingSeconds() - lastDrainingSeconds) / elapsedTime),
+                String.valueOf(batchCost),
+                String.valueOf(pool.getResizeUps() - lastResizeUps),
+                String.valueOf(pool.getResizeDowns() - lastResizeDowns),
+                String.valueOf(meanCpuAllocation)
+        );
+        lastProvisioningSeconds = pool.getProvisioningSeconds();
+        lastWarmingSeconds = pool.getWarmingSeconds();
+        lastDrainingSeconds = pool.getDrainingSeconds();
+        lastCost = pool.getCost();
+        lastAllocatedCpuSeconds = pool.getAllocatedCpuSeconds();
+        lastActiveSeconds = pool.getActiveSeconds();
+        lastResizeUps = pool.getResizeUps();
+        lastResizeDowns = pool.getResizeDowns();
+
+        for (int c = 0; c < responseBySize.length; c++) {
+            sizeClassesCsv.writeRow(
+                    String.valueOf(currentBatch),
+                    String.valueOf(c),
+                    String.valueOf(c == 0 ? 0.0 : SIZE_CLASS_BOUNDS[c - 1]),
+                    c == SIZE_CLASS_BOUNDS.length ? "inf" : String.valueOf(SIZE_CLASS_BOUNDS[c]),
+                    String.valueOf(responseBySize[c].getI()),
+                    String.valueOf(responseBySize[c].getAvg()),
+                    String.valueOf(responseBySize[c].getStandardVariation()),
+                    String.valueOf(slowdownBySize[c].getAvg())
+            );
+        }
+
+        // throughput counts every attempt sent to the servers, goodput only the responses the clients got
+        retriesCsv.writeRow(
+                String.valueOf(currentBatch),
+                String.valueOf(totalDepartures),
+                String.valueOf(requestsArrived),
+                String.valueOf(attemptsArrived),
+                String.valueOf(timeouts),
+                String.valueOf(giveUps),
+                String.format(Locale.US, "%.6f", elapsedTime > 0 ? attemptsArrived / elapsedTime : 0.0),
+                String.format(Locale.US, "%.6f", elapsedTime > 0 ? totalDepartures / elapsedTime : 0.0),
+                String.format(Locale.US, "%.4f", requestsArrived > 0 ? (double) attemptsArrived / requestsArrived : 0.0),
+                String.valueOf(wastedWork),
+                String.valueOf(abandonedWork),
+                String.valueOf(requestLatency.getAvg())
+        );
+    }
+
+    private void printDispatchers(LoadBalancer loadBalancer) {
+        long total = 0;
+        Map<Integer, long[]> deltas = new HashMap<>();
+        for (Dispatcher dispatcher : loadBalancer.getDispatchers()) {
+            long[] now = {dispatcher.getDispatchedJobs(), dispatcher.getChosenLoadSum(), dispatcher.getHerdingExcessSum(), dispatcher.getHerdedJobs()};
+            long[] last = dispatcherSnapshots.getOrDefault(dispatcher.getId(), new long[now.length]);
+            long[] delta = new long[now.length];
+            for (int i = 0; i < now.length; i++) {
+                delta[i] = now[i] - last[i];
+            }
+            dispatcherSnapshots.put(dispatcher.getId(), now);
+            deltas.put(dispatcher.getId(), delta);
+            total += delta[0];
+        }
+        for (Dispatcher dispatcher : loadBalancer.getDispatchers()) {
+            long[] delta = deltas.get(dispatcher.getId());
+            double jobs = delta[0];
+            dispatchersCsv.writeRow(
+                    String.valueOf(currentBatch),
+                    String.valueOf(dispatcher.getId()),
+                    String.valueOf(delta[0]),
+                    String.format(Locale.US, "%.2f", total > 0 ? 100.0 * jobs / total : 0.0),
+                    String.format(Locale.US, "%.4f", jobs > 0 ? delta[1] / jobs : 0.0),
+                    String.format(Locale.US, "%.4f", jobs > 0 ? delta[2] / jobs : 0.0),
+                    String.format(Locale.US, "%.2f", jobs > 0 ? 100.0 * delta[3] / jobs : 0.0)
+            );
+        }
+    }
+
+    // the row of a batch: means over its evaluations, then the controller at the last one
+    private void printScalerState(LoadBalancer loadBalancer) {
+        ScalerState state = loadBalancer.getHorizontalScaler().getState();
+        if (state == null) {
+            return;
+        }
+        long evaluations = state.getEvaluations() - lastEvaluations;
+        long saturated = state.getSaturatedEvaluations() - lastSaturated;
+        double errorSum = state.getErrorSum() - lastErrorSum;
+        double absErrorSum = state.getAbsErrorSum() - lastAbsErrorSum;
+        lastEvaluations = state.getEvaluations();
+        lastSaturated = state.getSaturatedEvaluations();
+        lastErrorSum = state.getErrorSum();
+        lastAbsErrorSum = state.getAbsErrorSum();
+        scalerStateCsv.writeRow(
+                String.valueOf(currentBatch),
+                String.valueOf(evaluations),
+                String.format(Locale.US, "%.4f", evaluations > 0 ? errorSum / evaluations : 0.0),
+                String.format(Locale.US, "%.4f", evaluations > 0 ? absErrorSum / evaluations : 0.0),
+                String.format(Locale.US, "%.2f", evaluations > 0 ? 100.0 * saturated / evaluations : 0.0),
+                String.valueOf(state.getMetric()),
+                String.valueOf(state.getError()),
+                String.valueOf(state.getProportional()),
+                String.valueOf(state.getIntegral()),
+                String.valueOf(state.getDerivative()),
+                String.valueOf(state.getOutput()),
+                String.valueOf(state.getDesiredServers())
         );
     }
 
+    // one row per burstable spike server in the tier
+    private void printSpikeCredits(LoadBalancer loadBalancer, double elapsedTime) {
+        Map<CpuCreditBucket, double[]> current = new HashMap<>();
+        for (Server spike : loadBalancer.getSpikeTier().getServers().getWebServers()) {
+            CpuCreditBucket credits = spike.getCpuCredits();
+            if (credits == null) {
+                continue;
+            }
+            double[] last = lastCredits.getOrDefault(credits, new double[2]);
+            double throttledSeconds = credits.getThrottledSeconds() - last[0];
+            int exhaustions = credits.getExhaustions() - (int) last[1];
+            current.put(credits, new double[]{credits.getThrottledSeconds(), credits.getExhaustions()});
+            spikeCreditsCsv.writeRow(
+                    String.valueOf(currentBatch),
+                    String.valueOf(spike.getId()),
+                    String.valueOf(credits.getBalance()),
+                    String.valueOf(credits.getMaxBalance()),
+                    String.format(Locale.US, "%.2f", 100.0 * throttledSeconds / elapsedTime),
+                    String.valueOf(exhaustions),
+                    String.valueOf(credits.isThrottled())
+            );
+        }
+        // the buckets of the released servers are forgotten
+        lastCredits.clear();
+        lastCredits.putAll(current);
+    }
+
+    private void printSpikeTier(SpikeTier tier, double elapsedTime) {
+        ServerPool pool = tier.getServers();
+        double activeSeconds = pool.getActiveSeconds() + pool.getWarmingSeconds();
+        double billedSeconds = activeSeconds + pool.getProvisioningSeconds() + pool.getDrainingSeconds();
+        spikeTierCsv.writeRow(
+                String.valueOf(currentBatch),
+                String.valueOf((activeSeconds - lastSpikeActiveSeconds) / elapsedTime),
+                String.valueOf((billedSeconds - lastSpikeBilledSeconds) / elapsedTime),
+                String.valueOf(tier.getScaleOutActions() - lastSpikeScaleOut),
+                String.valueOf(tier.getScaleInActions() - lastSpikeScaleIn),
+                String.valueOf(tier.getServersLaunched() - lastSpikeLaunched),
+                String.valueOf(tier.getServersReleased() - lastSpikeReleased),
+                String.valueOf(pool.getCost() - lastSpikeCost)
+        );
+        lastSpikeActiveSeconds = activeSeconds;
+        lastSpikeBilledSeconds = billedSeconds;
+        lastSpikeCost = pool.getCost();
+        lastSpikeScaleOut = tier.getScaleOutActions();
+        lastSpikeScaleIn = tier.getScaleInActions();
+        lastSpikeLaunched = tier.getServersLaunched();
+        lastSpikeReleased = tier.getServersReleased();
+    }
+
+    private static int sizeClass(double size) {
+        int c = 0;
+        while (c < SIZE_CLASS_BOUNDS.length && size >= SIZE_CLASS_BOUNDS[c]) c++;
+        return c;
+    }
+
+    // nearest-rank percentile of the (sorted) response times of the batch
+    private double percentile(double q) {
+        if (batchResponseCount == 0) return Double.NaN;
+        int rank = (int) Math.ceil(q * batchResponseCount);
+        return batchResponseTimes[Math.max(rank, 1) - 1];
+    }
+
     private void writeResponseRow(int batchId, int totalDepartures,
                                   int serverId, String type, int numProcessed,
                                   WelfordSimple respStats, double elapsedTime) {
@@ -267,20 +561,51 @@ public class BatchMeans implements RunPolicy {
         this.utilizationCsv.close();
         this.responseR0Csv.close();
         this.serverActvityCsv.close();
+        this.retriesCsv.close();
+        this.sizeClassesCsv.close();
+        this.dispatchersCsv.close();
+        this.scalerStateCsv.close();
+        this.spikeCreditsCsv.close();
+        this.spikeTierCsv.close();
     }
 
     // ---------------- Helpers ----------------
 
     private void resetTrackers(double currentTime, LoadBalancer lb) {
-        responseTimeSpike.reset();
-        utilizationSpike.reset(currentTime, lb.getSpikeServer().isBusy());
-        meanJobsSpike.reset(currentTime, lb.getSpikeServer().getCurrentSI());
+        // reset per ogni spike server attivo allo stato corrente, quelli rilasciati escono dall'output
+        Set<Integer> activeSpikes = new HashSet<>();
+        for (Server spike : lb.getSpikeTier().getServers().getWebServers()) {
+            activeSpikes.add(spike.getId());
+        }
+        responseTimeSpike.keySet().retainAll(activeSpikes);
+        utilizationSpike.keySet().retainAll(activeSpikes);
+        meanJobsSpike.keySet().retainAll(activeSpikes);
+        responseTimeSpike.values().forEach(WelfordSimple::reset);
+        for (Server spike : lb.getSpikeTier().getServers().getWebServers()) {
+            utilizationSpike.get(spike.getId()).reset(currentTime, spike.isBusy());
+            meanJobsSpike.get(spike.getId()).reset(currentTime, spike.getCurrentSI());
+        }
 
         responseR0.reset();
+        batchResponseCount = 0;
+        for (int c = 0; c < responseBySize.length; c++) {
+            responseBySize[c].reset();
+            slowdownBySize[c].reset();
+        }
         responseTimeWS.values().forEach(WelfordSimple::reset);
 
         scaleInAction = 0;
         scaleOutAction = 0;
+        serversReleased = 0;
+        serversLaunched = 0;
+
+        requestsArrived = 0;
+        attemptsArrived = 0;
+        timeouts = 0;
+        giveUps = 0;
+        wastedWork = 0.0;
+        abandonedWork = 0.0;
+        requestLatency.reset();
 
         // reset per ogni web server allo stato corrente
         lb.getWebServers().getWebServers().forEach(ws -> {
@@ -290,7 +615,7 @@ public class BatchMeans implements RunPolicy {
         });
 
         requestsWSProcessed.clear();
-        spikeRequestsProcessed = 0;
+        spikeRequestsProcessed.clear();
     }
 
 }
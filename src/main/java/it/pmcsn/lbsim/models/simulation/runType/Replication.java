@@ -1,6 +1,8 @@
 package it.pmcsn.lbsim.models.simulation.runType;
 
 import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.server.Server;
 import it.pmcsn.lbsim.models.simulation.JobStats;
 import it.pmcsn.lbsim.utils.TimeMediateWelford;
 import it.pmcsn.lbsim.utils.WelfordSimple;
@@ -10,6 +12,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,11 +31,7 @@ public class Replication implements RunPolicy {
     private CsvAppender allResponseCsv;
     private CsvAppender allSICsv;
     private CsvAppender allscalabilityCsv;
-    // Spike trackers
-    private final WelfordSimple responseTimeSpike = new WelfordSimple();
-    private final TimeMediateWelford utilizationSpike = new TimeMediateWelford();
-    private final TimeMediateWelford meanJobsSpike = new TimeMediateWelford();
-    // Web server trackers
+    // Spike and web server trackers: spike servers have negative ids
     private final Map<Integer, WelfordSimple> responseTimeWS = new HashMap<>();
     private final Map<Integer, TimeMediateWelford> utilizationWS = new HashMap<>();
     private final Map<Integer, TimeMediateWelford> meanJobsWS = new HashMap<>();
@@ -63,6 +62,12 @@ public class Replication implements RunPolicy {
         return meanJobsWS.computeIfAbsent(id, k -> new TimeMediateWelford());
     }
 
+    // spike servers first, then web servers
+    private static void forEachServer(LoadBalancer loadBalancer, Consumer<Server> action) {
+        loadBalancer.getSpikeTier().getServers().getWebServers().forEach(action);
+        loadBalancer.getWebServers().getWebServers().forEach(action);
+    }
+
     private void openCsvsForReplica() {
         try {
             perServerCsv = new CsvAppender(
@@ -90,12 +95,8 @@ public class Replication implements RunPolicy {
 
     @Override
     public void updateArrivalStats(double current, JobStats newJobStats, LoadBalancer loadBalancer) {
-        // Spike update
-        utilizationSpike.iteration(loadBalancer.getSpikeServer().isBusy(), current);
-        meanJobsSpike.iteration(loadBalancer.getSpikeServer().getCurrentSI(), current);
-
-        // Web servers update
-        loadBalancer.getWebServers().getWebServers().forEach(ws -> {
+        // Spike and web servers update
+        forEachServer(loadBalancer, ws -> {
             int id = ws.getId();
             getUtilizationTracker(id).iteration(ws.isBusy(), current);
             getMeanJobsTracker(id).iteration(ws.getCurrentSI(), current);
@@ -118,24 +119,15 @@ public class Replication implements RunPolicy {
     @Override
     public void updateDepartureStats(double currentTime, JobStats departureJob,
                                      LoadBalancer loadBalancer, double responseTime) {
-        // Spike updates
-        utilizationSpike.iteration(loadBalancer.getSpikeServer().isBusy(), currentTime);
-        meanJobsSpike.iteration(loadBalancer.getSpikeServer().getCurrentSI(), currentTime);
-
-        // Web Servers updates
-        loadBalancer.getWebServers().getWebServers().forEach(ws -> {
+        // Spike and web servers updates
+        forEachServer(loadBalancer, ws -> {
             int id = ws.getId();
             getUtilizationTracker(id).iteration(ws.isBusy(), currentTime);
             getMeanJobsTracker(id).iteration(ws.getCurrentSI(), currentTime);
         });
 
         // Response time update
-        if (departureJob.getJob().getAssignedServer().getId() == -1) {
-            responseTimeSpike.iteration(responseTime);
-        } else {
-            int id = departureJob.getJob().getAssignedServer().getId();
-            getResponseTracker(id).iteration(responseTime);
-        }
+        getResponseTracker(departureJob.getJob().getAssignedServer().getId()).iteration(responseTime);
 
         // R0 update
         responseR0.iteration(responseTime);
@@ -160,6 +152,11 @@ public class Replication implements RunPolicy {
         writeR0Row(currentTime);
     }
 
+    @Override
+    public void updateTimeoutStats(double currentTime, JobStats timedOutJob, LoadBalancer loadBalancer, double wastedWork, boolean retried) {
+        // no-op: abandoned jobs have no response time
+    }
+
     @Override
     public void updateFinalStats() {
         logger.log(Level.INFO, "Closing replica " + replica);
@@ -187,23 +184,8 @@ public class Replication implements RunPolicy {
     // ---------------- CSV writing ----------------
 
     private void writePerServerRows(double time, LoadBalancer loadBalancer) {
-        // Spike row
-        perServerCsv.writeRow(
-                String.valueOf(time),
-                "-1", "SPIKE",
-                String.valueOf(responseTimeSpike.getAvg()),
-                String.valueOf(responseTimeSpike.getStandardVariation()),
-                String.valueOf(responseTimeSpike.getVariance()),
-                String.valueOf(utilizationSpike.getMean()),
-                String.valueOf(utilizationSpike.getStdDev()),
-                String.valueOf(utilizationSpike.getVariance()),
-                String.valueOf(meanJobsSpike.getMean()),
-                String.valueOf(meanJobsSpike.getStdDev()),
-                String.valueOf(meanJobsSpike.getVariance())
-        );
-
-        // Web server rows
-        loadBalancer.getWebServers().getWebServers().forEach(ws -> {
+        // Spike and web server rows
+        forEachServer(loadBalancer, ws -> {
             int id = ws.getId();
             WelfordSimple resp = getResponseTracker(id);
             TimeMediateWelford util = getUtilizationTracker(id);
@@ -211,7 +193,7 @@ public class Replication implements RunPolicy {
 
             perServerCsv.writeRow(
                     String.valueOf(time),
-                    String.valueOf(id), "WEB",
+                    String.valueOf(id), SpikeTier.isSpikeServer(ws) ? "SPIKE" : "WEB",
                     String.valueOf(resp.getAvg()),
                     String.valueOf(resp.getStandardVariation()),
                     String.valueOf(resp.getVariance()),
@@ -237,10 +219,6 @@ public class Replication implements RunPolicy {
     // ---------------- Helpers ----------------
 
     private void resetTrackers() {
-        responseTimeSpike.reset();
-        utilizationSpike.reset();
-        meanJobsSpike.reset();
-
         responseR0.reset();
         responseTimeWS.values().forEach(WelfordSimple::reset);
         utilizationWS.values().forEach(TimeMediateWelford::reset);
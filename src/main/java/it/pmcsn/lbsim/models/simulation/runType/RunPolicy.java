@@ -10,6 +10,7 @@ public interface RunPolicy {
 
     void updateArrivalStats(double time, JobStats newJobStats, LoadBalancer loadBalancer);
     void updateDepartureStats(double currentTime, JobStats departureJob, LoadBalancer loadBalancer, double responseTime);
+    void updateTimeoutStats(double currentTime, JobStats timedOutJob, LoadBalancer loadBalancer, double wastedWork, boolean retried);
     void updateFinalStats();
     void closeCsvs();
 
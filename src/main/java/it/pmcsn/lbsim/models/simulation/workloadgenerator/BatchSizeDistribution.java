@@ -0,0 +1,23 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator;
+
+public enum BatchSizeDistribution {
+    NONE,
+    FIXED,
+    GEOMETRIC,
+    POISSON,
+    UNIFORM;
+
+    public static BatchSizeDistribution fromString(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        return switch (value.toLowerCase()) {
+            case "none" -> NONE;
+            case "fixed" -> FIXED;
+            case "geometric" -> GEOMETRIC;
+            case "poisson" -> POISSON;
+            case "uniform" -> UNIFORM;
+            default -> throw new IllegalArgumentException("Unknown batch size distribution: " + value);
+        };
+    }
+}
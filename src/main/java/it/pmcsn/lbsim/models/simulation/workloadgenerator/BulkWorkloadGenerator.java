@@ -0,0 +1,73 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator;
+
+import it.pmcsn.lbsim.utils.random.Rngs;
+import it.pmcsn.lbsim.utils.random.Rvgs;
+
+/**
+ * Arrivi a blocchi (bulk arrivals): ogni epoca di arrivo del generatore sottostante porta un numero casuale
+ * di job nello stesso istante, come i fan-out dei client. Istanti e dimensioni dei job sono quelli del
+ * generatore decorato, la dimensione del blocco è estratta su uno stream dedicato.
+ * - FIXED: sempre `max` job
+ * - GEOMETRIC: 1 + geometrica, con media `mean`
+ * - POISSON: 1 + poisson, con media `mean`
+ * - UNIFORM: equiprobabile in [min, max]
+ */
+public class BulkWorkloadGenerator implements WorkloadGenerator {
+    private final WorkloadGenerator epochs;
+    private final Rngs rngs;
+    private final Rvgs rvgs;
+    private final BatchSizeDistribution distribution;
+    private final double mean;
+    private final int min;
+    private final int max;
+    private final int stream;
+
+    public BulkWorkloadGenerator(WorkloadGenerator epochs, Rngs rngs, BatchSizeDistribution distribution, double mean, int min, int max, int stream) {
+        if (epochs == null) {
+            throw new IllegalArgumentException("Workload generator cannot be null");
+        }
+        switch (distribution) {
+            case FIXED -> {
+                if (max < 1) throw new IllegalArgumentException("Fixed batch size must be >= 1");
+            }
+            case GEOMETRIC, POISSON -> {
+                if (mean < 1.0) throw new IllegalArgumentException("Mean batch size must be >= 1");
+            }
+            case UNIFORM -> {
+                if (min < 1 || max < min) throw new IllegalArgumentException("Uniform batch size requires 1 <= min <= max");
+            }
+            case NONE -> throw new IllegalArgumentException("Bulk workload requires a batch size distribution");
+        }
+        this.epochs = epochs;
+        this.rngs = rngs;
+        this.rvgs = new Rvgs(rngs);
+        this.distribution = distribution;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.stream = stream;
+    }
+
+    @Override
+    public double nextArrival(double currentTime) {
+        return epochs.nextArrival(currentTime);
+    }
+
+    @Override
+    public double nextJobSize() {
+        return epochs.nextJobSize();
+    }
+
+    @Override
+    public int nextBatchSize() {
+        rngs.selectStream(stream);
+        return switch (distribution) {
+            case FIXED -> max;
+            // geometric(p) di Rvgs ha media p/(1-p), quindi p = (mean-1)/mean
+            case GEOMETRIC -> mean == 1.0 ? 1 : 1 + (int) rvgs.geometric((mean - 1.0) / mean);
+            case POISSON -> mean == 1.0 ? 1 : 1 + (int) rvgs.poisson(mean - 1.0);
+            case UNIFORM -> min == max ? min : (int) rvgs.equilikely(min, max);
+            case NONE -> 1;
+        };
+    }
+}
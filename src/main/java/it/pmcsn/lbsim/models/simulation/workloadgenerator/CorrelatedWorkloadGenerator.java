@@ -0,0 +1,109 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator;
+
+import it.pmcsn.lbsim.utils.random.HyperExponential;
+import it.pmcsn.lbsim.utils.random.Rngs;
+
+/**
+ * Generatore con dimensioni dei job autocorrelate (Markov-modulated H2).
+ *
+ * La fase dell'iperesponenziale delle dimensioni non è più estratta in modo indipendente ad ogni job ma evolve
+ * come una catena di Markov a due stati con distribuzione stazionaria (p, 1-p): la marginale resta quella
+ * dell'H2 configurata, mentre i job grandi arrivano a grappoli. Con autovalore λ della catena la correlazione
+ * a lag k vale ρ_k = λ^k · Var(μ_R) / Var(X), quindi λ si ricava dal ρ_1 richiesto.
+ *
+ * Opzionalmente la dimensione di un job dipende dall'ultimo interarrivo estratto: con probabilità |coupling|
+ * sia la transizione di fase sia l'esponenziale della dimensione riusano gli uniformi dell'interarrivo
+ * (u se coupling > 0, 1-u se < 0), altrimenti ne vengono estratti di indipendenti. Gli uniformi riusati sono
+ * indipendenti dalla storia della catena, quindi marginale e autocorrelazione delle dimensioni non cambiano.
+ * Il coupling è una probabilità di accoppiamento, non la correlazione interarrivo-dimensione ottenuta: questa
+ * dipende anche dalle due H2 ed è molto più bassa (con le H2 di default e coupling 0.5 vale circa 0.21).
+ */
+public class CorrelatedWorkloadGenerator implements WorkloadGenerator {
+    private final Rngs rngs;
+    private final HyperExponential interarrival;
+    private final HyperExponential service;
+    private final double leaveLarge;        // P(fase m1 -> fase m2), la fase m1 ha probabilità p e media maggiore
+    private final double leaveSmall;        // P(fase m2 -> fase m1)
+    private final double coupling;
+    private final int couplingStream;
+
+    private boolean largePhase;             // fase corrente delle dimensioni (true = media m1)
+    private double lastPhaseUniform;        // uniformi dell'ultimo interarrivo, riusati dal coupling
+    private double lastGapUniform;
+
+    public CorrelatedWorkloadGenerator(Rngs rngs, HyperExponential interarrival, HyperExponential service, double sizeLag1, double coupling, int couplingStream) {
+        if (coupling < -1.0 || coupling > 1.0) {
+            throw new IllegalArgumentException("Gap-size coupling must be in [-1, 1]");
+        }
+        double maxLag1 = maxSizeLag1(service);
+        if (sizeLag1 < 0.0 || sizeLag1 > maxLag1) {
+            throw new IllegalArgumentException("Size lag-1 correlation must be in [0, " + maxLag1 + "] for this hyperexponential");
+        }
+        this.rngs = rngs;
+        this.interarrival = interarrival;
+        this.service = service;
+        double lambda = sizeLag1 / maxLag1;
+        double p = service.getP();
+        this.leaveLarge = (1.0 - lambda) * (1.0 - p);
+        this.leaveSmall = (1.0 - lambda) * p;
+        this.coupling = coupling;
+        this.couplingStream = couplingStream;
+        // stato iniziale estratto dalla stazionaria, così la marginale è corretta fin dal primo job
+        rngs.selectStream(service.getStreamP());
+        this.largePhase = rngs.random() < p;
+        this.lastPhaseUniform = 0.5;
+        this.lastGapUniform = 0.5;
+    }
+
+    /**
+     * Massima correlazione a lag 1 ottenibile modulando la fase: Var(μ_R) / Var(X), raggiunta con λ = 1.
+     */
+    public static double maxSizeLag1(HyperExponential h) {
+        double p = h.getP();
+        double m1 = h.getM1();
+        double m2 = h.getM2();
+        double mean = p * m1 + (1 - p) * m2;
+        double variance = 2.0 * (p * m1 * m1 + (1 - p) * m2 * m2) - mean * mean;
+        double phaseVariance = p * (1 - p) * (m1 - m2) * (m1 - m2);
+        return phaseVariance / variance;
+    }
+
+    @Override
+    public double nextArrival(double currentTime) {
+        rngs.selectStream(interarrival.getStreamP());
+        lastPhaseUniform = rngs.random();
+        boolean large = lastPhaseUniform < interarrival.getP();
+        rngs.selectStream(large ? interarrival.getStreamExp1() : interarrival.getStreamExp2());
+        double m = large ? interarrival.getM1() : interarrival.getM2();
+        lastGapUniform = rngs.random();
+        return currentTime - m * Math.log(1.0 - lastGapUniform);
+    }
+
+    @Override
+    public double nextJobSize() {
+        boolean coupled = coupling != 0.0 && takeCoupled();
+        double v;
+        if (coupled) {
+            v = coupling > 0.0 ? lastPhaseUniform : 1.0 - lastPhaseUniform;
+        } else {
+            rngs.selectStream(service.getStreamP());
+            v = rngs.random();
+        }
+        // in entrambi gli stati un v piccolo porta nella fase m1, come per l'interarrivo: il coupling è monotono
+        largePhase = largePhase ? v < 1.0 - leaveLarge : v < leaveSmall;
+        double m = largePhase ? service.getM1() : service.getM2();
+        double u;
+        if (coupled) {
+            u = coupling > 0.0 ? lastGapUniform : 1.0 - lastGapUniform;
+        } else {
+            rngs.selectStream(largePhase ? service.getStreamExp1() : service.getStreamExp2());
+            u = rngs.random();
+        }
+        return -m * Math.log(1.0 - u);
+    }
+
+    private boolean takeCoupled() {
+        rngs.selectStream(couplingStream);
+        return rngs.random() < Math.abs(coupling);
+    }
+}
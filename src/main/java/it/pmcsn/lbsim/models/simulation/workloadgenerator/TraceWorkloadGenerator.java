@@ -1,51 +1,58 @@
 package it.pmcsn.lbsim.models.simulation.workloadgenerator;
 
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.trace.TracePipeline;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.trace.TraceSource;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.List;
 
 /**
- * Workload generator che legge arrivi e job size da due file.
+ * Workload generator che legge arrivi e job size da una traccia.
  * - Il file arrivi contiene una lista di timestamp (uno per riga).
  * - Il file size contiene una lista di dimensioni (uno per riga).
- * Vincolo: sizes.size() >= arrivals.size()
+ * La traccia è letta in streaming da un TraceSource, eventualmente trasformata da una TracePipeline
+ * (scaling dei tempi, sovrapposizione, repliche, splicing) senza materializzarla in memoria.
+ * Vincoli, verificati mentre i record sono letti e non all'apertura:
+ * - ogni arrivo deve avere la sua size, altrimenti nextArrival lancia IllegalStateException a quel record;
+ * - gli arrivi devono essere ordinati; le size in più oltre l'ultimo arrivo sono ignorate.
+ * Finita la traccia nextArrival restituisce +inf.
  */
 public class TraceWorkloadGenerator implements WorkloadGenerator {
 
-    private final List<Double> arrivals;
-    private final List<Double> sizes;
-    private final Iterator<Double> arrivalIt;
-    private final Iterator<Double> sizeIt;
+    private final TraceSource source;
+    private boolean finished = false;
 
     private double lastArrival = Double.NaN;
     private double lastSize = Double.NaN;
 
     public TraceWorkloadGenerator(Path arrivalsFile, Path sizesFile) throws IOException {
-        this.arrivals = readDoubles(arrivalsFile);
-        this.sizes = readDoubles(sizesFile);
+        this(openChecked(arrivalsFile, sizesFile));
+    }
 
-        if (sizes.size() < arrivals.size()) {
-            throw new IllegalArgumentException(
-                    "Trace file error: number of sizes (" + sizes.size() +
-                            ") is smaller than number of arrivals (" + arrivals.size() + ")");
-        }
+    public TraceWorkloadGenerator(TracePipeline pipeline) {
+        this(pipeline.open());
+    }
 
-        this.arrivalIt = arrivals.iterator();
-        this.sizeIt = sizes.iterator();
+    public TraceWorkloadGenerator(TraceSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Trace source cannot be null");
+        }
+        this.source = source;
     }
 
     @Override
     public double nextArrival(double currentTime) {
-        if (!arrivalIt.hasNext()) {
-            return Double.POSITIVE_INFINITY; // end of trace
+        if (finished) {
+            return Double.POSITIVE_INFINITY;
         }
-        lastArrival = arrivalIt.next();
-        if (!sizeIt.hasNext()) {
-            throw new IllegalStateException("Ran out of job sizes before arrivals were finished");
+        if (!source.advance()) {
+            finished = true;
+            source.close();
+            return Double.POSITIVE_INFINITY; // end of trace
         }
-        lastSize = sizeIt.next();
+        lastArrival = source.arrivalTime();
+        lastSize = source.size();
         return lastArrival;
     }
 
@@ -57,15 +64,12 @@ public class TraceWorkloadGenerator implements WorkloadGenerator {
         return lastSize;
     }
 
-    private static List<Double> readDoubles(Path file) throws IOException {
-        return Files.readAllLines(file).stream()
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(Double::parseDouble)
-                .toList();
-    }
-
-    public int getSizeArrival() {
-        return arrivals.size();
+    private static TraceSource openChecked(Path arrivalsFile, Path sizesFile) throws IOException {
+        for (Path file : new Path[]{arrivalsFile, sizesFile}) {
+            if (!Files.isReadable(file)) {
+                throw new IOException("Trace file not readable: " + file);
+            }
+        }
+        return TracePipeline.fromFiles(arrivalsFile, sizesFile).open();
     }
 }
@@ -10,5 +10,12 @@ public interface WorkloadGenerator {
      * Restituisce la dimensione del job (tempo di servizio richiesto).
      */
     double nextJobSize();
+
+    /**
+     * Restituisce il numero di job che arrivano insieme nell'epoca di arrivo corrente (1 = arrivi singoli).
+     */
+    default int nextBatchSize() {
+        return 1;
+    }
 }
 
@@ -4,7 +4,8 @@ public enum WorkloadType {
     HYPEREXPONENTIAL,
     EXPONENTIAL,
     TRACE,
-    FULLEXP;
+    FULLEXP,
+    CORRELATED;
 
     public static WorkloadType fromString(String value) {
         if (value == null) {
@@ -15,6 +16,7 @@ public enum WorkloadType {
             case "exponential" -> EXPONENTIAL;
             case "trace" -> TRACE;
             case "fullexp" -> FULLEXP;
+            case "correlated" -> CORRELATED;
             default -> throw new IllegalArgumentException("Unknown scheduling policy: " + value);
         };
     }
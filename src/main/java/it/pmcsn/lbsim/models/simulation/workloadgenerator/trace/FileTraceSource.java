@@ -0,0 +1,81 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the two trace files (one arrival time per line, one size per line) without loading them in memory.
+ */
+public class FileTraceSource implements TraceSource {
+
+    private final BufferedReader arrivals;
+    private final BufferedReader sizes;
+    private double arrivalTime = Double.NaN;
+    private double size = Double.NaN;
+
+    public FileTraceSource(Path arrivalsFile, Path sizesFile) {
+        try {
+            this.arrivals = Files.newBufferedReader(arrivalsFile);
+            this.sizes = Files.newBufferedReader(sizesFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trace " + arrivalsFile + ", " + sizesFile, e);
+        }
+    }
+
+    @Override
+    public boolean advance() {
+        String arrival = nextValue(arrivals);
+        if (arrival == null) {
+            return false;
+        }
+        String jobSize = nextValue(sizes);
+        if (jobSize == null) {
+            throw new IllegalStateException("Ran out of job sizes before arrivals were finished");
+        }
+        double next = Double.parseDouble(arrival);
+        if (next < arrivalTime) {
+            throw new IllegalStateException("Trace arrivals are not sorted: " + next + " after " + arrivalTime);
+        }
+        arrivalTime = next;
+        size = Double.parseDouble(jobSize);
+        return true;
+    }
+
+    @Override
+    public double arrivalTime() {
+        return arrivalTime;
+    }
+
+    @Override
+    public double size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        try {
+            arrivals.close();
+            sizes.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String nextValue(BufferedReader reader) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    return line;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+/**
+ * Multiplies every interarrival time by a factor: factor < 1 compresses the trace (more traffic),
+ * factor > 1 dilates it. The first arrival is kept in place.
+ * E.g. "traffic grows 30%" is factor 1/1.3.
+ */
+public class ScaledTraceSource implements TraceSource {
+
+    private final TraceSource source;
+    private final double factor;
+    private double origin = Double.NaN;
+
+    public ScaledTraceSource(TraceSource source, double factor) {
+        if (factor <= 0) {
+            throw new IllegalArgumentException("Time scale factor must be > 0");
+        }
+        this.source = source;
+        this.factor = factor;
+    }
+
+    @Override
+    public boolean advance() {
+        if (!source.advance()) {
+            return false;
+        }
+        if (Double.isNaN(origin)) {
+            origin = source.arrivalTime();
+        }
+        return true;
+    }
+
+    @Override
+    public double arrivalTime() {
+        return origin + (source.arrivalTime() - origin) * factor;
+    }
+
+    @Override
+    public double size() {
+        return source.size();
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+}
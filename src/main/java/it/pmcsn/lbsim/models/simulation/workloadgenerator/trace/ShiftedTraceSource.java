@@ -0,0 +1,35 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+/**
+ * Adds a constant offset to every arrival time.
+ */
+public class ShiftedTraceSource implements TraceSource {
+
+    private final TraceSource source;
+    private final double offset;
+
+    public ShiftedTraceSource(TraceSource source, double offset) {
+        this.source = source;
+        this.offset = offset;
+    }
+
+    @Override
+    public boolean advance() {
+        return source.advance();
+    }
+
+    @Override
+    public double arrivalTime() {
+        return source.arrivalTime() + offset;
+    }
+
+    @Override
+    public double size() {
+        return source.size();
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+}
@@ -0,0 +1,80 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Concatenates time windows [from, to) cut from traces. Every segment is re-based so that it starts
+ * where the previous one ended; segments are opened lazily, one at a time.
+ */
+public class SplicedTraceSource implements TraceSource {
+
+    public record Segment(Supplier<TraceSource> trace, double from, double to) {
+        public Segment {
+            if (trace == null) throw new IllegalArgumentException("Segment trace cannot be null");
+            if (from < 0 || to <= from) throw new IllegalArgumentException("Require 0 <= from < to");
+        }
+    }
+
+    private final List<Segment> segments;
+    private int segmentIndex = -1;
+    private TraceSource current = null;
+    private double segmentStart = 0.0; // spliced time at which the current segment begins
+
+    public SplicedTraceSource(List<Segment> segments) {
+        if (segments == null || segments.isEmpty()) {
+            throw new IllegalArgumentException("At least one segment is required");
+        }
+        this.segments = List.copyOf(segments);
+    }
+
+    @Override
+    public boolean advance() {
+        while (true) {
+            if (current == null && !openNextSegment()) {
+                return false;
+            }
+            Segment segment = segments.get(segmentIndex);
+            while (current.advance()) {
+                double t = current.arrivalTime();
+                if (t >= segment.to()) {
+                    break;
+                }
+                if (t >= segment.from()) {
+                    return true;
+                }
+            }
+            current.close();
+            current = null;
+            segmentStart += segment.to() - segment.from();
+        }
+    }
+
+    private boolean openNextSegment() {
+        if (segmentIndex + 1 >= segments.size()) {
+            return false;
+        }
+        segmentIndex++;
+        current = segments.get(segmentIndex).trace().get();
+        return true;
+    }
+
+    @Override
+    public double arrivalTime() {
+        return segmentStart + current.arrivalTime() - segments.get(segmentIndex).from();
+    }
+
+    @Override
+    public double size() {
+        return current.size();
+    }
+
+    @Override
+    public void close() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        segmentIndex = segments.size();
+    }
+}
@@ -0,0 +1,61 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Superposition of several traces: a k-way merge on a heap keyed by the next arrival of every source.
+ * Only the head of each source is kept in memory. Equal arrival times are ordered by source index.
+ */
+public class SuperposedTraceSource implements TraceSource {
+
+    private final List<TraceSource> sources;
+    private final PriorityQueue<Integer> heap;
+    private int current = -1;
+    private boolean started = false;
+
+    public SuperposedTraceSource(List<TraceSource> sources) {
+        if (sources == null || sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one trace is required");
+        }
+        this.sources = List.copyOf(sources);
+        this.heap = new PriorityQueue<>(sources.size(), (a, b) -> {
+            int c = Double.compare(this.sources.get(a).arrivalTime(), this.sources.get(b).arrivalTime());
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+    }
+
+    @Override
+    public boolean advance() {
+        if (!started) {
+            started = true;
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i).advance()) {
+                    heap.add(i);
+                }
+            }
+        }
+        // the source served last time is moved forward only now, so its current record stays readable
+        if (current >= 0 && sources.get(current).advance()) {
+            heap.add(current);
+        }
+        Integer next = heap.poll();
+        current = next == null ? -1 : next;
+        return current >= 0;
+    }
+
+    @Override
+    public double arrivalTime() {
+        return sources.get(current).arrivalTime();
+    }
+
+    @Override
+    public double size() {
+        return sources.get(current).size();
+    }
+
+    @Override
+    public void close() {
+        sources.forEach(TraceSource::close);
+    }
+}
@@ -0,0 +1,73 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Immutable description of a chain of trace transformations. Nothing is read until {@link #open()}
+ * is called, and the resulting source streams the transformed trace without materialising it.
+ * <p>
+ * Example: {@code TracePipeline.fromFiles(a, s).replicate(3, 60).scale(1 / 1.3).open()}
+ */
+public class TracePipeline {
+
+    private final Supplier<TraceSource> factory;
+
+    private TracePipeline(Supplier<TraceSource> factory) {
+        this.factory = factory;
+    }
+
+    public static TracePipeline fromFiles(Path arrivals, Path sizes) {
+        return new TracePipeline(() -> new FileTraceSource(arrivals, sizes));
+    }
+
+    /** Compresses (factor < 1) or dilates (factor > 1) the interarrival times. */
+    public TracePipeline scale(double factor) {
+        if (factor <= 0) throw new IllegalArgumentException("Time scale factor must be > 0");
+        if (factor == 1.0) return this;
+        Supplier<TraceSource> source = factory;
+        return new TracePipeline(() -> new ScaledTraceSource(source.get(), factor));
+    }
+
+    public TracePipeline shift(double offset) {
+        if (offset == 0.0) return this;
+        Supplier<TraceSource> source = factory;
+        return new TracePipeline(() -> new ShiftedTraceSource(source.get(), offset));
+    }
+
+    /** Superposes this trace with the given ones. */
+    public TracePipeline superpose(List<TracePipeline> others) {
+        if (others == null || others.isEmpty()) return this;
+        List<TracePipeline> all = new ArrayList<>();
+        all.add(this);
+        all.addAll(others);
+        return new TracePipeline(() -> new SuperposedTraceSource(all.stream().map(TracePipeline::open).toList()));
+    }
+
+    /** Superposes {@code copies} replicas of this trace, replica i shifted by i * offset seconds. */
+    public TracePipeline replicate(int copies, double offset) {
+        if (copies < 1) throw new IllegalArgumentException("Replicas must be >= 1");
+        if (offset < 0) throw new IllegalArgumentException("Replica offset must be >= 0");
+        if (copies == 1) return this;
+        List<TracePipeline> shifted = new ArrayList<>();
+        for (int i = 1; i < copies; i++) {
+            shifted.add(shift(i * offset));
+        }
+        return superpose(shifted);
+    }
+
+    /** Keeps only the windows [segment[0], segment[1]) of this trace, concatenated in the given order. */
+    public TracePipeline splice(List<double[]> windows) {
+        if (windows == null || windows.isEmpty()) return this;
+        List<SplicedTraceSource.Segment> segments = windows.stream()
+                .map(w -> new SplicedTraceSource.Segment(factory, w[0], w[1]))
+                .toList();
+        return new TracePipeline(() -> new SplicedTraceSource(segments));
+    }
+
+    public TraceSource open() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,23 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator.trace;
+
+/**
+ * Lazy cursor over a trace of (arrival time, job size) pairs sorted by arrival time.
+ * Values are exposed as primitives to avoid boxing on the hot path.
+ */
+public interface TraceSource extends AutoCloseable {
+
+    /**
+     * Moves to the next request of the trace.
+     * @return false when the trace is over
+     */
+    boolean advance();
+
+    /** Absolute arrival time of the current request (seconds). */
+    double arrivalTime();
+
+    /** Size of the current request (seconds of service). */
+    double size();
+
+    @Override
+    void close();
+}
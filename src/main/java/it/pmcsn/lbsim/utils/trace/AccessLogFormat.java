@@ -0,0 +1,30 @@
+package it.pmcsn.lbsim.utils.trace;
+
+public enum AccessLogFormat {
+    COMMON,
+    COMBINED,
+    COMMON_DURATION,     // common followed by a request duration field, e.g. Apache %D
+    COMBINED_DURATION,   // combined followed by a request duration field
+    REGEX,
+    CSV;
+
+    // the lines end with a duration field that can be used as size proxy
+    public boolean hasDurationField() {
+        return this == COMMON_DURATION || this == COMBINED_DURATION;
+    }
+
+    public static AccessLogFormat fromString(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Access log format cannot be null");
+        }
+        return switch (value.toLowerCase()) {
+            case "common" -> COMMON;
+            case "combined" -> COMBINED;
+            case "common_duration" -> COMMON_DURATION;
+            case "combined_duration" -> COMBINED_DURATION;
+            case "regex" -> REGEX;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("Unknown access log format: " + value);
+        };
+    }
+}
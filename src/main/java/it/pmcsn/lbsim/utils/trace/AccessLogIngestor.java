@@ -0,0 +1,323 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import it.pmcsn.lbsim.config.ConfigLoader;
+import it.pmcsn.lbsim.config.SimConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts a web server access log into the two trace files read by TraceWorkloadGenerator
+ * (arrival times relative to the first request, job sizes in seconds).
+ * <p>
+ * The log is memory mapped and split in chunks aligned to line boundaries; every chunk is parsed
+ * by a worker thread into a run sorted by timestamp, then the runs are combined with a k-way merge
+ * and streamed to the output files.
+ * <p>
+ * Usage: {@code AccessLogIngestor [accessLog arrivalsOut sizesOut]}, defaults are taken from the
+ * ingestion section of config.yaml. The default outputs live under {@code output/trace/}, so a plain run never
+ * overwrites the trace the simulator reads from {@code path}.
+ */
+public class AccessLogIngestor {
+    private static final String configFilePath = "config.yaml"; // Default configuration file path
+    private static final Logger logger = Logger.getLogger(AccessLogIngestor.class.getName());
+    private static final long MIN_CHUNK_BYTES = 1L << 20;             // 1 MiB
+    private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE - 8; // limit of a single mapping
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Supplier<LogLineParser> parserFactory;
+    private final double sizeScale;
+    private final int threads;
+    private final boolean skipHeader;
+
+    private long malformedLines;
+
+    /**
+     * @param parserFactory creates a parser for every chunk (parsers are not shared between threads)
+     * @param sizeScale     factor converting the size proxy into seconds of service demand (> 0)
+     * @param threads       worker threads, 0 means one per available core
+     * @param skipHeader    discard the first line of the file
+     */
+    public AccessLogIngestor(Supplier<LogLineParser> parserFactory, double sizeScale, int threads, boolean skipHeader) {
+        if (parserFactory == null) throw new IllegalArgumentException("Parser factory cannot be null");
+        if (sizeScale <= 0) throw new IllegalArgumentException("Size scale must be > 0");
+        if (threads < 0) throw new IllegalArgumentException("Threads must be >= 0");
+        this.parserFactory = parserFactory;
+        this.sizeScale = sizeScale;
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.skipHeader = skipHeader;
+    }
+
+    public static void main(String[] args) {
+        SimConfiguration config = ConfigLoader.load(configFilePath);
+        Path log = Path.of(args.length > 0 ? args[0] : config.getAccessLogPath());
+        Path arrivals = Path.of(args.length > 1 ? args[1] : config.getAccessLogArrivalsOutPath());
+        Path sizes = Path.of(args.length > 2 ? args[2] : config.getAccessLogSizesOutPath());
+        if (!Files.isRegularFile(log)) {
+            throw new IllegalArgumentException("Access log not found: " + log.toAbsolutePath());
+        }
+
+        AccessLogIngestor ingestor = new AccessLogIngestor(parserFactory(config), config.getAccessLogSizeScale(),
+                config.getAccessLogThreads(), config.getAccessLogSkipHeader());
+        try {
+            long start = System.nanoTime();
+            long records = ingestor.ingest(log, arrivals, sizes);
+            logger.log(Level.INFO, "Ingested {0} requests from {1} in {2} ms ({3} malformed lines skipped)",
+                    new Object[]{records, log, (System.nanoTime() - start) / 1_000_000, ingestor.getMalformedLines()});
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static Supplier<LogLineParser> parserFactory(SimConfiguration config) {
+        AccessLogFormat format = config.getAccessLogFormat();
+        return switch (format) {
+            case COMMON, COMBINED, COMMON_DURATION, COMBINED_DURATION -> {
+                ClfLineParser.SizeField sizeField = ClfLineParser.SizeField.fromString(config.getAccessLogSizeField());
+                // plain CLF lines have no duration: reading one would mark every line as malformed
+                if (sizeField == ClfLineParser.SizeField.DURATION && !format.hasDurationField()) {
+                    throw new IllegalArgumentException("Size field duration needs a format with a duration field (common_duration, combined_duration), not " + format);
+                }
+                yield () -> new ClfLineParser(sizeField);
+            }
+            case REGEX -> {
+                TimestampParser timestamps = TimestampParser.of(config.getAccessLogTimeFormat());
+                yield () -> new RegexLineParser(config.getAccessLogRegex(), timestamps);
+            }
+            case CSV -> {
+                TimestampParser timestamps = TimestampParser.of(config.getAccessLogTimeFormat());
+                yield () -> new CsvLineParser(config.getAccessLogCsvSeparator(), config.getAccessLogTimeColumn(),
+                        config.getAccessLogSizeColumn(), timestamps);
+            }
+        };
+    }
+
+    /**
+     * Parses the whole log and writes the trace.
+     *
+     * @return number of requests written
+     */
+    public long ingest(Path logFile, Path arrivalsOut, Path sizesOut) throws IOException {
+        malformedLines = 0;
+        List<Run> runs = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            List<long[]> chunks = splitInChunks(channel);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, chunks.size())));
+            try {
+                List<Future<Run>> futures = new ArrayList<>(chunks.size());
+                for (int i = 0; i < chunks.size(); i++) {
+                    long[] chunk = chunks.get(i);
+                    boolean skipFirstLine = skipHeader && i == 0;
+                    futures.add(executor.submit(() -> parseChunk(channel, chunk[0], chunk[1], skipFirstLine)));
+                }
+                for (Future<Run> future : futures) {
+                    Run run = future.get();
+                    malformedLines += run.malformed;
+                    if (run.size > 0) {
+                        runs.add(run);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Ingestion interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to parse " + logFile, e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return mergeAndWrite(runs, arrivalsOut, sizesOut);
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    // ---------------- Chunking ----------------
+
+    // Returns [start, end) byte ranges; every range but the last ends right after a '\n'
+    private List<long[]> splitInChunks(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        long target = Math.min(MAX_CHUNK_BYTES,
+                Math.max(MIN_CHUNK_BYTES, fileSize / ((long) threads * CHUNKS_PER_THREAD) + 1));
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < fileSize) {
+            long end = Math.min(fileSize, start + target);
+            if (end < fileSize) {
+                end = nextLineStart(channel, end, fileSize);
+            }
+            if (end - start > MAX_CHUNK_BYTES) {
+                throw new IOException("Line longer than " + MAX_CHUNK_BYTES + " bytes at offset " + start);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        while (position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    // ---------------- Parsing ----------------
+
+    private Run parseChunk(FileChannel channel, long start, long end, boolean skipFirstLine) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        LogLineParser parser = parserFactory.get();
+        Run run = new Run((int) Math.max(16, (end - start) / 128));
+        double[] parsed = new double[2];
+        byte[] line = new byte[512];
+        int length = 0;
+        boolean skip = skipFirstLine;
+        int limit = buffer.limit();
+        for (int i = 0; i <= limit; i++) {
+            byte c = i < limit ? buffer.get(i) : (byte) '\n';
+            if (c != '\n') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[length++] = c;
+                continue;
+            }
+            if (length > 0 && line[length - 1] == '\r') length--;
+            if (skip) {
+                skip = false;
+            } else if (length > 0) {
+                if (parser.parse(line, length, parsed)) {
+                    run.add(parsed[0], parsed[1] * sizeScale);
+                } else {
+                    run.malformed++;
+                }
+            }
+            length = 0;
+        }
+        run.sortByTime();
+        return run;
+    }
+
+    // ---------------- Merge ----------------
+
+    private static long mergeAndWrite(List<Run> runs, Path arrivalsOut, Path sizesOut) throws IOException {
+        for (Path out : new Path[]{arrivalsOut, sizesOut}) {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+        }
+        // cursor = {run index, position}; ties broken by run index so that equal timestamps keep file order
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+            int c = Double.compare(runs.get(a[0]).times[a[1]], runs.get(b[0]).times[b[1]]);
+            return c != 0 ? c : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < runs.size(); i++) {
+            heap.add(new int[]{i, 0});
+        }
+        long written = 0;
+        double origin = Double.NaN;
+        try (BufferedWriter arrivals = Files.newBufferedWriter(arrivalsOut, StandardCharsets.UTF_8);
+             BufferedWriter sizes = Files.newBufferedWriter(sizesOut, StandardCharsets.UTF_8)) {
+            while (!heap.isEmpty()) {
+                int[] cursor = heap.poll();
+                Run run = runs.get(cursor[0]);
+                double time = run.times[cursor[1]];
+                if (Double.isNaN(origin)) {
+                    origin = time;
+                }
+                arrivals.write(Double.toString(time - origin));
+                arrivals.newLine();
+                sizes.write(Double.toString(run.sizes[cursor[1]]));
+                sizes.newLine();
+                written++;
+                if (++cursor[1] < run.size) {
+                    heap.add(cursor);
+                }
+            }
+        }
+        return written;
+    }
+
+    // Sorted run of (timestamp, size) pairs produced by a single chunk, kept in primitive arrays
+    private static final class Run {
+        private double[] times;
+        private double[] sizes;
+        private int size = 0;
+        private long malformed = 0;
+
+        Run(int capacity) {
+            this.times = new double[capacity];
+            this.sizes = new double[capacity];
+        }
+
+        void add(double time, double jobSize) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                sizes = Arrays.copyOf(sizes, size * 2);
+            }
+            times[size] = time;
+            sizes[size] = jobSize;
+            size++;
+        }
+
+        // Logs are almost sorted: skip the sort when possible, otherwise stable merge sort
+        void sortByTime() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = times[i - 1] <= times[i];
+            }
+            if (sorted) return;
+            double[] tmpTimes = new double[size];
+            double[] tmpSizes = new double[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int lo = 0; lo < size - width; lo += 2 * width) {
+                    merge(lo, lo + width, Math.min(lo + 2 * width, size), tmpTimes, tmpSizes);
+                }
+            }
+        }
+
+        private void merge(int lo, int mid, int hi, double[] tmpTimes, double[] tmpSizes) {
+            if (times[mid - 1] <= times[mid]) return;
+            System.arraycopy(times, lo, tmpTimes, lo, hi - lo);
+            System.arraycopy(sizes, lo, tmpSizes, lo, hi - lo);
+            int i = lo, j = mid;
+            for (int k = lo; k < hi; k++) {
+                if (i < mid && (j >= hi || tmpTimes[i] <= tmpTimes[j])) {
+                    times[k] = tmpTimes[i];
+                    sizes[k] = tmpSizes[i++];
+                } else {
+                    times[k] = tmpTimes[j];
+                    sizes[k] = tmpSizes[j++];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package it.pmcsn.lbsim.utils.trace;
+
+/**
+ * Hand written parser for the Common and Combined Log Formats:
+ * <pre>host ident user [10/Oct/2000:13:55:36 -0700] "GET / HTTP/1.0" 200 2326 ["referer" "agent"] [duration]</pre>
+ * The size proxy is either the response bytes or a trailing duration field (e.g. Apache %D), which only the
+ * *_duration formats declare.
+ * Works directly on the raw bytes, no regex and no per-line allocation.
+ * A line without a positive size ("-" bytes, e.g. a 304, or a zero) is rejected: a job of size 0 would leave
+ * the instant it arrives, with a response time of 0 that the simulator does not accept.
+ */
+public class ClfLineParser implements LogLineParser {
+
+    public enum SizeField {
+        BYTES,
+        DURATION;
+
+        public static SizeField fromString(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Size field cannot be null");
+            }
+            return switch (value.toLowerCase()) {
+                case "bytes" -> BYTES;
+                case "duration" -> DURATION;
+                default -> throw new IllegalArgumentException("Unknown size field: " + value);
+            };
+        }
+    }
+
+    private final SizeField sizeField;
+
+    public ClfLineParser(SizeField sizeField) {
+        if (sizeField == null) {
+            throw new IllegalArgumentException("Size field cannot be null");
+        }
+        this.sizeField = sizeField;
+    }
+
+    @Override
+    public boolean parse(byte[] line, int length, double[] out) {
+        int open = indexOf(line, 0, length, (byte) '[');
+        int close = open < 0 ? -1 : indexOf(line, open + 1, length, (byte) ']');
+        if (close < 0) {
+            return false;
+        }
+        double timestamp = TimestampParser.parseClf(line, open + 1, close);
+        if (Double.isNaN(timestamp)) {
+            return false;
+        }
+
+        double size;
+        if (sizeField == SizeField.BYTES) {
+            // request line is quoted and may contain spaces: skip it, then "status bytes"
+            int q1 = indexOf(line, close + 1, length, (byte) '"');
+            int q2 = q1 < 0 ? -1 : closingQuote(line, q1 + 1, length);
+            if (q2 < 0) {
+                return false;
+            }
+            int statusStart = skipSpaces(line, q2 + 1, length);
+            int statusEnd = tokenEnd(line, statusStart, length);
+            int bytesStart = skipSpaces(line, statusEnd, length);
+            int bytesEnd = tokenEnd(line, bytesStart, length);
+            if (bytesStart >= bytesEnd) {
+                return false;
+            }
+            size = parseNumber(line, bytesStart, bytesEnd);   // "-" is not a number: no body, no job
+        } else {
+            int end = length;
+            while (end > close && line[end - 1] == ' ') end--;
+            int start = end;
+            while (start > close && line[start - 1] != ' ') start--;
+            size = parseNumber(line, start, end);
+        }
+        if (Double.isNaN(size) || size <= 0) {
+            return false;
+        }
+        out[0] = timestamp;
+        out[1] = size;
+        return true;
+    }
+
+    private static int indexOf(byte[] b, int from, int to, byte c) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == c) return i;
+        }
+        return -1;
+    }
+
+    private static int closingQuote(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == '\\') {
+                i++;
+            } else if (b[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(byte[] b, int from, int to) {
+        while (from < to && b[from] == ' ') from++;
+        return from;
+    }
+
+    private static int tokenEnd(byte[] b, int from, int to) {
+        while (from < to && b[from] != ' ') from++;
+        return from;
+    }
+
+    // Parses an unsigned integer or decimal number in b[from, to), NaN if not numeric
+    static double parseNumber(byte[] b, int from, int to) {
+        if (from >= to) {
+            return Double.NaN;
+        }
+        long integer = 0;
+        long fraction = 0;
+        long scale = 1;
+        boolean dot = false;
+        for (int i = from; i < to; i++) {
+            byte c = b[i];
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                if (dot) {
+                    if (scale < 1_000_000_000_000L) {
+                        fraction = fraction * 10 + (c - '0');
+                        scale *= 10;
+                    }
+                } else {
+                    integer = integer * 10 + (c - '0');
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        return integer + (double) fraction / scale;
+    }
+}
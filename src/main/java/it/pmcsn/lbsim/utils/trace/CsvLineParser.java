@@ -0,0 +1,67 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser for delimited layouts: the timestamp and the size proxy are read from two
+ * (0-based) columns. Double quoted fields may contain the separator.
+ */
+public class CsvLineParser implements LogLineParser {
+
+    private final byte separator;
+    private final int timeColumn;
+    private final int sizeColumn;
+    private final TimestampParser timestampParser;
+
+    public CsvLineParser(char separator, int timeColumn, int sizeColumn, TimestampParser timestampParser) {
+        if (timeColumn < 0 || sizeColumn < 0) {
+            throw new IllegalArgumentException("Column indexes must be >= 0");
+        }
+        if (separator > 0x7F) {
+            throw new IllegalArgumentException("Separator must be an ASCII character");
+        }
+        this.separator = (byte) separator;
+        this.timeColumn = timeColumn;
+        this.sizeColumn = sizeColumn;
+        this.timestampParser = timestampParser;
+    }
+
+    @Override
+    public boolean parse(byte[] line, int length, double[] out) {
+        String time = null;
+        String size = null;
+        int column = 0;
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i <= length && (time == null || size == null); i++) {
+            if (i < length && line[i] == '"') {
+                quoted = !quoted;
+            } else if (i == length || (line[i] == separator && !quoted)) {
+                if (column == timeColumn) time = field(line, start, i);
+                if (column == sizeColumn) size = field(line, start, i);
+                column++;
+                start = i + 1;
+            }
+        }
+        if (time == null || size == null) {
+            return false;
+        }
+        try {
+            out[0] = timestampParser.parse(time);
+            out[1] = Double.parseDouble(size);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return out[1] > 0;   // also rejects NaN
+    }
+
+    private static String field(byte[] line, int from, int to) {
+        while (from < to && line[from] == ' ') from++;
+        while (to > from && line[to - 1] == ' ') to--;
+        if (to - from >= 2 && line[from] == '"' && line[to - 1] == '"') {
+            from++;
+            to--;
+        }
+        return new String(line, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,16 @@
+package it.pmcsn.lbsim.utils.trace;
+
+/**
+ * Parses a single access log line into a (timestamp, size) pair.
+ * Implementations must be stateless or thread confined: the ingestor creates one parser per chunk.
+ */
+public interface LogLineParser {
+
+    /**
+     * @param line   raw bytes of the line (without the trailing newline)
+     * @param length number of valid bytes in {@code line}
+     * @param out    out[0] = timestamp in seconds, out[1] = raw size proxy (bytes, duration, ...)
+     * @return false if the line is malformed or has no positive size ("-", 0), and must be skipped
+     */
+    boolean parse(byte[] line, int length, double[] out);
+}
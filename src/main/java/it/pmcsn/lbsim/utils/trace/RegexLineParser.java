@@ -0,0 +1,43 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for custom layouts described by a regular expression with the named groups
+ * {@code time} and {@code size}, e.g. {@code ^(?<time>\S+) \S+ (?<size>\d+)}.
+ */
+public class RegexLineParser implements LogLineParser {
+
+    private final Matcher matcher;
+    private final TimestampParser timestampParser;
+
+    public RegexLineParser(String regex, TimestampParser timestampParser) {
+        if (regex == null || regex.isEmpty()) {
+            throw new IllegalArgumentException("Regex cannot be null or empty");
+        }
+        if (!regex.contains("(?<time>") || !regex.contains("(?<size>")) {
+            throw new IllegalArgumentException("Regex must define the named groups 'time' and 'size'");
+        }
+        // one matcher per parser: parsers are confined to a single chunk/thread
+        this.matcher = Pattern.compile(regex).matcher("");
+        this.timestampParser = timestampParser;
+    }
+
+    @Override
+    public boolean parse(byte[] line, int length, double[] out) {
+        matcher.reset(new String(line, 0, length, StandardCharsets.ISO_8859_1));
+        if (!matcher.find()) {
+            return false;
+        }
+        try {
+            out[0] = timestampParser.parse(matcher.group("time"));
+            String size = matcher.group("size");
+            out[1] = Double.parseDouble(size);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return out[1] > 0;   // also rejects NaN
+    }
+}
@@ -0,0 +1,116 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converts the textual timestamp of a log line into seconds since the epoch.
+ * Supported formats: "clf" (10/Oct/2000:13:55:36 -0700), "epoch" (seconds, decimals allowed),
+ * "epoch_ms" (milliseconds) or any {@link DateTimeFormatter} pattern.
+ */
+@FunctionalInterface
+public interface TimestampParser {
+
+    double parse(String text);
+
+    static TimestampParser of(String format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Timestamp format cannot be null");
+        }
+        return switch (format.toLowerCase()) {
+            case "clf" -> text -> {
+                byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+                double t = parseClf(bytes, 0, bytes.length);
+                if (Double.isNaN(t)) throw new IllegalArgumentException("Invalid CLF timestamp: " + text);
+                return t;
+            };
+            case "epoch" -> Double::parseDouble;
+            case "epoch_ms" -> text -> Double.parseDouble(text) / 1000.0;
+            default -> {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+                yield text -> {
+                    try {
+                        TemporalAccessor parsed = formatter.parse(text);
+                        long epochSecond;
+                        if (parsed.isSupported(ChronoField.OFFSET_SECONDS)) {
+                            epochSecond = ZonedDateTime.from(parsed).toEpochSecond();
+                        } else {
+                            epochSecond = LocalDateTime.from(parsed).toEpochSecond(ZoneOffset.UTC);
+                        }
+                        double nanos = parsed.isSupported(ChronoField.NANO_OF_SECOND) ? parsed.getLong(ChronoField.NANO_OF_SECOND) : 0;
+                        return epochSecond + nanos / 1e9;
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid timestamp: " + text, e);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Allocation free parser for the Common Log Format timestamp "dd/MMM/yyyy:HH:mm:ss Z"
+     * stored in bytes[from, to). Returns NaN if the field is malformed.
+     */
+    static double parseClf(byte[] b, int from, int to) {
+        if (to - from < 20) {
+            return Double.NaN;
+        }
+        int day = digits(b, from, 2);
+        int month = month(b[from + 3], b[from + 4], b[from + 5]);
+        int year = digits(b, from + 7, 4);
+        int hour = digits(b, from + 12, 2);
+        int minute = digits(b, from + 15, 2);
+        int second = digits(b, from + 18, 2);
+        if (day < 0 || month < 0 || year < 0 || hour < 0 || minute < 0 || second < 0) {
+            return Double.NaN;
+        }
+        int offsetSeconds = 0;
+        if (to - from >= 26) {
+            byte sign = b[from + 21];
+            int hh = digits(b, from + 22, 2);
+            int mm = digits(b, from + 24, 2);
+            if ((sign != '+' && sign != '-') || hh < 0 || mm < 0) {
+                return Double.NaN;
+            }
+            offsetSeconds = (sign == '-' ? -1 : 1) * (hh * 3600 + mm * 60);
+        }
+        long days = daysFromCivil(year, month, day);
+        return days * 86400L + hour * 3600L + minute * 60L + second - offsetSeconds;
+    }
+
+    private static int digits(byte[] b, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int month(byte c0, byte c1, byte c2) {
+        String months = "janfebmaraprmayjunjulaugsepoctnovdec";
+        int l0 = c0 | 0x20, l1 = c1 | 0x20, l2 = c2 | 0x20;
+        for (int i = 0; i < 12; i++) {
+            if (months.charAt(3 * i) == l0 && months.charAt(3 * i + 1) == l1 && months.charAt(3 * i + 2) == l2) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // Howard Hinnant's days_from_civil: days since 1970-01-01 of the proleptic Gregorian date
+    private static long daysFromCivil(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153L * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
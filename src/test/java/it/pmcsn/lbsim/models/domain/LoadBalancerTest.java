@@ -0,0 +1,69 @@
+package it.pmcsn.lbsim.models.domain;
+
+import it.pmcsn.lbsim.models.domain.dispatcher.Dispatcher;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatcherFrontEnd;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.HorizontalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.NoneHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SimpleSpikeRouter;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.scaling.verticalscaler.NoneVerticalScaler;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.LeastLoadPolicy;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.WeightedLeastLoadPolicy;
+import it.pmcsn.lbsim.models.domain.server.InstanceType;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerIdAllocator;
+import it.pmcsn.lbsim.models.domain.server.ServerLifecycle;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.simulation.FutureEventList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerTest {
+
+    // the spike server is 4 times faster than the web one: the weighted policy keeps choosing it, and SImax = 1
+    // of the web servers must not send its jobs around again
+    @Test
+    void spikeServerPickedByWeightedPolicyIsASpikeArrival() {
+        ServerPool web = new ServerPool(1, 1.0, new RemovalPolicyLeastUsed());
+        ServerPool spike = new ServerPool(1, 1.0, List.of(new InstanceType("spike", 4.0, 0.0, ServerLifecycle.INSTANT)),
+                new RemovalPolicyLeastUsed(), ProcessorSharing::new, ServerIdAllocator.negative());
+        CountingScaler spikeScaler = new CountingScaler();
+        SpikeTier tier = new SpikeTier(spike, new LeastLoadPolicy(), spikeScaler, 1, 1);
+        LoadBalancer loadBalancer = new LoadBalancer(web, tier, DispatcherFrontEnd.single(new Dispatcher(0, new WeightedLeastLoadPolicy(true))),
+                new SimpleSpikeRouter(1), new NoneHorizontalScaler(), new NoneVerticalScaler());
+        loadBalancer.start(new FutureEventList());
+
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.assignJob(new Job(1.0), 0.0);
+        }
+
+        assertEquals(3, spikeScaler.arrivals);
+        assertEquals(3, loadBalancer.getSpikeServerJobCount());
+        assertEquals(0, web.getCurrentJobCount());
+        Server spikeServer = spike.getWebServers().get(0);
+        assertTrue(SpikeTier.isSpikeServer(spikeServer));
+        assertEquals(3, spikeServer.getCurrentSI());
+    }
+
+    static class CountingScaler implements HorizontalScaler {
+        int arrivals = 0;
+
+        @Override
+        public void setLastActionAt(double time) {}
+
+        @Override
+        public int getScaleActions() { return 0; }
+
+        @Override
+        public Action notifyJobDeparture(double responseTimeSeconds, double nowSeconds) { return Action.NONE; }
+
+        @Override
+        public void notifyJobArrival(double size, double nowSeconds) { arrivals++; }
+    }
+}
@@ -0,0 +1,57 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PidHorizontalScalerTest {
+
+    private static final double DELTA = 1e-9;
+    private static final int CURRENT = 4;
+
+    // response time with setpoint 1 s on a 1 s window, sampled every second, 4 servers whatever the action
+    private static PidHorizontalScaler scaler(double kp, double ki, int maxServers) {
+        return new PidHorizontalScaler(PidHorizontalScaler.Metric.RESPONSE_TIME, 1.0, 1, 1.0, 1.0,
+                kp, ki, 0.0, maxServers, 0.0, () -> CURRENT, () -> CURRENT);
+    }
+
+    private static HorizontalScaler.Action evaluate(HorizontalScaler scaler, double responseTime, double now) {
+        scaler.notifyJobDeparture(responseTime, now);
+        return scaler.evaluate(now);
+    }
+
+    @Test
+    void integratorStopsAtTheSaturatedOutput() {
+        PidHorizontalScaler scaler = scaler(0.0, 1.0, 5);
+        ScalerState state = scaler.getState();
+
+        // error +1 per second from 4 servers: 5, then held at maxServers
+        evaluate(scaler, 2.0, 1.0);
+        evaluate(scaler, 2.0, 2.0);
+        evaluate(scaler, 2.0, 3.0);
+        assertEquals(5.0, state.getIntegral(), DELTA);
+        assertEquals(5, state.getDesiredServers());
+        assertEquals(2, state.getSaturatedEvaluations());
+
+        // the first negative error leaves the saturation at once, with no wound-up integral to discharge
+        assertEquals(HorizontalScaler.Action.NONE, evaluate(scaler, 0.0, 4.0));
+        assertEquals(4.0, state.getIntegral(), DELTA);
+        assertEquals(4, state.getDesiredServers());
+    }
+
+    @Test
+    void outputIsQuantisedToWholeServers() {
+        PidHorizontalScaler scaler = scaler(0.4, 0.0, 10);
+        ScalerState state = scaler.getState();
+
+        // 4 + 0.4 * 0.5 = 4.2 rounds to the current 4 servers
+        assertEquals(HorizontalScaler.Action.NONE, evaluate(scaler, 1.5, 1.0));
+        assertEquals(4.2, state.getOutput(), DELTA);
+        assertEquals(4, state.getDesiredServers());
+
+        // 4 + 0.4 * 2 = 4.8 rounds to 5
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, evaluate(scaler, 3.0, 2.0));
+        assertEquals(5, state.getDesiredServers());
+        assertEquals(1, scaler.getActionSize());
+    }
+}
@@ -0,0 +1,77 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PredictiveHorizontalScalerTest {
+
+    private static final int GAP = 50;
+
+    private static PredictiveHorizontalScaler scaler(double alpha, double beta, double capacity) {
+        return new PredictiveHorizontalScaler(1.0, alpha, beta, 0.8, 0.3, 1.0, () -> capacity, () -> capacity, () -> capacity, () -> 1);
+    }
+
+    // three intervals with a growing work rate
+    private static void rampUp(PredictiveHorizontalScaler scaler) {
+        scaler.notifyJobArrival(0.0, 0.0);
+        scaler.notifyJobArrival(2.0, 0.2);
+        scaler.notifyJobArrival(3.0, 1.3);
+        scaler.notifyJobArrival(5.0, 2.4);
+    }
+
+    // real, complex, repeated roots and alpha = 1
+    @ParameterizedTest(name = "alpha {0}, beta {1}")
+    @CsvSource({"0.9, 0.1", "0.5, 0.5", "0.1, 0.1", "0.3, 0.0", "1.0, 0.5", "1.0, 1.0"})
+    void skippingEmptyIntervalsMatchesClosingThemOneByOne(double alpha, double beta) {
+        PredictiveHorizontalScaler stepwise = scaler(alpha, beta, 1.0);
+        PredictiveHorizontalScaler skipping = scaler(alpha, beta, 1.0);
+        rampUp(stepwise);
+        rampUp(skipping);
+
+        for (int i = 0; i <= GAP; i++) {
+            stepwise.notifyJobDeparture(1.0, 3.5 + i);
+        }
+        skipping.notifyJobDeparture(1.0, 3.5 + GAP);
+
+        assertEquals(stepwise.getForecastWorkRate(), skipping.getForecastWorkRate(), 1e-9);
+        assertEquals(stepwise.getArrivalRate(), skipping.getArrivalRate(), 1e-9);
+    }
+
+    // the same forecast is an overload on a small allocation and not on a large one
+    @Test
+    void utilizationFollowsTheAllocatedCapacity() {
+        PredictiveHorizontalScaler small = scaler(0.5, 0.0, 2.0);
+        PredictiveHorizontalScaler large = scaler(0.5, 0.0, 8.0);
+        rampUp(small);
+        rampUp(large);
+
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, small.notifyJobDeparture(1.0, 3.5));
+        assertEquals(HorizontalScaler.Action.NONE, large.notifyJobDeparture(1.0, 3.5));
+    }
+
+    // forecast 3.75 on one server of capacity 1: 3.75 / 0.8 needs 4.69 servers, so 4 more in one action
+    @Test
+    void scaleOutAddsEnoughServersToReachTheTarget() {
+        PredictiveHorizontalScaler scaler = scaler(0.5, 0.0, 1.0);
+        rampUp(scaler);
+
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, scaler.notifyJobDeparture(1.0, 3.5));
+        assertEquals(3.75, scaler.getForecastWorkRate(), 1e-9);
+        assertEquals(4, scaler.getActionSize());
+    }
+
+    // two servers of capacity 20 in total: the average server rule (3.75 >= 0.3 * 10) would keep both,
+    // retiring a small server is safe, retiring the big one is not
+    @ParameterizedTest(name = "retiring {0}")
+    @CsvSource({"4.0, SCALE_IN", "16.0, NONE"})
+    void scaleInChecksTheServerTheRemovalPolicyRetires(double retiring, HorizontalScaler.Action expected) {
+        PredictiveHorizontalScaler scaler = new PredictiveHorizontalScaler(1.0, 0.5, 0.0, 0.8, 0.3, 1.0,
+                () -> 20.0, () -> 4.0, () -> retiring, () -> 2);
+        rampUp(scaler);
+
+        assertEquals(expected, scaler.notifyJobDeparture(1.0, 3.5));
+    }
+}
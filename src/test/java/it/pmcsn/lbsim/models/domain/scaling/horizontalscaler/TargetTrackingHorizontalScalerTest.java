@@ -0,0 +1,61 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TargetTrackingHorizontalScalerTest {
+
+    private static final int CURRENT = 4;
+
+    // target 1 s of response time on a 2 s window, no cooldown, 4 servers whatever the action
+    private static TargetTrackingHorizontalScaler scaler(double tolerance, double stabilizationSec, int maxStep) {
+        return new TargetTrackingHorizontalScaler(2.0, 2, 1.0, 1.0, tolerance, stabilizationSec, maxStep, 0.0, () -> CURRENT);
+    }
+
+    private static HorizontalScaler.Action evaluate(HorizontalScaler scaler, double responseTime, double now) {
+        scaler.notifyJobDeparture(responseTime, now);
+        return scaler.evaluate(now);
+    }
+
+    @Test
+    void desiredServersAreTheCeilingOfCurrentTimesTheRatio() {
+        HorizontalScaler scaler = scaler(0.0, 0.0, 10);
+
+        // ceil(4 * 1.6 / 1.0) = 7
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, evaluate(scaler, 1.6, 1.0));
+        assertEquals(3, scaler.getActionSize());
+    }
+
+    @Test
+    void ratioInsideTheToleranceBandKeepsTheServers() {
+        HorizontalScaler scaler = scaler(0.1, 0.0, 10);
+
+        assertEquals(HorizontalScaler.Action.NONE, evaluate(scaler, 1.05, 1.0));
+        assertEquals(HorizontalScaler.Action.NONE, evaluate(scaler, 0.92, 4.0));
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, evaluate(scaler, 1.2, 8.0));
+    }
+
+    @Test
+    void actionIsClampedToMaxStep() {
+        HorizontalScaler scaler = scaler(0.0, 0.0, 2);
+
+        // ceil(4 * 3.0) = 12 servers wanted, at most 2 per action
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, evaluate(scaler, 3.0, 1.0));
+        assertEquals(2, scaler.getActionSize());
+        // ceil(4 * 0.25) = 1 server wanted, at most 2 released
+        assertEquals(HorizontalScaler.Action.SCALE_IN, evaluate(scaler, 0.25, 10.0));
+        assertEquals(2, scaler.getActionSize());
+    }
+
+    @Test
+    void scaleInWaitsForTheStabilizationWindow() {
+        HorizontalScaler scaler = scaler(0.0, 10.0, 4);
+
+        // 6 servers recommended at t=1 hold the scale-in to 2 servers until t=11
+        assertEquals(HorizontalScaler.Action.SCALE_OUT, evaluate(scaler, 1.5, 1.0));
+        assertEquals(HorizontalScaler.Action.NONE, evaluate(scaler, 0.5, 5.0));
+        assertEquals(HorizontalScaler.Action.SCALE_IN, evaluate(scaler, 0.5, 12.0));
+        assertEquals(2, scaler.getActionSize());
+    }
+}
@@ -0,0 +1,55 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeBucketWindowTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void sampleExpiresWhenItsBucketLeavesTheWindow() {
+        // 4 s in buckets of 1 s: the sample at 0.5 lives in [0, 1) and is dropped once the window starts at 1
+        TimeBucketWindow window = new TimeBucketWindow(4.0, 4);
+        window.add(2.0, 0.5);
+
+        assertEquals(1, window.count(3.99));
+        assertEquals(2.0, window.sum(3.99), DELTA);
+        assertEquals(0, window.count(4.0));
+        assertTrue(Double.isNaN(window.mean(4.0)));
+    }
+
+    @Test
+    void onlyTheExpiredBucketsAreDropped() {
+        TimeBucketWindow window = new TimeBucketWindow(4.0, 4);
+        window.add(1.0, 0.5);
+        window.add(3.0, 2.5);
+        window.add(5.0, 2.7);
+
+        assertEquals(3.0, window.mean(3.0), DELTA);
+        assertEquals(2, window.count(4.2));
+        assertEquals(4.0, window.mean(4.2), DELTA);
+    }
+
+    @Test
+    void gapLongerThanTheWindowEmptiesIt() {
+        TimeBucketWindow window = new TimeBucketWindow(4.0, 4);
+        window.add(1.0, 0.5);
+        window.add(1.0, 3.5);
+
+        assertEquals(0, window.count(100.0));
+        window.add(7.0, 100.0);
+        assertEquals(7.0, window.mean(100.0), DELTA);
+    }
+
+    @Test
+    void emptyWindowHasNoMean() {
+        TimeBucketWindow window = new TimeBucketWindow(10.0, 5);
+
+        assertEquals(0, window.count(1.0));
+        assertEquals(0.0, window.sum(1.0), 0.0);
+        assertTrue(Double.isNaN(window.mean(1.0)));
+    }
+}
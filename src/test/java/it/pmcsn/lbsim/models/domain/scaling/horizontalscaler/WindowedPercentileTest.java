@@ -0,0 +1,86 @@
+package it.pmcsn.lbsim.models.domain.scaling.horizontalscaler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WindowedPercentileTest {
+
+    private static final int SAMPLES = 3000;
+    private static final int[] WINDOW_SIZES = {1, 2, 3, 5, 10, 17, 64, 100};
+    private static final double[] QUANTILES = {0.01, 0.5, 0.95, 1.0};
+
+    // every window size with every quantile, on continuous values and on a few repeated ones
+    static Stream<Arguments> windows() {
+        Stream.Builder<Arguments> cases = Stream.builder();
+        for (int windowSize : WINDOW_SIZES) {
+            for (double quantile : QUANTILES) {
+                cases.add(Arguments.of(windowSize, quantile, false));
+                cases.add(Arguments.of(windowSize, quantile, true));
+            }
+        }
+        return cases.build();
+    }
+
+    // nearest rank on a sorted copy of the window
+    private static double bruteForce(ArrayDeque<Double> window, double quantile) {
+        double[] sorted = window.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[rank - 1];
+    }
+
+    @ParameterizedTest(name = "window {0}, q {1}, repeated {2}")
+    @MethodSource("windows")
+    void matchesASortedCopyOfTheWindow(int windowSize, double quantile, boolean repeated) {
+        Random random = new Random(31L * windowSize + Double.hashCode(quantile) + (repeated ? 1 : 0));
+        WindowedPercentile percentile = new WindowedPercentile(windowSize, quantile);
+        ArrayDeque<Double> window = new ArrayDeque<>();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = repeated ? random.nextInt(4) : random.nextDouble();
+            percentile.add(value);
+            window.addLast(value);
+            if (window.size() > windowSize) {
+                window.removeFirst();
+            }
+
+            assertEquals(window.size(), percentile.size(), "size after sample " + i);
+            assertEquals(bruteForce(window, quantile), percentile.getPercentile(), 0.0, "percentile after sample " + i);
+        }
+        assertTrue(percentile.isFull());
+    }
+
+    // a rising then falling ramp sends every evicted sample to the same heap, so the dead ones pile up and get compacted
+    @Test
+    void staysExactWhileTheDeadSamplesAreCompacted() {
+        int windowSize = 50;
+        WindowedPercentile percentile = new WindowedPercentile(windowSize, 0.95);
+        ArrayDeque<Double> window = new ArrayDeque<>();
+
+        for (int i = 0; i < 4 * SAMPLES; i++) {
+            double value = (i / 500) % 2 == 0 ? i : -i;
+            percentile.add(value);
+            window.addLast(value);
+            if (window.size() > windowSize) {
+                window.removeFirst();
+            }
+
+            assertEquals(bruteForce(window, 0.95), percentile.getPercentile(), 0.0, "percentile after sample " + i);
+        }
+    }
+
+    @Test
+    void emptyWindowHasNoPercentile() {
+        assertTrue(Double.isNaN(new WindowedPercentile(5, 0.5).getPercentile()));
+    }
+}
@@ -0,0 +1,52 @@
+package it.pmcsn.lbsim.models.domain.schedulingpolicy;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.simulation.FutureEventList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SizeIntervalPolicyTest {
+
+    // sizes 1..1000: half of the work is below c with c (c - 1) / 2 = 250250, c ≈ 708
+    @Test
+    void traceCutoffsSplitTheObservedWork() {
+        EmpiricalSizeDistribution sizes = new EmpiricalSizeDistribution();
+        for (int i = 1; i <= 1000; i++) {
+            sizes.add(i);
+        }
+        SizeIntervalPolicy policy = new SizeIntervalPolicy(sizes);
+
+        assertEquals(500.5, sizes.mean(), 1e-9);
+        assertEquals(708.0, policy.getCutoffs(2)[0], 708.0 * 0.015);
+    }
+
+    // the classes follow the order the servers joined in, whatever the pool does with its list
+    @Test
+    void classesKeepTheirServersAcrossScaleIn() {
+        FutureEventList events = new FutureEventList();
+        ServerPool pool = new ServerPool(3, 1.0, new RemovalPolicyLeastUsed());
+        pool.start(events);
+        SizeIntervalPolicy policy = new SizeIntervalPolicy(SizeDistribution.exponential(1.0));
+        policy.attach(pool, null, events);
+        List<Server> joined = new ArrayList<>(pool.getWebServers());
+
+        pool.scaleIn(1);
+        joined.removeIf(server -> !pool.isActive(server));
+
+        assertEquals(2, joined.size());
+        assertSame(joined.get(0), policy.selectServer(pool, new Job(0.01)));
+        assertSame(joined.get(1), policy.selectServer(pool, new Job(100.0)));
+        pool.scaleOut(1);
+        Server added = pool.getWebServers().stream().filter(server -> !joined.contains(server)).findFirst().orElseThrow();
+        assertSame(added, policy.selectServer(pool, new Job(100.0)));
+        assertSame(joined.get(0), policy.selectServer(pool, new Job(0.01)));
+    }
+}
@@ -0,0 +1,63 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.simulation.FutureEventList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CpuCreditBucketTest {
+
+    private static final double DELTA = 1e-9;
+
+    // an empty bucket throttles the server on its first job
+    private Server burstableServer(double cpuPercentage) {
+        Server server = new Server(1.0, cpuPercentage, -1, new ProcessorSharing());
+        server.setCpuCredits(new CpuCreditBucket(0.2, 10.0, 0.0));
+        server.getCpuCredits().start(new FutureEventList());
+        return server;
+    }
+
+    @Test
+    void throttlingKeepsTheWarmupSpeed() {
+        Server server = burstableServer(0.8);
+        server.setWarmupFactor(0.5);
+        Job job = new Job(1.0);
+
+        server.addJob(job);
+
+        assertTrue(server.getCpuCredits().isThrottled());
+        assertEquals(0.5, server.getWarmupFactor(), DELTA);
+        assertEquals(0.25, server.getCreditFactor(), DELTA);
+        // 0.8 burst rate x 0.5 warm-up x 0.25 credits = 0.1 work per second
+        assertEquals(10.0, server.estimateDepartureTime(job, 0.0), DELTA);
+    }
+
+    @Test
+    void endOfWarmupDoesNotLiftTheThrottling() {
+        Server server = burstableServer(0.8);
+        server.setWarmupFactor(0.5);
+        Job job = new Job(1.0);
+        server.addJob(job);
+
+        server.setWarmupFactor(1.0);
+
+        assertTrue(server.getCpuCredits().isThrottled());
+        // the throttled server works at the baseline, 0.2
+        assertEquals(5.0, server.estimateDepartureTime(job, 0.0), DELTA);
+    }
+
+    @Test
+    void throttledServerStaysAtBaselineAfterResize() {
+        Server server = burstableServer(0.8);
+        Job job = new Job(1.0);
+        server.addJob(job);
+
+        server.setCpuPercentage(0.4);
+
+        assertTrue(server.getCpuCredits().isThrottled());
+        assertEquals(5.0, server.estimateDepartureTime(job, 0.0), DELTA);
+    }
+}
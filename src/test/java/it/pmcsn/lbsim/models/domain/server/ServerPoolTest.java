@@ -0,0 +1,159 @@
+package it.pmcsn.lbsim.models.domain.server;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastCostEfficient;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.simulation.FutureEventList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerPoolTest {
+
+    private static final double DELTA = 1e-9;
+
+    // spike servers booted instantly, then 10 s at half capacity
+    private static ServerPool burstableSpikePool(double initialCredits) {
+        ServerLifecycle lifecycle = new ServerLifecycle(null, ServerLifecycle.DelayDistribution.FIXED, 0.0, 0.0, 0.0, 12, 10.0, 0.5);
+        ServerPool pool = new ServerPool(1, 0.8, List.of(new InstanceType("spike", 2.0, 1.0, lifecycle)),
+                new RemovalPolicyLeastUsed(), ProcessorSharing::new, ServerIdAllocator.negative());
+        pool.setCpuCredits(() -> new CpuCreditBucket(0.2, 10.0, initialCredits));
+        pool.start(new FutureEventList());
+        return pool;
+    }
+
+    @Test
+    void warmingSpikeServerDoesNotBurstAtFullSpeed() {
+        ServerPool pool = burstableSpikePool(10.0);
+        pool.scaleOut(1);
+        Server launched = pool.getWebServers().get(1);
+        Job job = new Job(1.0);
+
+        launched.addJob(job);
+
+        assertEquals(ServerState.WARMING, launched.getState());
+        assertFalse(launched.getCpuCredits().isThrottled());
+        assertEquals(0.5, launched.getSpeed(), DELTA);
+        // 2.0 cpu x 0.8 burst rate x 0.5 warm-up = 0.8 work per second
+        assertEquals(1.25, launched.estimateDepartureTime(job, 0.0), DELTA);
+    }
+
+    @Test
+    void throttledWarmingSpikeServerCombinesBothFactors() {
+        ServerPool pool = burstableSpikePool(0.0);
+        pool.scaleOut(1);
+        Server launched = pool.getWebServers().get(1);
+
+        launched.addJob(new Job(1.0));
+
+        assertEquals(0.5 * 0.25, launched.getSpeed(), DELTA);
+    }
+
+    @Test
+    void targetCpuFollowsTheActiveServersAndResizes() {
+        ServerPool pool = new ServerPool(2, 2.0, new RemovalPolicyLeastUsed());
+        assertEquals(4.0, pool.getTargetCpu(), DELTA);
+
+        pool.requestScaleOut();
+        assertEquals(6.0, pool.getTargetCpu(), DELTA);
+        pool.requestResize(pool.getWebServers().get(0), 0.4, 0.0);
+        // 2.0 cpu x (0.4 + 1 + 1)
+        assertEquals(4.8, pool.getTargetCpu(), DELTA);
+        pool.requestScaleIn();
+        double left = pool.getWebServers().stream().mapToDouble(Server::getCpuPercentage).sum();
+        assertEquals(2.0 * left, pool.getTargetCpu(), DELTA);
+    }
+
+    @Test
+    void targetCpuFollowsInstanceTypesAndResizes() {
+        ServerPool pool = burstableSpikePool(10.0);
+        Server initial = pool.getWebServers().get(0);
+        pool.scaleOut(1);
+
+        pool.requestResize(initial, 0.4, 0.0);
+
+        // 2.0 cpu x (0.4 + 0.8)
+        assertEquals(2.4, pool.getTargetCpu(), DELTA);
+        pool.scaleIn(1);
+        assertEquals(2.0 * pool.getWebServers().get(0).getCpuPercentage(), pool.getTargetCpu(), DELTA);
+    }
+
+    // 4 base servers of capacity are cheaper as one large server (3.2 < 4.0): scalers count capacity, not servers
+    @Test
+    void scaleOutAndScaleInAgreeOnBaseServers() {
+        ServerPool pool = new ServerPool(2, 1.0, List.of(new InstanceType("small", 1.0, 1.0, ServerLifecycle.INSTANT),
+                new InstanceType("large", 4.0, 3.2, ServerLifecycle.INSTANT)), new RemovalPolicyLeastCostEfficient(),
+                ProcessorSharing::new, new ServerIdAllocator());
+        pool.start(new FutureEventList());
+
+        assertEquals(1, pool.scaleOut(4));
+        assertEquals(3, pool.getTargetServerCount());
+        assertEquals(6, pool.getTargetBaseServers());
+
+        // the two small servers fit in 3 base servers, the large one does not
+        assertEquals(2, pool.scaleIn(3));
+        assertEquals(4, pool.getTargetBaseServers());
+        // the last server always stays
+        assertEquals(0, pool.scaleIn(4));
+    }
+
+    // pricePerHour is the price of a server at the CPU share of its pool, also below 1 as for the spike servers
+    @Test
+    void serversAreBilledAtTheirPricePerHour() {
+        ServerPool pool = new ServerPool(2, 0.4, List.of(new InstanceType("spike", 1.0, 1.5, ServerLifecycle.INSTANT)),
+                new RemovalPolicyLeastUsed(), ProcessorSharing::new, ServerIdAllocator.negative());
+        pool.start(new FutureEventList());
+
+        pool.processJobs(3600.0);
+
+        assertEquals(3.0, pool.getCost(), DELTA);
+        pool.requestResize(pool.getWebServers().get(0), 0.8, 0.0);
+        pool.processJobs(3600.0);
+        assertEquals(3.0 + 3.0 + 1.5, pool.getCost(), DELTA);
+    }
+
+    // round robin visits the active servers in the order they joined: a scale-in must not reorder them
+    @Test
+    void scaleInKeepsTheOrderOfTheActiveServers() {
+        ServerPool pool = new ServerPool(4, 1.0, new RemovalPolicyLeastUsed());
+        pool.start(new FutureEventList());
+        for (Server server : pool.getWebServers()) {
+            if (server.getId() != 1) {
+                server.addJob(new Job(1.0));
+            }
+        }
+
+        pool.scaleIn(1);
+
+        assertEquals(List.of(0, 2, 3), ids(pool));
+        pool.getWebServers().forEach(server -> assertTrue(pool.isActive(server)));
+        pool.scaleOut(1);
+        assertEquals(List.of(0, 2, 3, 1), ids(pool));
+    }
+
+    // the smallest free id is handed out again, except the first one (0, or -1 for the spike servers)
+    @Test
+    void releasedIdsAreRecycledButTheFirst() {
+        ServerIdAllocator spike = ServerIdAllocator.negative();
+        assertEquals(-1, spike.allocate());
+        assertEquals(-2, spike.allocate());
+        spike.release(-1);
+        assertEquals(-3, spike.allocate());
+        spike.release(-2);
+        assertEquals(-2, spike.allocate());
+
+        ServerIdAllocator web = new ServerIdAllocator();
+        assertEquals(0, web.allocate());
+        web.release(0);
+        assertEquals(1, web.allocate());
+    }
+
+    private static List<Integer> ids(ServerPool pool) {
+        return pool.getWebServers().stream().map(Server::getId).toList();
+    }
+}
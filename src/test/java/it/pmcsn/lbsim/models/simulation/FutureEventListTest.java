@@ -0,0 +1,96 @@
+package it.pmcsn.lbsim.models.simulation;
+
+import it.pmcsn.lbsim.models.domain.Job;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
+import it.pmcsn.lbsim.models.domain.server.Server;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FutureEventListTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static JobStats track(FutureEventList list, Server server, double size) {
+        Job job = new Job(size);
+        job.assignServer(server);
+        server.addJob(job);
+        JobStats stats = new JobStats(job, list.getCurrentTime(), size);
+        list.addJobStats(stats);
+        return stats;
+    }
+
+    @Test
+    void nextDepartureFollowsTheServerThatChanged() {
+        FutureEventList list = new FutureEventList();
+        ServerPool pool = new ServerPool(2, 1.0, new RemovalPolicyLeastUsed());
+        pool.start(list);
+        Server first = pool.getWebServers().get(0);
+        Server second = pool.getWebServers().get(1);
+        JobStats small = track(list, first, 1.0);
+        JobStats large = track(list, second, 2.0);
+
+        assertSame(small, list.nextDepartureJob());
+
+        pool.requestResize(second, 4.0, 0.0);
+
+        assertSame(large, list.nextDepartureJob());
+        assertEquals(0.5, large.getEstimatedDepartureTime(), DELTA);
+    }
+
+    @Test
+    void delayedResizeMovesTheDepartureOfTheJobInService() {
+        FutureEventList list = new FutureEventList();
+        ServerPool pool = new ServerPool(1, 1.0, new RemovalPolicyLeastUsed());
+        pool.start(list);
+        Server server = pool.getWebServers().get(0);
+        JobStats stats = track(list, server, 2.0);
+
+        assertTrue(pool.requestResize(server, 2.0, 0.5));
+        assertFalse(pool.requestResize(server, 4.0, 0.0));
+        assertSame(stats, list.nextDepartureJob());
+        assertEquals(2.0, stats.getEstimatedDepartureTime(), DELTA);
+
+        // the job keeps the work done at the old speed: 1.5 left at twice the speed
+        list.setCurrentTime(0.5);
+        pool.processJobs(0.5);
+        list.pollNextTimer().fire();
+
+        assertEquals(2.0, server.getCpuPercentage(), 0.0);
+        assertSame(stats, list.nextDepartureJob());
+        assertEquals(1.25, stats.getEstimatedDepartureTime(), DELTA);
+    }
+
+    @Test
+    void sharingJobsDelaysOnlyTheirServer() {
+        FutureEventList list = new FutureEventList();
+        ServerPool pool = new ServerPool(2, 1.0, new RemovalPolicyLeastUsed());
+        pool.start(list);
+        Server first = pool.getWebServers().get(0);
+        Server second = pool.getWebServers().get(1);
+        JobStats shared = track(list, first, 1.0);
+        JobStats alone = track(list, second, 1.5);
+
+        track(list, first, 3.0);
+
+        // processor sharing: the first job now completes at 2.0, after the one alone on its server
+        assertSame(alone, list.nextDepartureJob());
+        assertEquals(1.5, alone.getEstimatedDepartureTime(), DELTA);
+        list.setCurrentTime(1.5);
+        pool.processJobs(1.5);
+        pool.completeJob(alone.getJob());
+        list.removeJobStats(alone);
+        assertSame(shared, list.nextDepartureJob());
+        assertEquals(2.0, shared.getEstimatedDepartureTime(), DELTA);
+    }
+
+    @Test
+    void emptyListHasNoDeparture() {
+        assertNull(new FutureEventList().nextDepartureJob());
+    }
+}
@@ -0,0 +1,109 @@
+package it.pmcsn.lbsim.models.simulation;
+
+import it.pmcsn.lbsim.models.domain.LoadBalancer;
+import it.pmcsn.lbsim.models.domain.dispatcher.Dispatcher;
+import it.pmcsn.lbsim.models.domain.dispatcher.DispatcherFrontEnd;
+import it.pmcsn.lbsim.models.domain.removalPolicy.RemovalPolicyLeastUsed;
+import it.pmcsn.lbsim.models.domain.scaling.horizontalscaler.NoneHorizontalScaler;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.NoneSpikeRouter;
+import it.pmcsn.lbsim.models.domain.scaling.spikerouter.SpikeTier;
+import it.pmcsn.lbsim.models.domain.scaling.verticalscaler.NoneVerticalScaler;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.LeastLoadPolicy;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.PeriodicLoadView;
+import it.pmcsn.lbsim.models.domain.schedulingpolicy.SchedulingPolicy;
+import it.pmcsn.lbsim.models.domain.server.InstanceType;
+import it.pmcsn.lbsim.models.domain.server.ServerIdAllocator;
+import it.pmcsn.lbsim.models.domain.server.ServerLifecycle;
+import it.pmcsn.lbsim.models.domain.server.ServerPool;
+import it.pmcsn.lbsim.models.domain.servicediscipline.ProcessorSharing;
+import it.pmcsn.lbsim.models.simulation.runType.RunPolicy;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.TraceWorkloadGenerator;
+import it.pmcsn.lbsim.models.simulation.workloadgenerator.trace.TraceSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimulatorTest {
+
+    private static final double[] ARRIVALS = {0.1, 0.2, 0.25, 0.9, 1.4};
+    private static final double[] SIZES = {0.5, 0.3, 0.8, 0.2, 0.4};
+
+    // the trace runs out long before numJobs: the run must end once its jobs are served
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void runOnJobsEndsWhenTraceIsExhaustedWithPeriodicLoadView() {
+        CountingRunPolicy runPolicy = new CountingRunPolicy();
+        Simulator simulator = simulator(new LeastLoadPolicy(new PeriodicLoadView(0.5)), runPolicy);
+
+        simulator.run(1000);
+
+        assertEquals(ARRIVALS.length, runPolicy.departures);
+    }
+
+    static Simulator simulator(SchedulingPolicy policy, RunPolicy runPolicy) {
+        ServerPool web = new ServerPool(2, 1.0, new RemovalPolicyLeastUsed());
+        ServerPool spike = new ServerPool(1, 1.0, List.of(new InstanceType("spike", 1.0, 0.0, ServerLifecycle.INSTANT)),
+                new RemovalPolicyLeastUsed(), ProcessorSharing::new, ServerIdAllocator.negative());
+        LoadBalancer loadBalancer = new LoadBalancer(web, new SpikeTier(spike), DispatcherFrontEnd.single(new Dispatcher(0, policy)),
+                new NoneSpikeRouter(), new NoneHorizontalScaler(), new NoneVerticalScaler());
+        return new Simulator(new TraceWorkloadGenerator(new ArrayTraceSource(ARRIVALS, SIZES)), loadBalancer, runPolicy);
+    }
+
+    static class ArrayTraceSource implements TraceSource {
+        private final double[] arrivals;
+        private final double[] sizes;
+        private int index = -1;
+
+        ArrayTraceSource(double[] arrivals, double[] sizes) {
+            this.arrivals = arrivals;
+            this.sizes = sizes;
+        }
+
+        @Override
+        public boolean advance() {
+            return ++index < arrivals.length;
+        }
+
+        @Override
+        public double arrivalTime() {
+            return arrivals[index];
+        }
+
+        @Override
+        public double size() {
+            return sizes[index];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    static class CountingRunPolicy implements RunPolicy {
+        int departures = 0;
+
+        @Override
+        public void updateArrivalStats(double time, JobStats newJobStats, LoadBalancer loadBalancer) {
+        }
+
+        @Override
+        public void updateDepartureStats(double currentTime, JobStats departureJob, LoadBalancer loadBalancer, double responseTime) {
+            departures++;
+        }
+
+        @Override
+        public void updateTimeoutStats(double currentTime, JobStats timedOutJob, LoadBalancer loadBalancer, double wastedWork, boolean retried) {
+        }
+
+        @Override
+        public void updateFinalStats() {
+        }
+
+        @Override
+        public void closeCsvs() {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package it.pmcsn.lbsim.models.simulation.workloadgenerator;
+
+import it.pmcsn.lbsim.utils.AutoCorrelationFunction;
+import it.pmcsn.lbsim.utils.random.HyperExponential;
+import it.pmcsn.lbsim.utils.random.Rngs;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CorrelatedWorkloadGeneratorTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    private static final class Sample {
+        final AutoCorrelationFunction sizes = new AutoCorrelationFunction(1);
+        double gapSizeCorrelation;
+    }
+
+    private static Sample sample(double sizeLag1, double coupling) {
+        Rngs rngs = new Rngs();
+        rngs.plantSeeds(123456789L);
+        HyperExponential interarrival = new HyperExponential(4, 0.15, 0, 1, 2);
+        HyperExponential size = new HyperExponential(4, 0.16, 3, 4, 5);
+        CorrelatedWorkloadGenerator generator = new CorrelatedWorkloadGenerator(rngs, interarrival, size, sizeLag1, coupling, 8);
+
+        Sample sample = new Sample();
+        double t = 0.0, sg = 0.0, ss = 0.0, sgg = 0.0, sss = 0.0, sgs = 0.0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double next = generator.nextArrival(t);
+            double gap = next - t;
+            t = next;
+            double x = generator.nextJobSize();
+            sample.sizes.iteration(x);
+            sg += gap; ss += x; sgg += gap * gap; sss += x * x; sgs += gap * x;
+        }
+        double n = SAMPLES;
+        double cov = sgs / n - (sg / n) * (ss / n);
+        sample.gapSizeCorrelation = cov / Math.sqrt((sgg / n - (sg / n) * (sg / n)) * (sss / n - (ss / n) * (ss / n)));
+        return sample;
+    }
+
+    @Test
+    void sizesKeepTheMarginalMeanAndTheRequestedLag1() {
+        Sample sample = sample(0.3, 0.0);
+
+        assertEquals(0.16, sample.sizes.mean(), 0.01);
+        assertEquals(0.3, sample.sizes.autocorrelation()[1], 0.05);
+        assertEquals(0.0, sample.gapSizeCorrelation, 0.01);
+    }
+
+    // the coupling is a probability of sharing the uniforms, not a target: the correlation stays well below it
+    @Test
+    void couplingCorrelatesGapsAndSizesBelowItsValue() {
+        Sample positive = sample(0.3, 0.5);
+        Sample negative = sample(0.3, -0.5);
+
+        assertTrue(positive.gapSizeCorrelation > 0.1 && positive.gapSizeCorrelation < 0.5, "positive: " + positive.gapSizeCorrelation);
+        assertTrue(negative.gapSizeCorrelation < 0.0 && negative.gapSizeCorrelation > -0.5, "negative: " + negative.gapSizeCorrelation);
+        assertEquals(0.3, positive.sizes.autocorrelation()[1], 0.05);
+    }
+}
@@ -0,0 +1,35 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogIngestorTest {
+
+    private static final Path SAMPLE_LOG = Path.of("src/main/resources/access.log");
+
+    // 3 of the 40 sample lines have "-" bytes: they are skipped, so every job of the trace can be simulated
+    @Test
+    void sampleLogGivesOnlyPositiveSizes() throws IOException {
+        Path dir = Files.createTempDirectory("ingestion");
+        Path arrivals = dir.resolve("arrivals.txt");
+        Path sizes = dir.resolve("sizes.txt");
+        AccessLogIngestor ingestor = new AccessLogIngestor(() -> new ClfLineParser(ClfLineParser.SizeField.BYTES), 1e-6, 2, false);
+
+        long records = ingestor.ingest(SAMPLE_LOG, arrivals, sizes);
+
+        assertEquals(37, records);
+        assertEquals(3, ingestor.getMalformedLines());
+        List<String> written = Files.readAllLines(sizes);
+        assertEquals(records, written.size());
+        for (String size : written) {
+            assertTrue(Double.parseDouble(size) > 0, "size " + size);
+        }
+    }
+}
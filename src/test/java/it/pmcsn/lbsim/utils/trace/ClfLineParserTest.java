@@ -0,0 +1,55 @@
+package it.pmcsn.lbsim.utils.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClfLineParserTest {
+
+    private static final String COMBINED = "192.168.1.11 - - [10/Oct/2023:13:55:00 +0200] \"GET /index.html HTTP/1.1\" 200 27605 \"-\" "
+            + "\"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36\"";
+
+    private static boolean parse(ClfLineParser parser, String line, double[] out) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        return parser.parse(bytes, bytes.length, out);
+    }
+
+    @Test
+    void combinedLineIsParsedOnBytes() {
+        double[] out = new double[2];
+
+        assertTrue(parse(new ClfLineParser(ClfLineParser.SizeField.BYTES), COMBINED, out));
+        assertEquals(27605.0, out[1]);
+    }
+
+    // the user agent is not a number: without a declared duration field the line cannot give one
+    @Test
+    void durationIsReadOnlyWhenTheLineEndsWithIt() {
+        double[] out = new double[2];
+        ClfLineParser parser = new ClfLineParser(ClfLineParser.SizeField.DURATION);
+
+        assertFalse(parse(parser, COMBINED, out));
+        assertTrue(parse(parser, COMBINED + " 1834", out));
+        assertEquals(1834.0, out[1]);
+    }
+
+    // "-" bytes (e.g. a 304) and an empty body would be jobs of size 0: the line is skipped as malformed
+    @Test
+    void lineWithoutBytesIsRejected() {
+        double[] out = new double[2];
+        ClfLineParser parser = new ClfLineParser(ClfLineParser.SizeField.BYTES);
+
+        assertFalse(parse(parser, COMBINED.replace(" 200 27605 ", " 304 - "), out));
+        assertFalse(parse(parser, COMBINED.replace(" 200 27605 ", " 204 0 "), out));
+    }
+
+    @Test
+    void durationFormatsDeclareTheirField() {
+        assertTrue(AccessLogFormat.fromString("combined_duration").hasDurationField());
+        assertFalse(AccessLogFormat.fromString("combined").hasDurationField());
+    }
+}